@@ -0,0 +1,92 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Rewriting a 5 MB spec delivered in 8 KB buffers, as WebClient hands it over: the previous decode-to-String and
+// regex replace against the streaming token rewrite. Run with -prof gc to compare allocation per rewrite.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenApiSpecRewriterBenchmark {
+
+    private static final int SPEC_SIZE = 5 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final OpenApiSpecRewriter rewriter = new OpenApiSpecRewriter();
+    private byte[][] chunks;
+
+    @Setup
+    public void setUp() {
+        byte[] spec = spec().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> split = new ArrayList<>();
+        for (int offset = 0; offset < spec.length; offset += BUFFER_SIZE) {
+            split.add(Arrays.copyOfRange(spec, offset, Math.min(spec.length, offset + BUFFER_SIZE)));
+        }
+        chunks = split.toArray(byte[][]::new);
+    }
+
+    @Benchmark
+    public byte[] regexOnString() {
+        String json = buffers()
+                .reduce(new StringBuilder(), (builder, buffer) -> builder.append(buffer.toString(StandardCharsets.UTF_8)))
+                .map(StringBuilder::toString)
+                .block();
+        return json.replaceAll("\"servers\":\\[\\{[^\\]]+\\]",
+                        "\"servers\":[{\"url\":\"http://localhost:8080\",\"description\":\"API Gateway\"}]")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] streamingTokens() {
+        return rewriter.rewrite(buffers(), null).block();
+    }
+
+    @Benchmark
+    public byte[] streamingTokensWithPathPrefix() {
+        return rewriter.rewrite(buffers(), "/api/v1/analyses").block();
+    }
+
+    private Flux<DataBuffer> buffers() {
+        return Flux.fromArray(chunks).map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+
+    // Paths shaped like analyses-service operations, repeated until the document reaches SPEC_SIZE
+    private static String spec() {
+        StringBuilder spec = new StringBuilder(SPEC_SIZE + 4096)
+                .append("{\"openapi\":\"3.0.1\",\"info\":{\"title\":\"Analyses API\",\"version\":\"1.0\"},")
+                .append("\"servers\":[{\"url\":\"http://{host}:8082\",\"variables\":{\"host\":{\"default\":\"analyses\"}}}],")
+                .append("\"paths\":{");
+        for (int i = 0; spec.length() < SPEC_SIZE; i++) {
+            if (i > 0) {
+                spec.append(',');
+            }
+            spec.append("\"/dropzones/").append(i).append("/forecasts/{date}\":{\"get\":{\"tags\":[\"forecasts\"],")
+                    .append("\"operationId\":\"getForecast").append(i).append("\",\"parameters\":[{\"name\":\"date\",")
+                    .append("\"in\":\"path\",\"required\":true,\"schema\":{\"type\":\"string\",\"format\":\"date\"}}],")
+                    .append("\"responses\":{\"200\":{\"description\":\"Forecast for the dropzone\",\"content\":")
+                    .append("{\"application/json\":{\"schema\":{\"$ref\":\"#/components/schemas/Forecast\"}}}}}}}");
+        }
+        return spec.append("},\"components\":{\"schemas\":{\"Forecast\":{\"type\":\"object\"}}}}").toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.skydiveforecast.infrastructure.config;
+
+import com.skydiveforecast.infrastructure.network.ClientIpResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+// Rate limit key resolution per request; exchanges are built once and the cached client IP attribute is cleared
+// before each call, so only the resolver itself is measured
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterKeyResolverBenchmark {
+
+    private KeyResolver keyResolver;
+    private MockServerWebExchange forwardedExchange;
+    private MockServerWebExchange directExchange;
+    private MockServerWebExchange rfc7239Exchange;
+
+    @Setup
+    public void setUp() {
+        keyResolver = new RateLimiterConfig().ipKeyResolver();
+        forwardedExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/analyses")
+                .header("X-Forwarded-For", "203.0.113.7, 10.0.0.12, 10.0.0.3"));
+        directExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/analyses")
+                .remoteAddress(new InetSocketAddress("198.51.100.23", 52114)));
+        rfc7239Exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/analyses")
+                .header("Forwarded", "for=\"[2001:db8:cafe:1:a:b:c:d]:4711\";proto=https, for=10.0.0.12")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 52114)));
+    }
+
+    @Benchmark
+    public String resolveForwardedFor() {
+        return resolve(forwardedExchange);
+    }
+
+    @Benchmark
+    public String resolveRemoteAddress() {
+        return resolve(directExchange);
+    }
+
+    @Benchmark
+    public String resolveForwardedIpv6() {
+        return resolve(rfc7239Exchange);
+    }
+
+    private String resolve(MockServerWebExchange exchange) {
+        exchange.getAttributes().remove(ClientIpResolver.CLIENT_IP_ATTRIBUTE);
+        return keyResolver.resolve(exchange).block();
+    }
+}
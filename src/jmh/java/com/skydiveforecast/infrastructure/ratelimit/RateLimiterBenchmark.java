@@ -0,0 +1,115 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-request limiter decision: in-process GCRA vs the gateway's RedisRateLimiter Lua script, one call per request
+// or batched over a short window by BatchingRedisRateLimiter.
+// The Redis benchmarks need a local Redis (docker run -p 6379:6379 redis:7); REDIS_HOST/REDIS_PORT override it.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RateLimiterBenchmark {
+
+    private static final String ROUTE_ID = "analyses";
+
+    // Distinct client keys hit during the run
+    @Param({"1", "10000"})
+    int keyCount;
+
+    private String[] keys;
+    private LocalRateLimiter localRateLimiter;
+    private RedisRateLimiter redisRateLimiter;
+    private BatchingRedisRateLimiter batchingRedisRateLimiter;
+    private LettuceConnectionFactory connectionFactory;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+        localRateLimiter = new LocalRateLimiter(
+                new RateLimiterProperties.Local(1_000_000, 1_000_000, 1, null, null), null);
+
+        String host = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+        int port = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+        connectionFactory = new LettuceConnectionFactory(host, port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        RedisScript<List<Long>> script = (RedisScript) RedisScript.of(
+                new ClassPathResource("META-INF/scripts/request_rate_limiter.lua"), List.class);
+        ReactiveStringRedisTemplate redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+        redisRateLimiter = new RedisRateLimiter(redisTemplate, script, null);
+        batchingRedisRateLimiter = new BatchingRedisRateLimiter(redisTemplate, script, null,
+                new RedisRateLimitBatchExecutor(redisTemplate),
+                new RateLimiterProperties.Batching(true, Duration.ofNanos(200_000), 128), new SimpleMeterRegistry());
+        for (RedisRateLimiter limiter : List.of(redisRateLimiter, batchingRedisRateLimiter)) {
+            limiter.getConfig().put(ROUTE_ID, new RedisRateLimiter.Config()
+                    .setReplenishRate(1_000_000)
+                    .setBurstCapacity(1_000_000)
+                    .setRequestedTokens(1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Benchmark
+    public RateLimiter.Response local(Cursor cursor) {
+        return localRateLimiter.isAllowed(ROUTE_ID, nextKey(cursor)).block();
+    }
+
+    @Benchmark
+    public RateLimiter.Response redis(Cursor cursor) {
+        return redisRateLimiter.isAllowed(ROUTE_ID, nextKey(cursor)).block();
+    }
+
+    @Benchmark
+    public RateLimiter.Response redisBatched(Cursor cursor) {
+        return batchingRedisRateLimiter.isAllowed(ROUTE_ID, nextKey(cursor)).block();
+    }
+
+    private String nextKey(Cursor cursor) {
+        int index = cursor.next;
+        cursor.next = index + 1 == keyCount ? 0 : index + 1;
+        return keys[index];
+    }
+}
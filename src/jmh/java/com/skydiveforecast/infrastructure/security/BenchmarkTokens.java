@@ -0,0 +1,51 @@
+package com.skydiveforecast.infrastructure.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Tokens shaped like the ones issued by user-service: a handful of roles and a permission list that grows with the account
+final class BenchmarkTokens {
+
+    static final String SECRET = "hK8nX2mP9qR5vT3wL7bE4jY6cA1dF8sZ";
+    static final long EXPIRATION = 3600000L;
+
+    private BenchmarkTokens() {
+    }
+
+    static String signed(int permissionCount) {
+        return signed(SECRET, permissionCount);
+    }
+
+    static String signed(String secret, int permissionCount) {
+        return Jwts.builder()
+                .subject("benchmark.user@skydiveforecast.com")
+                .claim("userId", 48213L)
+                .claim("roles", List.of("USER", "INSTRUCTOR", "DROPZONE_MANAGER"))
+                .claim("permissions", permissions(permissionCount))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+
+    static String forged(int permissionCount) {
+        return signed("aDifferentSecretKeyThatIs32Bytes", permissionCount);
+    }
+
+    static JwtProperties properties(boolean cacheEnabled) {
+        return new JwtProperties(SECRET, EXPIRATION, new JwtProperties.Cache(cacheEnabled, 0L, null),
+                null, null, null, null, null);
+    }
+
+    private static List<String> permissions(int count) {
+        List<String> permissions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            permissions.add("RESOURCE_" + i + (i % 2 == 0 ? "_VIEW" : "_EDIT"));
+        }
+        return permissions;
+    }
+}
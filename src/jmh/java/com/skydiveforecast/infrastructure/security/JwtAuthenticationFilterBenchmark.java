@@ -0,0 +1,92 @@
+package com.skydiveforecast.infrastructure.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+// Full filter pass for an authenticated request, plus identity header mutation rendered per request
+// (headerMutation) vs memoized per principal with the compact header (memoizedIdentityHeaders)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"2", "20", "100"})
+    int permissionCount;
+
+    private JwtAuthenticationFilter filter;
+    private AuthenticatedPrincipal principal;
+    private IdentityHeaders identityHeaders;
+    private String authorization;
+    private ServerWebExchange forwarded;
+    private final WebFilterChain chain = exchange -> {
+        forwarded = exchange;
+        return Mono.empty();
+    };
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = BenchmarkTokens.properties(true);
+        identityHeaders = new IdentityHeaders(new JwtProperties(BenchmarkTokens.SECRET, BenchmarkTokens.EXPIRATION,
+                null, null, null, null, new JwtProperties.IdentityHeader(true, null, "benchmark-identity-secret", true), null));
+        JwtService jwtService = new JwtService(properties, new JwtKeyRing(properties), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtService, properties);
+        String token = BenchmarkTokens.signed(permissionCount);
+        authorization = "Bearer " + token;
+        principal = jwtService.verify(token).principal();
+    }
+
+    @Benchmark
+    public ServerWebExchange authenticatedRequest() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/analyses/42/forecast")
+                .header(HttpHeaders.AUTHORIZATION, authorization));
+        filter.filter(exchange, chain).block();
+        return forwarded;
+    }
+
+    @Benchmark
+    public ServerWebExchange publicPathRequest() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+        filter.filter(exchange, chain).block();
+        return forwarded;
+    }
+
+    @Benchmark
+    public ServerHttpRequest memoizedIdentityHeaders() {
+        ServerHttpRequest.Builder request = MockServerHttpRequest.get("/api/v1/analyses/42/forecast").build().mutate();
+        identityHeaders.apply(request, principal);
+        return request.build();
+    }
+
+    @Benchmark
+    public ServerHttpRequest headerMutation() {
+        return MockServerHttpRequest.get("/api/v1/analyses/42/forecast").build().mutate()
+                .header("X-User-Email", principal.subject())
+                .header("X-User-Id", String.valueOf(principal.userId()))
+                .header("X-User-Permissions", String.join(",", principal.permissions()))
+                .header("X-User-Roles", String.join(",", principal.roles()))
+                .build();
+    }
+}
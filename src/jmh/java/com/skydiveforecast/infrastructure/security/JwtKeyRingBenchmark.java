@@ -0,0 +1,56 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Signing key lookup by kid, as done by the parser's key locator on every uncached verification
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtKeyRingBenchmark {
+
+    @Param({"1", "16"})
+    int keyCount;
+
+    private JwtKeyRing keyRing;
+    private String kid;
+
+    @Setup
+    public void setUp() {
+        List<JwtProperties.VerificationKey> keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add(new JwtProperties.VerificationKey("key-" + i, "HS256",
+                    BenchmarkTokens.SECRET.substring(2) + String.format("%02d", i), null, null));
+        }
+        keyRing = new JwtKeyRing(new JwtProperties(BenchmarkTokens.SECRET, BenchmarkTokens.EXPIRATION, null,
+                new JwtProperties.KeyRing(keys, null, null, null), null, null, null, null));
+        kid = "key-" + (keyCount - 1);
+    }
+
+    @Benchmark
+    public Key resolveDefaultKey() {
+        return keyRing.resolve(null, "HS256");
+    }
+
+    @Benchmark
+    public Key resolveByKid() {
+        return keyRing.resolve(kid, "HS256");
+    }
+}
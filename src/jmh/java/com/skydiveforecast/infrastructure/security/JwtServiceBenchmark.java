@@ -0,0 +1,76 @@
+package com.skydiveforecast.infrastructure.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Token validation and claim extraction, with and without the verified-principal cache in front of the signature check
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    // Permission claim counts seen for regular users, instructors and dropzone administrators
+    @Param({"2", "20", "100"})
+    int permissionCount;
+
+    private JwtService uncachedService;
+    private JwtService cachedService;
+    private String token;
+    private String forgedToken;
+
+    @Setup
+    public void setUp() {
+        JwtProperties uncached = BenchmarkTokens.properties(false);
+        JwtProperties cached = BenchmarkTokens.properties(true);
+        uncachedService = new JwtService(uncached, new JwtKeyRing(uncached), new SimpleMeterRegistry());
+        cachedService = new JwtService(cached, new JwtKeyRing(cached), new SimpleMeterRegistry());
+        token = BenchmarkTokens.signed(permissionCount);
+        forgedToken = BenchmarkTokens.forged(permissionCount);
+        if (cachedService.verify(token).principal() == null) {
+            throw new IllegalStateException("Benchmark token does not verify");
+        }
+        cachedService.verify(forgedToken);
+    }
+
+    @Benchmark
+    public AuthenticationResult verifySignature() {
+        return uncachedService.verify(token);
+    }
+
+    @Benchmark
+    public AuthenticationResult verifyCached() {
+        return cachedService.verify(token);
+    }
+
+    @Benchmark
+    public AuthenticationResult verifyForgedRejected() {
+        return cachedService.verify(forgedToken);
+    }
+
+    @Benchmark
+    public Optional<Claims> extractClaims() {
+        return uncachedService.validateAndExtractClaims(token);
+    }
+
+    @Benchmark
+    public JwtPreParser.Outcome preParse() {
+        return JwtPreParser.check(token, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,69 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Public path lookup cost for 5, 50 and 500 patterns: compiled trie vs the previous AntPathMatcher stream
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublicPathMatcherBenchmark {
+
+    @Param({"5", "50", "500"})
+    int patternCount;
+
+    private List<String> patterns;
+    private PublicPathMatcher compiledMatcher;
+    private AntPathMatcher antPathMatcher;
+    private String authenticatedPath;
+    private String publicPath;
+
+    @Setup
+    public void setUp() {
+        patterns = new ArrayList<>(JwtProperties.DEFAULT_PUBLIC_PATHS.subList(0, Math.min(5, patternCount)));
+        for (int i = patterns.size(); i < patternCount; i++) {
+            patterns.add(i % 2 == 0 ? "/api/v1/service-" + i + "/public/**" : "/api/v1/service-" + i + "/*/info");
+        }
+        compiledMatcher = PublicPathMatcher.compile(patterns);
+        antPathMatcher = new AntPathMatcher();
+        authenticatedPath = "/api/v1/analyses/42/forecast";
+        publicPath = patternCount > 5 ? "/api/v1/service-" + (patternCount - 2) + "/public/status" : "/actuator/health";
+    }
+
+    @Benchmark
+    public boolean compiledAuthenticatedPath() {
+        return compiledMatcher.matches(authenticatedPath);
+    }
+
+    @Benchmark
+    public boolean compiledPublicPath() {
+        return compiledMatcher.matches(publicPath);
+    }
+
+    @Benchmark
+    public boolean antStreamAuthenticatedPath() {
+        return patterns.stream().anyMatch(pattern -> antPathMatcher.match(pattern, authenticatedPath));
+    }
+
+    @Benchmark
+    public boolean antStreamPublicPath() {
+        return patterns.stream().anyMatch(pattern -> antPathMatcher.match(pattern, publicPath));
+    }
+}
@@ -0,0 +1,75 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Content coding helpers for responses whose compressed variants are built once and then served as they are
+final class ContentEncodings {
+
+    static final String GZIP = "gzip";
+
+    private ContentEncodings() {
+    }
+
+    // Compressed at the highest level, since the cost is paid once per spec change rather than per request; null
+    // when compression would not make the body smaller
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.size() < body.length ? out.toByteArray() : null;
+    }
+
+    // RFC 9110 Accept-Encoding: gzip is acceptable when listed, or covered by *, with a non-zero quality
+    static boolean acceptsGzip(HttpHeaders headers) {
+        List<String> values = headers.get(HttpHeaders.ACCEPT_ENCODING);
+        if (values == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean wildcard = false;
+        for (String value : values) {
+            for (String coding : value.split(",")) {
+                int parameters = coding.indexOf(';');
+                String name = (parameters < 0 ? coding : coding.substring(0, parameters)).trim()
+                        .toLowerCase(Locale.ROOT);
+                boolean acceptable = parameters < 0 || quality(coding.substring(parameters + 1)) > 0;
+                if (name.equals(GZIP) || name.equals("x-gzip")) {
+                    gzip = acceptable;
+                } else if (name.equals("*")) {
+                    wildcard = acceptable;
+                }
+            }
+        }
+        return gzip != null ? gzip : wildcard;
+    }
+
+    private static double quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.length() > 2 && (trimmed.charAt(0) == 'q' || trimmed.charAt(0) == 'Q')
+                    && trimmed.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(trimmed.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
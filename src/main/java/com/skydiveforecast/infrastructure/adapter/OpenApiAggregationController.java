@@ -1,24 +1,62 @@
 package com.skydiveforecast.infrastructure.adapter;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Serves each service's OpenAPI spec from memory. Specs are fetched once, rewritten to point at the gateway and
+// refreshed in the background with If-None-Match revalidation; clients get our own ETag and 304s. A service that
+// is down keeps its last good copy, and the error doc is only served before the first successful fetch.
+// Each upstream spec is also kept as an on-disk snapshot and rewritten again when loaded at startup, so a restart
+// does not depend on upstreams and always applies the current rewrite settings.
+// /v3/api-docs/merged combines every service's spec into one document, cached until one of them changes.
 @RestController
 public class OpenApiAggregationController {
 
     private static final Logger log = LoggerFactory.getLogger(OpenApiAggregationController.class);
-    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final List<String> SERVICES = List.of("users", "analyses", "locations");
 
-    private final WebClient webClient = WebClient.builder().build();
+    private final WebClient webClient;
+    private final OpenApiSpecRewriter rewriter = new OpenApiSpecRewriter();
+    private final OpenApiDocMerger merger = new OpenApiDocMerger();
+    private final Map<String, CachedApiDoc> docs = new ConcurrentHashMap<>();
+    private final Map<String, Mono<CachedApiDoc>> pendingFetches = new ConcurrentHashMap<>();
+    private volatile MergedApiDoc merged;
+    private volatile OpenApiSnapshotStore snapshots;
+    private Disposable refresher;
 
     @Value("${USER_SERVICE_URL:http://localhost:8081}")
     private String userServiceUrl;
@@ -29,39 +67,271 @@ public class OpenApiAggregationController {
     @Value("${LOCATION_SERVICE_URL:http://localhost:8083}")
     private String locationServiceUrl;
 
+    @Value("${gateway.openapi.refresh-interval:1m}")
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    // Applies to each service on its own, so a slow service cannot hold up the merged doc for longer than this
+    @Value("${gateway.openapi.timeout:5s}")
+    private Duration timeout = Duration.ofSeconds(5);
+
+    @Value("${gateway.openapi.rewrite-path-prefixes:false}")
+    private boolean rewritePathPrefixes;
+
+    // Blank disables snapshots; point it at a volume to keep them across container restarts
+    @Value("${gateway.openapi.snapshot-dir:${java.io.tmpdir}/skydive-gateway/openapi}")
+    private String snapshotDir = "";
+
+    public OpenApiAggregationController() {
+        this(WebClient.builder().build());
+    }
+
+    // Shares the gateway's HttpClient, so spec fetches use the same pools, protocols and metrics as routed requests
+    @Autowired
+    public OpenApiAggregationController(HttpClient httpClient) {
+        this(WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).build());
+    }
+
+    private OpenApiAggregationController(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @PostConstruct
+    void startRefresh() {
+        loadSnapshots();
+        // The first tick warms the cache at startup, so no client waits on an upstream fetch
+        refresher = Flux.interval(Duration.ZERO, refreshInterval, Schedulers.parallel())
+                .onBackpressureDrop()
+                .concatMap(tick -> refreshAll())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stopRefresh() {
+        if (refresher != null) {
+            refresher.dispose();
+        }
+    }
+
     @GetMapping(value = "/v3/api-docs/users", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<String> getUsersApiDocs() {
-        return fetchApiDocsFromPath(userServiceUrl, "/v3/api-docs/users", "users");
+    public Mono<Void> getUsersApiDocs(ServerWebExchange exchange) {
+        return serve("users", exchange);
     }
 
     @GetMapping(value = "/v3/api-docs/analyses", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<String> getAnalysesApiDocs() {
-        return fetchApiDocsFromPath(analysisServiceUrl, "/v3/api-docs/analyses", "analyses");
+    public Mono<Void> getAnalysesApiDocs(ServerWebExchange exchange) {
+        return serve("analyses", exchange);
     }
 
     @GetMapping(value = "/v3/api-docs/locations", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<String> getLocationsApiDocs() {
-        return fetchApiDocsFromPath(locationServiceUrl, "/v3/api-docs/locations", "locations");
+    public Mono<Void> getLocationsApiDocs(ServerWebExchange exchange) {
+        return serve("locations", exchange);
     }
 
-    private Mono<String> fetchApiDocsFromPath(String serviceUrl, String path, String serviceName) {
-        return webClient.get()
-                .uri(serviceUrl + path)
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(TIMEOUT)
-                .map(this::rewriteServers)
+    @GetMapping(value = "/v3/api-docs/merged", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Void> getMergedApiDocs(ServerWebExchange exchange) {
+        return Flux.fromIterable(SERVICES)
+                .flatMapSequential(serviceName -> docFor(serviceName)
+                        .map(doc -> new MergeInput(serviceName, doc, null))
+                        .onErrorResume(e -> Mono.just(new MergeInput(serviceName, null,
+                                "Service unavailable: " + e.getMessage()))))
+                .collectList()
+                .flatMap(this::mergedDoc)
+                .flatMap(doc -> write(exchange, doc));
+    }
+
+    Mono<Void> refreshAll() {
+        return Flux.fromIterable(SERVICES)
+                .flatMap(serviceName -> fetch(serviceName).onErrorResume(e -> {
+                    log.warn("Error refreshing API docs for {}, keeping last good copy: {}", serviceName,
+                            e.getMessage());
+                    return Mono.empty();
+                }))
+                .then();
+    }
+
+    private Mono<Void> serve(String serviceName, ServerWebExchange exchange) {
+        return docFor(serviceName)
+                .flatMap(doc -> write(exchange, doc))
                 .onErrorResume(WebClientResponseException.class, e -> {
                     log.error("Error fetching API docs for {}: {} - {}", serviceName, e.getStatusCode(),
                             e.getMessage());
-                    return Mono.just(createErrorApiDoc(serviceName, "Service returned error: " + e.getStatusCode()));
+                    return writeError(exchange, serviceName, "Service returned error: " + e.getStatusCode());
                 })
                 .onErrorResume(Exception.class, e -> {
                     log.error("Error fetching API docs for {}: {}", serviceName, e.getMessage());
-                    return Mono.just(createErrorApiDoc(serviceName, "Service unavailable: " + e.getMessage()));
+                    return writeError(exchange, serviceName, "Service unavailable: " + e.getMessage());
                 });
     }
 
+    private Mono<CachedApiDoc> docFor(String serviceName) {
+        CachedApiDoc cached = docs.get(serviceName);
+        return cached != null ? Mono.just(cached) : fetch(serviceName);
+    }
+
+    // Rebuilt only when a service's spec has changed or come and gone since the last merge; the merge itself runs
+    // off the event loop
+    private Mono<CachedApiDoc> mergedDoc(List<MergeInput> inputs) {
+        List<String> etags = inputs.stream().map(MergeInput::etag).toList();
+        MergedApiDoc current = merged;
+        if (current != null && current.inputEtags().equals(etags)) {
+            return Mono.just(current.doc());
+        }
+        return Mono.fromCallable(() -> {
+                    Map<String, byte[]> specs = new LinkedHashMap<>();
+                    Map<String, String> failures = new LinkedHashMap<>();
+                    for (MergeInput input : inputs) {
+                        if (input.doc() != null) {
+                            specs.put(input.serviceName(), input.doc().body());
+                        } else {
+                            failures.put(input.serviceName(), input.failure());
+                        }
+                    }
+                    CachedApiDoc doc = CachedApiDoc.of(merger.merge(specs, failures), null);
+                    merged = new MergedApiDoc(etags, doc);
+                    return doc;
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Concurrent misses and the background refresh share one upstream call per service
+    private Mono<CachedApiDoc> fetch(String serviceName) {
+        return pendingFetches.computeIfAbsent(serviceName, this::sharedFetch);
+    }
+
+    // Unregistered before the result is emitted, so a caller that comes after it starts a new upstream call
+    // instead of replaying this one
+    private Mono<CachedApiDoc> sharedFetch(String serviceName) {
+        AtomicReference<Mono<CachedApiDoc>> shared = new AtomicReference<>();
+        shared.set(fetchFromUpstream(serviceName)
+                .doOnSuccess(doc -> pendingFetches.remove(serviceName, shared.get()))
+                .doOnError(e -> pendingFetches.remove(serviceName, shared.get()))
+                .cache());
+        return shared.get();
+    }
+
+    private Mono<CachedApiDoc> fetchFromUpstream(String serviceName) {
+        CachedApiDoc current = docs.get(serviceName);
+        boolean keepUpstreamBody = snapshots != null;
+        return webClient.get()
+                .uri(serviceUrl(serviceName) + "/v3/api-docs/" + serviceName)
+                .headers(headers -> {
+                    if (current != null && current.upstreamEtag() != null) {
+                        headers.setIfNoneMatch(current.upstreamEtag());
+                    }
+                })
+                .<Fetched>exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && current != null) {
+                        return response.releaseBody().thenReturn(new Fetched(current, null));
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createError();
+                    }
+                    String upstreamEtag = response.headers().asHttpHeaders().getETag();
+                    ByteArrayOutputStream upstreamBody = keepUpstreamBody ? new ByteArrayOutputStream() : null;
+                    Flux<DataBuffer> body = response.bodyToFlux(DataBuffer.class);
+                    if (upstreamBody != null) {
+                        body = body.doOnNext(buffer -> copy(buffer, upstreamBody));
+                    }
+                    return rewriter.rewrite(body, pathPrefix(serviceName))
+                            .map(rewritten -> new Fetched(CachedApiDoc.of(rewritten, upstreamEtag),
+                                    upstreamBody != null ? upstreamBody.toByteArray() : null));
+                })
+                .timeout(timeout)
+                .doOnNext(fetched -> docs.put(serviceName, fetched.doc()))
+                .flatMap(fetched -> fetched.upstreamBody() != null && changed(current, fetched.doc())
+                        ? saveSnapshot(serviceName, fetched).thenReturn(fetched.doc())
+                        : Mono.just(fetched.doc()));
+    }
+
+    // Copied before the rewriter releases the buffer; the read position is left alone
+    private static void copy(DataBuffer buffer, ByteArrayOutputStream out) {
+        try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+            while (buffers.hasNext()) {
+                ByteBuffer bytes = buffers.next();
+                byte[] chunk = new byte[bytes.remaining()];
+                bytes.get(chunk);
+                out.writeBytes(chunk);
+            }
+        }
+    }
+
+    private static boolean changed(CachedApiDoc current, CachedApiDoc doc) {
+        return current == null || !current.etag().equals(doc.etag())
+                || !Objects.equals(current.upstreamEtag(), doc.upstreamEtag());
+    }
+
+    // Loaded before the first refresh, so docs are served from the last run while upstreams are slow or down.
+    // Snapshots hold the upstream body, so a 304 on the next refresh keeps a doc built with today's settings.
+    void loadSnapshots() {
+        snapshots = snapshotDir.isBlank() ? null : new OpenApiSnapshotStore(Path.of(snapshotDir));
+        if (snapshots == null) {
+            return;
+        }
+        snapshots.loadAll(SERVICES).forEach((serviceName, snapshot) -> {
+            try {
+                byte[] body = rewriter.rewrite(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(snapshot.body())),
+                        pathPrefix(serviceName)).block();
+                docs.putIfAbsent(serviceName, CachedApiDoc.of(body, snapshot.upstreamEtag()));
+                log.info("Loaded API docs snapshot for {}", serviceName);
+            } catch (RuntimeException e) {
+                log.warn("Ignoring API docs snapshot for {} that cannot be rewritten: {}", serviceName,
+                        e.getMessage());
+            }
+        });
+    }
+
+    private Mono<Void> saveSnapshot(String serviceName, Fetched fetched) {
+        OpenApiSnapshotStore store = snapshots;
+        if (store == null) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromCallable(() -> {
+                    store.save(serviceName, new OpenApiSnapshotStore.Snapshot(fetched.upstreamBody(),
+                            fetched.doc().upstreamEtag()));
+                    return null;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    log.warn("Could not save API docs snapshot for {}: {}", serviceName, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    // The gzip variant is a separate representation, so it carries its own ETag
+    private Mono<Void> write(ServerWebExchange exchange, CachedApiDoc doc) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        boolean gzip = doc.gzipBody() != null && ContentEncodings.acceptsGzip(exchange.getRequest().getHeaders());
+        if (exchange.checkNotModified(gzip ? doc.gzipEtag() : doc.etag())) {
+            return response.setComplete();
+        }
+        if (gzip) {
+            response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, ContentEncodings.GZIP);
+            return writeJson(response, doc.gzipBody());
+        }
+        return writeJson(response, doc.body());
+    }
+
+    private Mono<Void> writeError(ServerWebExchange exchange, String serviceName, String errorMessage) {
+        return writeJson(exchange.getResponse(),
+                createErrorApiDoc(serviceName, errorMessage).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mono<Void> writeJson(ServerHttpResponse response, byte[] body) {
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private String serviceUrl(String serviceName) {
+        return switch (serviceName) {
+            case "users" -> userServiceUrl;
+            case "analyses" -> analysisServiceUrl;
+            case "locations" -> locationServiceUrl;
+            default -> throw new IllegalArgumentException("Unknown service " + serviceName);
+        };
+    }
+
     private String createErrorApiDoc(String serviceName, String errorMessage) {
         return String.format("""
                 {
@@ -77,8 +347,36 @@ public class OpenApiAggregationController {
                 """, serviceName, errorMessage);
     }
 
-    private String rewriteServers(String openApiJson) {
-        return openApiJson.replaceAll("\"servers\":\\[\\{[^\\]]+\\]",
-                "\"servers\":[{\"url\":\"http://localhost:8080\",\"description\":\"API Gateway\"}]");
+    // Upstream specs list paths as the service sees them; clients call them through /api/v1/{service}
+    private String pathPrefix(String serviceName) {
+        return rewritePathPrefixes ? "/api/v1/" + serviceName : null;
+    }
+
+    private record MergeInput(String serviceName, CachedApiDoc doc, String failure) {
+
+        private String etag() {
+            return doc != null ? doc.etag() : null;
+        }
+    }
+
+    private record MergedApiDoc(List<String> inputEtags, CachedApiDoc doc) {
+    }
+
+    // upstreamBody is null when the doc was revalidated with a 304 or snapshots are off
+    private record Fetched(CachedApiDoc doc, byte[] upstreamBody) {
+    }
+
+    // Rewritten spec bytes and their gzip variant, built once per change, with our ETag derived from the bytes we
+    // serve and the upstream's for revalidation. gzipBody is null when compression does not pay off.
+    private record CachedApiDoc(byte[] body, byte[] gzipBody, String etag, String upstreamEtag) {
+
+        private static CachedApiDoc of(byte[] body, String upstreamEtag) {
+            String hash = DigestUtils.md5DigestAsHex(body);
+            return new CachedApiDoc(body, ContentEncodings.gzip(body), "\"" + hash + "\"", upstreamEtag);
+        }
+
+        private String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
     }
 }
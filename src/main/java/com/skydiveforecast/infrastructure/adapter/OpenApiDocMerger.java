@@ -0,0 +1,174 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Builds one OpenAPI document from the per-service specs. Paths are prefixed with the service's gateway route.
+// Components and tags that clash with different content are renamed to <service>.<name>, with that service's
+// $refs and operation tags updated to match. Services without a spec are listed under x-gateway-warnings.
+final class OpenApiDocMerger {
+
+    static final String WARNINGS_EXTENSION = "x-gateway-warnings";
+
+    private static final String REF_PREFIX = "#/components/";
+    private static final String SECURITY_SCHEMES = "securitySchemes";
+
+    private final ObjectMapper objectMapper;
+
+    OpenApiDocMerger() {
+        this(new ObjectMapper());
+    }
+
+    OpenApiDocMerger(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // specs and failures are keyed by service name; specs are merged in iteration order, so earlier services keep
+    // their names on a clash
+    byte[] merge(Map<String, byte[]> specs, Map<String, String> failures) throws IOException {
+        ObjectNode merged = objectMapper.createObjectNode();
+        merged.put("openapi", "3.0.1");
+        merged.putObject("info")
+                .put("title", "Skydive Forecast API")
+                .put("description", "Merged from " + String.join(", ", specs.keySet()))
+                .put("version", "1.0");
+        merged.putArray("servers").addObject()
+                .put("url", OpenApiSpecRewriter.GATEWAY_URL)
+                .put("description", OpenApiSpecRewriter.GATEWAY_DESCRIPTION);
+        ArrayNode tags = merged.putArray("tags");
+        ObjectNode paths = merged.putObject("paths");
+        ObjectNode components = merged.putObject("components");
+
+        List<String> warnings = new ArrayList<>();
+        failures.forEach((serviceName, failure) -> warnings.add(serviceName + ": " + failure));
+        Map<String, JsonNode> tagsByName = new HashMap<>();
+        for (Map.Entry<String, byte[]> spec : specs.entrySet()) {
+            String serviceName = spec.getKey();
+            JsonNode document = objectMapper.readTree(spec.getValue());
+            Map<String, String> renamedRefs = new HashMap<>();
+            Map<String, String> renamedTags = new LinkedHashMap<>();
+
+            planComponentRenames(serviceName, document.path("components"), components, renamedRefs, warnings);
+            for (JsonNode tag : document.path("tags")) {
+                String name = tag.path("name").asText();
+                JsonNode existing = tagsByName.get(name);
+                if (existing == null) {
+                    tagsByName.put(name, tag);
+                    tags.add(tag);
+                } else if (!existing.equals(tag)) {
+                    String renamed = serviceName + "." + name;
+                    renamedTags.put(name, renamed);
+                    tags.add(((ObjectNode) tag.deepCopy()).put("name", renamed));
+                }
+            }
+            if (!renamedRefs.isEmpty()) {
+                rewriteRefs(document, renamedRefs);
+            }
+            mergeComponents(document.path("components"), components, renamedRefs);
+            mergePaths(serviceName, document.path("paths"), paths, renamedTags, warnings);
+        }
+        if (!warnings.isEmpty()) {
+            ArrayNode warningsNode = merged.putArray(WARNINGS_EXTENSION);
+            warnings.forEach(warningsNode::add);
+        }
+        return objectMapper.writeValueAsBytes(merged);
+    }
+
+    private void planComponentRenames(String serviceName, JsonNode serviceComponents, ObjectNode components,
+                                      Map<String, String> renamedRefs, List<String> warnings) {
+        for (Map.Entry<String, JsonNode> section : serviceComponents.properties()) {
+            JsonNode existingSection = components.get(section.getKey());
+            if (existingSection == null || !section.getValue().isObject()) {
+                continue;
+            }
+            for (Map.Entry<String, JsonNode> entry : section.getValue().properties()) {
+                String name = entry.getKey();
+                JsonNode existing = existingSection.get(name);
+                if (existing == null || existing.equals(entry.getValue())) {
+                    continue;
+                }
+                // Security requirements refer to schemes by bare name, so those cannot be renamed
+                if (SECURITY_SCHEMES.equals(section.getKey())) {
+                    warnings.add(serviceName + ": security scheme " + name + " differs from another service's");
+                    continue;
+                }
+                renamedRefs.put(REF_PREFIX + section.getKey() + "/" + name,
+                        REF_PREFIX + section.getKey() + "/" + serviceName + "." + name);
+            }
+        }
+    }
+
+    private void mergeComponents(JsonNode serviceComponents, ObjectNode components, Map<String, String> renamedRefs) {
+        for (Map.Entry<String, JsonNode> section : serviceComponents.properties()) {
+            if (!section.getValue().isObject()) {
+                continue;
+            }
+            ObjectNode targetSection = components.get(section.getKey()) instanceof ObjectNode existing
+                    ? existing
+                    : components.putObject(section.getKey());
+            String refPrefix = REF_PREFIX + section.getKey() + "/";
+            for (Map.Entry<String, JsonNode> entry : section.getValue().properties()) {
+                String renamed = renamedRefs.get(refPrefix + entry.getKey());
+                if (renamed != null) {
+                    targetSection.set(renamed.substring(refPrefix.length()), entry.getValue());
+                } else if (!targetSection.has(entry.getKey())) {
+                    targetSection.set(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void mergePaths(String serviceName, JsonNode servicePaths, ObjectNode paths,
+                            Map<String, String> renamedTags, List<String> warnings) {
+        String prefix = "/api/v1/" + serviceName;
+        for (Map.Entry<String, JsonNode> entry : servicePaths.properties()) {
+            String path = OpenApiSpecRewriter.prefixed(prefix, entry.getKey());
+            if (paths.has(path)) {
+                warnings.add(serviceName + ": path " + path + " is already provided by another service");
+                continue;
+            }
+            if (!renamedTags.isEmpty()) {
+                renameOperationTags(entry.getValue(), renamedTags);
+            }
+            paths.set(path, entry.getValue());
+        }
+    }
+
+    private static void renameOperationTags(JsonNode pathItem, Map<String, String> renamedTags) {
+        for (JsonNode operation : pathItem) {
+            if (operation.get("tags") instanceof ArrayNode operationTags) {
+                for (int i = 0; i < operationTags.size(); i++) {
+                    String renamed = renamedTags.get(operationTags.get(i).asText());
+                    if (renamed != null) {
+                        operationTags.set(i, TextNode.valueOf(renamed));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void rewriteRefs(JsonNode node, Map<String, String> renamedRefs) {
+        if (node instanceof ObjectNode object) {
+            JsonNode ref = object.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                String renamed = renamedRefs.get(ref.asText());
+                if (renamed != null) {
+                    object.put("$ref", renamed);
+                }
+            }
+        }
+        for (JsonNode child : node) {
+            rewriteRefs(child, renamedRefs);
+        }
+    }
+}
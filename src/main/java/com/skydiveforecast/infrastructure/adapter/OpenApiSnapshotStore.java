@@ -0,0 +1,88 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Last good upstream spec per service on local disk, as received and before rewriting, one
+// <service>.upstream.json.gz per service. The gzip payload is the upstream ETag on the first line followed by the
+// spec bytes. Writes go to a temp file that is moved into place, so a crash mid-write leaves the previous snapshot
+// intact.
+final class OpenApiSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenApiSnapshotStore.class);
+    // Older <service>.json.gz files held rewritten specs and are no longer read
+    private static final String SUFFIX = ".upstream.json.gz";
+
+    record Snapshot(byte[] body, String upstreamEtag) {
+    }
+
+    private final Path directory;
+
+    OpenApiSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    Map<String, Snapshot> loadAll(List<String> serviceNames) {
+        Map<String, Snapshot> snapshots = new HashMap<>();
+        for (String serviceName : serviceNames) {
+            Path file = directory.resolve(serviceName + SUFFIX);
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                snapshots.put(serviceName, read(in.readAllBytes()));
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Ignoring unreadable API docs snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        return snapshots;
+    }
+
+    void save(String serviceName, Snapshot snapshot) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(serviceName + SUFFIX);
+        Path temp = Files.createTempFile(directory, serviceName, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                String etag = snapshot.upstreamEtag() != null ? snapshot.upstreamEtag() : "";
+                out.write((etag + "\n").getBytes(StandardCharsets.UTF_8));
+                out.write(snapshot.body());
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Snapshot read(byte[] payload) {
+        int newline = 0;
+        while (newline < payload.length && payload[newline] != '\n') {
+            newline++;
+        }
+        if (newline == payload.length) {
+            throw new IllegalArgumentException("missing ETag line");
+        }
+        String etag = new String(payload, 0, newline, StandardCharsets.UTF_8);
+        byte[] body = Arrays.copyOfRange(payload, newline + 1, payload.length);
+        return new Snapshot(body, etag.isEmpty() ? null : etag);
+    }
+}
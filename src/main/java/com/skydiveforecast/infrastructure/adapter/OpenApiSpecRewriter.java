@@ -0,0 +1,161 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Rewrites an OpenAPI spec token by token as its buffers arrive: the top-level servers array is replaced with the
+// gateway, whatever it contains, and path keys can be prefixed with the gateway route. Input buffers are released
+// as soon as they are parsed, so only the rewritten output is ever held in full.
+final class OpenApiSpecRewriter {
+
+    static final String GATEWAY_URL = "http://localhost:8080";
+    static final String GATEWAY_DESCRIPTION = "API Gateway";
+
+    private static final int INITIAL_OUTPUT_SIZE = 16 * 1024;
+
+    private final JsonFactory jsonFactory;
+
+    OpenApiSpecRewriter() {
+        this(new JsonFactory());
+    }
+
+    OpenApiSpecRewriter(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    // pathPrefix may be null to leave path keys as they are
+    Mono<byte[]> rewrite(Flux<DataBuffer> body, String pathPrefix) {
+        return Mono.using(() -> new Rewrite(pathPrefix),
+                rewrite -> body
+                        .doOnNext(buffer -> {
+                            try {
+                                rewrite.feed(buffer);
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                        })
+                        .then(Mono.fromCallable(rewrite::finish)),
+                Rewrite::close);
+    }
+
+    static String prefixed(String pathPrefix, String path) {
+        if (path.equals(pathPrefix) || path.startsWith(pathPrefix + "/")) {
+            return path;
+        }
+        return path.startsWith("/") ? pathPrefix + path : pathPrefix + "/" + path;
+    }
+
+    private final class Rewrite {
+
+        private final String pathPrefix;
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream(INITIAL_OUTPUT_SIZE);
+        private final JsonGenerator generator;
+        private boolean skipping;
+        private int skipDepth;
+        private boolean started;
+
+        private Rewrite(String pathPrefix) throws IOException {
+            this.pathPrefix = pathPrefix;
+            this.parser = jsonFactory.createNonBlockingByteBufferParser();
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            this.generator = jsonFactory.createGenerator(output);
+        }
+
+        private void feed(DataBuffer buffer) {
+            try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+                while (buffers.hasNext()) {
+                    feeder.feedInput(buffers.next());
+                    drain();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] finish() throws IOException {
+            feeder.endOfInput();
+            drain();
+            if (!started || !parser.getParsingContext().inRoot()) {
+                throw new JsonParseException(parser, "Incomplete OpenAPI document");
+            }
+            generator.flush();
+            return output.toByteArray();
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                started = true;
+                handle(token);
+            }
+        }
+
+        private void handle(JsonToken token) throws IOException {
+            if (skipping) {
+                if (token.isStructStart()) {
+                    skipDepth++;
+                } else if (token.isStructEnd()) {
+                    skipDepth--;
+                }
+                skipping = skipDepth > 0;
+                return;
+            }
+            if (token == JsonToken.FIELD_NAME) {
+                JsonStreamContext context = parser.getParsingContext();
+                String name = parser.currentName();
+                if (context.getParent().inRoot() && "servers".equals(name)) {
+                    generator.writeFieldName(name);
+                    writeGatewayServers();
+                    // Drop the upstream value, however deeply nested
+                    skipping = true;
+                    skipDepth = 0;
+                    return;
+                }
+                if (pathPrefix != null && isPathKey(context)) {
+                    generator.writeFieldName(prefixed(pathPrefix, name));
+                    return;
+                }
+            }
+            generator.copyCurrentEventExact(parser);
+        }
+
+        private boolean isPathKey(JsonStreamContext context) {
+            JsonStreamContext parent = context.getParent();
+            return parent != null && parent.inObject() && "paths".equals(parent.getCurrentName())
+                    && parent.getParent() != null && parent.getParent().inRoot();
+        }
+
+        private void writeGatewayServers() throws IOException {
+            generator.writeStartArray();
+            generator.writeStartObject();
+            generator.writeStringField("url", GATEWAY_URL);
+            generator.writeStringField("description", GATEWAY_DESCRIPTION);
+            generator.writeEndObject();
+            generator.writeEndArray();
+        }
+
+        private void close() {
+            try {
+                parser.close();
+                generator.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Copies a response body aside as it is written, without moving the buffers' read positions. Gives up once the
+// body outgrows the limit, so large or streaming responses cost no more than the limit.
+final class BodyCapture {
+
+    private final int limit;
+    private byte[] bytes = new byte[1024];
+    private int size;
+    private boolean overflowed;
+
+    BodyCapture(int limit) {
+        this.limit = limit;
+    }
+
+    void append(DataBuffer buffer) {
+        if (overflowed) {
+            return;
+        }
+        int length = buffer.readableByteCount();
+        if ((long) size + length > limit) {
+            overflowed = true;
+            bytes = null;
+            return;
+        }
+        if (size + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.min(limit, Math.max(size + length, bytes.length * 2)));
+        }
+        try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+            while (buffers.hasNext()) {
+                ByteBuffer next = buffers.next();
+                int remaining = next.remaining();
+                next.get(bytes, size, remaining);
+                size += remaining;
+            }
+        }
+    }
+
+    // null once the body went over the limit
+    byte[] bytes() {
+        return overflowed ? null : Arrays.copyOf(bytes, size);
+    }
+}
@@ -0,0 +1,66 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import java.util.List;
+import java.util.Locale;
+
+// The Cache-Control directives (RFC 9111) the response cache acts on. Ages are in seconds, -1 when absent.
+// Field-qualified no-cache and private are treated as unqualified, which only ever stores less.
+record CacheDirectives(
+        boolean noStore,
+        boolean noCache,
+        boolean isPrivate,
+        boolean mustRevalidate,
+        long maxAge,
+        long sMaxAge,
+        long staleWhileRevalidate) {
+
+    static final CacheDirectives NONE = new CacheDirectives(false, false, false, false, -1, -1, -1);
+
+    static CacheDirectives parse(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return NONE;
+        }
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        boolean mustRevalidate = false;
+        long maxAge = -1;
+        long sMaxAge = -1;
+        long staleWhileRevalidate = -1;
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                int equals = directive.indexOf('=');
+                String name = (equals < 0 ? directive : directive.substring(0, equals)).trim()
+                        .toLowerCase(Locale.ROOT);
+                String argument = equals < 0 ? null : directive.substring(equals + 1).trim();
+                switch (name) {
+                    case "no-store" -> noStore = true;
+                    case "no-cache" -> noCache = true;
+                    case "private" -> isPrivate = true;
+                    case "must-revalidate", "proxy-revalidate" -> mustRevalidate = true;
+                    case "max-age" -> maxAge = seconds(argument);
+                    case "s-maxage" -> sMaxAge = seconds(argument);
+                    case "stale-while-revalidate" -> staleWhileRevalidate = seconds(argument);
+                    default -> {
+                    }
+                }
+            }
+        }
+        return new CacheDirectives(noStore, noCache, isPrivate, mustRevalidate, maxAge, sMaxAge,
+                staleWhileRevalidate);
+    }
+
+    private static long seconds(String argument) {
+        if (argument == null) {
+            return -1;
+        }
+        String unquoted = argument.length() > 1 && argument.startsWith("\"") && argument.endsWith("\"")
+                ? argument.substring(1, argument.length() - 1)
+                : argument;
+        try {
+            return Math.max(0, Long.parseLong(unquoted));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
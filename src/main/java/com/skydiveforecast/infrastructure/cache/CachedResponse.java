@@ -0,0 +1,47 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+
+// A stored GET response. Times are epoch milliseconds so entries shared through Redis mean the same on every node:
+// the response is fresh until freshUntil, and may be served while it is revalidated until staleUntil.
+public record CachedResponse(
+        int status,
+        HttpHeaders headers,
+        byte[] body,
+        long storedAt,
+        long freshUntil,
+        long staleUntil) {
+
+    private static final int ENTRY_OVERHEAD = 256;
+
+    boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    boolean isUsable(long now) {
+        return now < staleUntil;
+    }
+
+    long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1000);
+    }
+
+    String etag() {
+        return headers.getETag();
+    }
+
+    // Approximate heap footprint, used to keep the memory tier within its byte budget
+    int weight() {
+        long weight = ENTRY_OVERHEAD + (long) body.length;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            weight += header.getKey().length();
+            for (String value : header.getValue()) {
+                weight += value.length();
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+}
@@ -0,0 +1,75 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+// Binary layout for entries in the Redis tier, Base64-encoded to fit the string template. The leading version lets
+// a rolling deploy ignore entries written in a layout it does not know.
+final class CachedResponseCodec {
+
+    private static final int VERSION = 1;
+
+    private CachedResponseCodec() {
+    }
+
+    static String encode(CachedResponse response) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(response.body().length + 512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeShort(response.status());
+            out.writeLong(response.storedAt());
+            out.writeLong(response.freshUntil());
+            out.writeLong(response.staleUntil());
+            out.writeShort(response.headers().size());
+            for (Map.Entry<String, List<String>> header : response.headers().entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeShort(header.getValue().size());
+                for (String value : header.getValue()) {
+                    out.writeUTF(value);
+                }
+            }
+            out.writeInt(response.body().length);
+            out.write(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    // null when the value is not an entry this version can read
+    static CachedResponse decode(String value) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(value)))) {
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            int status = in.readUnsignedShort();
+            long storedAt = in.readLong();
+            long freshUntil = in.readLong();
+            long staleUntil = in.readLong();
+            HttpHeaders headers = new HttpHeaders();
+            int headerCount = in.readUnsignedShort();
+            for (int i = 0; i < headerCount; i++) {
+                String name = in.readUTF();
+                int valueCount = in.readUnsignedShort();
+                for (int j = 0; j < valueCount; j++) {
+                    headers.add(name, in.readUTF());
+                }
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body, storedAt, freshUntil,
+                    staleUntil);
+        } catch (IOException | IllegalArgumentException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+}
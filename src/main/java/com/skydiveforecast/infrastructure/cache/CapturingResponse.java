@@ -0,0 +1,40 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Passes the upstream response through to the client and hands a copy of it to the listener once fully written.
+// Streamed responses (writeAndFlushWith) are never captured.
+final class CapturingResponse extends ServerHttpResponseDecorator {
+
+    interface Listener {
+        void captured(HttpStatusCode status, HttpHeaders headers, byte[] body);
+    }
+
+    private final int limit;
+    private final Listener listener;
+
+    CapturingResponse(ServerHttpResponse delegate, int limit, Listener listener) {
+        super(delegate);
+        this.limit = limit;
+        this.listener = listener;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        BodyCapture capture = new BodyCapture(limit);
+        return super.writeWith(Flux.from(body).doOnNext(capture::append))
+                .doOnSuccess(done -> {
+                    byte[] bytes = capture.bytes();
+                    if (bytes != null) {
+                        listener.captured(getStatusCode(), getHeaders(), bytes);
+                    }
+                });
+    }
+}
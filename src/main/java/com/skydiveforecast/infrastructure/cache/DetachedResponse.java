@@ -0,0 +1,56 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Response for background revalidation: nothing reaches a client, the body is only captured for the cache
+final class DetachedResponse extends AbstractServerHttpResponse {
+
+    private final BodyCapture capture;
+
+    DetachedResponse(int limit) {
+        super(DefaultDataBufferFactory.sharedInstance);
+        this.capture = new BodyCapture(limit);
+    }
+
+    byte[] body() {
+        return capture.bytes();
+    }
+
+    @Override
+    public <T> T getNativeResponse() {
+        throw new IllegalStateException("A detached response has no native response");
+    }
+
+    @Override
+    protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+        return Flux.from(body)
+                .doOnNext(buffer -> {
+                    capture.append(buffer);
+                    DataBufferUtils.release(buffer);
+                })
+                .then();
+    }
+
+    @Override
+    protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return Flux.from(body).concatMap(this::writeWithInternal).then();
+    }
+
+    @Override
+    protected void applyStatusCode() {
+    }
+
+    @Override
+    protected void applyHeaders() {
+    }
+
+    @Override
+    protected void applyCookies() {
+    }
+}
@@ -0,0 +1,240 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Route filter "GeoQuantize": snaps coordinate and time query parameters (see GeoQuantizer) before later filters
+// and the backend see them. List it before ResponseCache so the cache is keyed on the quantized query. Per route,
+// the distinct keys seen before and after quantizing are estimated with HyperLogLog and exported as gauges.
+public class GeoQuantizeGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<GeoQuantizeGatewayFilterFactory.Config> {
+
+    public enum Cells {
+        GEOHASH, GRID
+    }
+
+    private static final int MAX_GEOHASH_PRECISION = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    // Kept per route id, so a route refresh keeps counting into the gauges registered the first time
+    private final Map<String, KeyCardinality> cardinalities = new ConcurrentHashMap<>();
+
+    public GeoQuantizeGatewayFilterFactory(MeterRegistry meterRegistry) {
+        this(meterRegistry, System::nanoTime);
+    }
+
+    GeoQuantizeGatewayFilterFactory(MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (!config.isEnabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        GeoQuantizer quantizer = quantizer(config);
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        KeyCardinality cardinality = cardinalities.computeIfAbsent(routeId, id -> register(id, config));
+        Counter rewrites = Counter.builder("gateway.geoquantize.rewrites")
+                .description("Requests whose coordinates or times were quantized")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String rawQuery = request.getURI().getRawQuery();
+            String quantized = quantizer.quantize(rawQuery);
+            ServerWebExchange forwarded = exchange;
+            if (quantized != null && !quantized.equals(rawQuery)) {
+                URI uri = UriComponentsBuilder.fromUri(request.getURI()).replaceQuery(quantized).build(true).toUri();
+                forwarded = exchange.mutate().request(request.mutate().uri(uri).build()).build();
+                rewrites.increment();
+            }
+            cardinality.record(key(request), key(forwarded.getRequest()));
+            return chain.filter(forwarded);
+        };
+    }
+
+    static GeoQuantizer quantizer(Config config) {
+        Duration modelStep = config.getModelStep() == null || config.getModelStep().isNegative()
+                || config.getModelStep().isZero() ? Duration.ofHours(1) : config.getModelStep();
+        Set<String> latitudeParams = Set.copyOf(config.getLatitudeParams());
+        Set<String> longitudeParams = Set.copyOf(config.getLongitudeParams());
+        Set<String> timeParams = Set.copyOf(config.getTimeParams());
+        Set<String> endTimeParams = Set.copyOf(config.getEndTimeParams());
+        if (config.getCells() == Cells.GRID) {
+            double degrees = config.getGridDegrees() > 0 ? config.getGridDegrees() : 0.01;
+            return new GeoQuantizer(degrees, degrees, modelStep, latitudeParams, longitudeParams, timeParams,
+                    endTimeParams);
+        }
+        int precision = Math.max(1, Math.min(MAX_GEOHASH_PRECISION, config.getGeohashPrecision()));
+        return GeoQuantizer.geohash(precision, modelStep, latitudeParams, longitudeParams, timeParams, endTimeParams);
+    }
+
+    private KeyCardinality register(String routeId, Config config) {
+        Duration window = config.getCardinalityWindow() == null || config.getCardinalityWindow().isNegative()
+                || config.getCardinalityWindow().isZero() ? Duration.ofHours(1) : config.getCardinalityWindow();
+        KeyCardinality cardinality = new KeyCardinality(window.toNanos(), nanoClock);
+        Gauge.builder("gateway.geoquantize.keys", cardinality, KeyCardinality::rawKeys)
+                .description("Distinct request keys per window, estimated, before and after quantizing")
+                .tag("route", routeId)
+                .tag("stage", "raw")
+                .register(meterRegistry);
+        Gauge.builder("gateway.geoquantize.keys", cardinality, KeyCardinality::normalizedKeys)
+                .description("Distinct request keys per window, estimated, before and after quantizing")
+                .tag("route", routeId)
+                .tag("stage", "quantized")
+                .register(meterRegistry);
+        Gauge.builder("gateway.geoquantize.key.reduction", cardinality, KeyCardinality::reduction)
+                .description("Share of distinct request keys removed by quantizing")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return cardinality;
+    }
+
+    private static String key(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(128).append(request.getPath().value());
+        ResponseCacheFilter.appendQuery(key, request.getQueryParams());
+        return key.toString();
+    }
+
+    public static class Config implements HasRouteId {
+
+        private boolean enabled = true;
+        private Cells cells = Cells.GEOHASH;
+        // 6 characters is a cell of about 1.2 x 0.6 km
+        private int geohashPrecision = 6;
+        private double gridDegrees = 0.01;
+        private List<String> latitudeParams = List.of("lat", "latitude");
+        private List<String> longitudeParams = List.of("lon", "lng", "longitude");
+        // Range starts and single times round down, range ends round up, so a range never loses hours
+        private List<String> timeParams = List.of("time", "from", "start");
+        private List<String> endTimeParams = List.of("to", "end", "until");
+        private Duration modelStep = Duration.ofHours(1);
+        private Duration cardinalityWindow = Duration.ofHours(1);
+        private String routeId;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public Config setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public Cells getCells() {
+            return cells;
+        }
+
+        public Config setCells(Cells cells) {
+            this.cells = cells;
+            return this;
+        }
+
+        public int getGeohashPrecision() {
+            return geohashPrecision;
+        }
+
+        public Config setGeohashPrecision(int geohashPrecision) {
+            this.geohashPrecision = geohashPrecision;
+            return this;
+        }
+
+        public double getGridDegrees() {
+            return gridDegrees;
+        }
+
+        public Config setGridDegrees(double gridDegrees) {
+            this.gridDegrees = gridDegrees;
+            return this;
+        }
+
+        public List<String> getLatitudeParams() {
+            return latitudeParams;
+        }
+
+        public Config setLatitudeParams(List<String> latitudeParams) {
+            this.latitudeParams = latitudeParams;
+            return this;
+        }
+
+        public List<String> getLongitudeParams() {
+            return longitudeParams;
+        }
+
+        public Config setLongitudeParams(List<String> longitudeParams) {
+            this.longitudeParams = longitudeParams;
+            return this;
+        }
+
+        public List<String> getTimeParams() {
+            return timeParams;
+        }
+
+        public Config setTimeParams(List<String> timeParams) {
+            this.timeParams = timeParams;
+            return this;
+        }
+
+        public List<String> getEndTimeParams() {
+            return endTimeParams;
+        }
+
+        public Config setEndTimeParams(List<String> endTimeParams) {
+            this.endTimeParams = endTimeParams;
+            return this;
+        }
+
+        public Duration getModelStep() {
+            return modelStep;
+        }
+
+        public Config setModelStep(Duration modelStep) {
+            this.modelStep = modelStep;
+            return this;
+        }
+
+        public Duration getCardinalityWindow() {
+            return cardinalityWindow;
+        }
+
+        public Config setCardinalityWindow(Duration cardinalityWindow) {
+            this.cardinalityWindow = cardinalityWindow;
+            return this;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String toString() {
+            return "Config{enabled=" + enabled + ", cells=" + cells + ", geohashPrecision=" + geohashPrecision
+                    + ", gridDegrees=" + gridDegrees + ", modelStep=" + modelStep + "}";
+        }
+    }
+}
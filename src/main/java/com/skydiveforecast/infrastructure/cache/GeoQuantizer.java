@@ -0,0 +1,150 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+
+// Rewrites a raw query string so nearby requests become the same request. Coordinates snap to the centre of their
+// cell, either a geohash cell of the given length or a square grid; time parameters snap down (or, for range ends,
+// up) to the model step, counted from the epoch in UTC. Only changed parameters are re-encoded, everything else is
+// kept byte for byte, and values that do not parse are left alone.
+final class GeoQuantizer {
+
+    private final double latitudeStep;
+    private final double longitudeStep;
+    private final int decimals;
+    private final long stepMillis;
+    private final Set<String> latitudeParams;
+    private final Set<String> longitudeParams;
+    private final Set<String> timeParams;
+    private final Set<String> endTimeParams;
+
+    GeoQuantizer(double latitudeStep, double longitudeStep, Duration modelStep, Set<String> latitudeParams,
+                 Set<String> longitudeParams, Set<String> timeParams, Set<String> endTimeParams) {
+        this.latitudeStep = latitudeStep;
+        this.longitudeStep = longitudeStep;
+        // One digit finer than the cell, so every centre is written exactly the same way
+        this.decimals = Math.max(0, (int) Math.ceil(-Math.log10(Math.min(latitudeStep, longitudeStep)))) + 1;
+        this.stepMillis = modelStep.toMillis();
+        this.latitudeParams = Set.copyOf(latitudeParams);
+        this.longitudeParams = Set.copyOf(longitudeParams);
+        this.timeParams = Set.copyOf(timeParams);
+        this.endTimeParams = Set.copyOf(endTimeParams);
+    }
+
+    // A geohash of n characters has 5n bits, split between longitude (the extra bit when odd) and latitude
+    static GeoQuantizer geohash(int precision, Duration modelStep, Set<String> latitudeParams,
+                                Set<String> longitudeParams, Set<String> timeParams, Set<String> endTimeParams) {
+        int bits = 5 * precision;
+        return new GeoQuantizer(180.0 / (1L << (bits / 2)), 360.0 / (1L << ((bits + 1) / 2)), modelStep,
+                latitudeParams, longitudeParams, timeParams, endTimeParams);
+    }
+
+    // Returns rawQuery itself when nothing changed
+    String quantize(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return rawQuery;
+        }
+        String[] segments = rawQuery.split("&", -1);
+        boolean changed = false;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            int equals = segment.indexOf('=');
+            if (equals <= 0) {
+                continue;
+            }
+            try {
+                String name = URLDecoder.decode(segment.substring(0, equals), StandardCharsets.UTF_8);
+                String value = URLDecoder.decode(segment.substring(equals + 1), StandardCharsets.UTF_8);
+                String quantized = quantize(name, value);
+                if (quantized != null && !quantized.equals(value)) {
+                    segments[i] = segment.substring(0, equals + 1)
+                            + URLEncoder.encode(quantized, StandardCharsets.UTF_8);
+                    changed = true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Malformed percent-encoding; forward the parameter as it came
+            }
+        }
+        return changed ? String.join("&", segments) : rawQuery;
+    }
+
+    // null when the parameter is not quantized or its value does not parse
+    String quantize(String name, String value) {
+        if (latitudeParams.contains(name)) {
+            return snap(value, -90, 90, latitudeStep);
+        }
+        if (longitudeParams.contains(name)) {
+            return snap(value, -180, 180, longitudeStep);
+        }
+        if (timeParams.contains(name)) {
+            return roundTime(value, false);
+        }
+        if (endTimeParams.contains(name)) {
+            return roundTime(value, true);
+        }
+        return null;
+    }
+
+    private String snap(String value, double min, double max, double step) {
+        double coordinate;
+        try {
+            coordinate = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (!(coordinate >= min && coordinate <= max)) {
+            return null;
+        }
+        long cells = (long) Math.ceil((max - min) / step);
+        long cell = Math.min(cells - 1, (long) Math.floor((coordinate - min) / step));
+        double centre = Math.min(max, min + (cell + 0.5) * step);
+        return BigDecimal.valueOf(centre)
+                .setScale(decimals, RoundingMode.HALF_UP)
+                .stripTrailingZeros()
+                .toPlainString();
+    }
+
+    // Epoch seconds (10 digits) or milliseconds (13 digits), ISO date-times with an offset, or local ISO date-times
+    // read as UTC; the result keeps the input's form. Other digit strings, such as 20250101, are left alone.
+    private String roundTime(String value, boolean up) {
+        if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+            if (value.length() != 10 && value.length() != 13) {
+                return null;
+            }
+            boolean millis = value.length() == 13;
+            long epochMillis = millis ? Long.parseLong(value) : Long.parseLong(value) * 1000;
+            long rounded = round(epochMillis, up);
+            return Long.toString(millis ? rounded : rounded / 1000);
+        }
+        try {
+            OffsetDateTime time = OffsetDateTime.parse(value);
+            Instant rounded = Instant.ofEpochMilli(round(time.toInstant().toEpochMilli(), up));
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(rounded.atOffset(time.getOffset()));
+        } catch (DateTimeParseException e) {
+            // Not an offset date-time, try a local one
+        }
+        try {
+            LocalDateTime time = LocalDateTime.parse(value);
+            Instant rounded = Instant.ofEpochMilli(round(time.toInstant(ZoneOffset.UTC).toEpochMilli(), up));
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.ofInstant(rounded, ZoneOffset.UTC));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private long round(long epochMillis, boolean up) {
+        long down = epochMillis - Math.floorMod(epochMillis, stepMillis);
+        return up && down != epochMillis ? down + stepMillis : down;
+    }
+}
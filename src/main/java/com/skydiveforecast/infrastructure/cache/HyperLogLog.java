@@ -0,0 +1,72 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Distinct-count estimate in fixed memory: 2^precision registers, about 1.04 / sqrt(2^precision) relative error.
+// Adds are lock-free, so it can sit on the request path.
+final class HyperLogLog {
+
+    private final int precision;
+    private final AtomicIntegerArray registers;
+    private final double alpha;
+
+    HyperLogLog(int precision) {
+        this.precision = precision;
+        int m = 1 << precision;
+        this.registers = new AtomicIntegerArray(m);
+        this.alpha = 0.7213 / (1 + 1.079 / m);
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - precision));
+        // The guard bit caps the rank when every remaining bit is zero
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        int current;
+        while (rank > (current = registers.get(index))) {
+            if (registers.compareAndSet(index, current, rank)) {
+                return;
+            }
+        }
+    }
+
+    long estimate() {
+        int m = registers.length();
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < m; i++) {
+            int register = registers.get(i);
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha * m * m / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    void clear() {
+        for (int i = 0; i < registers.length(); i++) {
+            registers.set(i, 0);
+        }
+    }
+
+    // FNV-1a over the whole string, then fmix64, so similar keys land far apart in all 64 bits
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
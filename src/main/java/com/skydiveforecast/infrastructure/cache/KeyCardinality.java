@@ -0,0 +1,60 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import java.util.function.LongSupplier;
+
+// Distinct request keys before and after normalization over fixed windows. Once a window has closed its counts are
+// reported until the next one closes, so the gauges do not drop to zero at every rollover.
+final class KeyCardinality {
+
+    private static final int PRECISION = 12;
+
+    private final HyperLogLog raw = new HyperLogLog(PRECISION);
+    private final HyperLogLog normalized = new HyperLogLog(PRECISION);
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private volatile long windowStart;
+    private volatile long lastRaw = -1;
+    private volatile long lastNormalized = -1;
+
+    KeyCardinality(long windowNanos, LongSupplier nanoClock) {
+        this.windowNanos = windowNanos;
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    void record(String rawKey, String normalizedKey) {
+        if (nanoClock.getAsLong() - windowStart >= windowNanos) {
+            roll();
+        }
+        raw.add(rawKey);
+        normalized.add(normalizedKey);
+    }
+
+    long rawKeys() {
+        long last = lastRaw;
+        return last >= 0 ? last : raw.estimate();
+    }
+
+    long normalizedKeys() {
+        long last = lastNormalized;
+        return last >= 0 ? last : normalized.estimate();
+    }
+
+    // Share of distinct keys removed by normalization, 0 before any request
+    double reduction() {
+        long rawKeys = rawKeys();
+        return rawKeys == 0 ? 0 : Math.max(0, 1 - (double) normalizedKeys() / rawKeys);
+    }
+
+    private synchronized void roll() {
+        long now = nanoClock.getAsLong();
+        if (now - windowStart < windowNanos) {
+            return;
+        }
+        lastRaw = raw.estimate();
+        lastNormalized = normalized.estimate();
+        raw.clear();
+        normalized.clear();
+        windowStart = now;
+    }
+}
@@ -0,0 +1,39 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+public class RedisResponseCacheStore implements ResponseCacheStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisResponseCacheStore.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+
+    public RedisResponseCacheStore(ReactiveStringRedisTemplate redisTemplate, ResponseCacheProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = properties.redis().keyPrefix();
+    }
+
+    @Override
+    public Mono<CachedResponse> get(String key) {
+        return redisTemplate.opsForValue().get(keyPrefix + key)
+                .mapNotNull(value -> {
+                    CachedResponse response = CachedResponseCodec.decode(value);
+                    if (response == null) {
+                        log.debug("Ignoring unreadable response cache entry {}", key);
+                    }
+                    return response;
+                });
+    }
+
+    // Redis expires the entry with its stale window, so it never outlives what the memory tier would serve
+    @Override
+    public Mono<Void> put(String key, CachedResponse response, Duration ttl) {
+        return redisTemplate.opsForValue().set(keyPrefix + key, CachedResponseCodec.encode(response), ttl).then();
+    }
+}
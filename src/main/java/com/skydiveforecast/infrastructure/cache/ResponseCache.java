@@ -0,0 +1,186 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Two-tier store behind the ResponseCache filter. The memory tier is a Caffeine cache (W-TinyLFU) weighed in bytes,
+// so a few large documents cannot push out many small forecasts unnoticed. The optional Redis tier is shared by all
+// nodes; its hits are copied into memory, and any Redis failure or timeout is treated as a miss.
+public class ResponseCache {
+
+    enum Lookup {
+        HIT, STALE, MISS, BYPASS
+    }
+
+    enum Tier {
+        MEMORY, REDIS
+    }
+
+    enum Revalidation {
+        NOT_MODIFIED, MODIFIED, FAILED
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final int MAX_VARY_ENTRIES = 100_000;
+
+    private final ResponseCacheProperties properties;
+    private final ResponseCacheStore remote;
+    private final LongSupplier clock;
+    private final Cache<String, CachedResponse> memory;
+    // Vary header names last seen for each request key, so lookups can find the variant before going upstream
+    private final Cache<String, List<String>> varyHeaders = Caffeine.newBuilder()
+            .maximumSize(MAX_VARY_ENTRIES)
+            .build();
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final Counter[] lookups;
+    private final Counter[] tierHits;
+    private final Counter[] revalidations;
+    private final Counter bytesSaved;
+
+    public ResponseCache(ResponseCacheProperties properties, ResponseCacheStore remote, MeterRegistry meterRegistry) {
+        this(properties, remote, meterRegistry, System::currentTimeMillis);
+    }
+
+    // remote may be null to keep the cache in memory only
+    ResponseCache(ResponseCacheProperties properties, ResponseCacheStore remote, MeterRegistry meterRegistry,
+                  LongSupplier clock) {
+        this.properties = properties;
+        this.remote = remote;
+        this.clock = clock;
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(properties.maxSize().toBytes())
+                .weigher((String key, CachedResponse response) -> response.weight() + key.length())
+                .expireAfter(Expiry.writing((String key, CachedResponse response) ->
+                        Duration.ofMillis(Math.max(0, response.staleUntil() - clock.getAsLong()))))
+                .build();
+
+        Lookup[] results = Lookup.values();
+        this.lookups = new Counter[results.length];
+        for (Lookup result : results) {
+            lookups[result.ordinal()] = Counter.builder("gateway.responsecache.lookups")
+                    .description("Cacheable GET requests by cache result")
+                    .tag("result", result.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        Tier[] tiers = Tier.values();
+        this.tierHits = new Counter[tiers.length];
+        for (Tier tier : tiers) {
+            tierHits[tier.ordinal()] = Counter.builder("gateway.responsecache.tier.hits")
+                    .description("Cache entries found, by the tier that held them")
+                    .tag("tier", tier.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        Revalidation[] outcomes = Revalidation.values();
+        this.revalidations = new Counter[outcomes.length];
+        for (Revalidation outcome : outcomes) {
+            revalidations[outcome.ordinal()] = Counter.builder("gateway.responsecache.revalidations")
+                    .description("Background revalidations of stale entries by outcome")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        this.bytesSaved = Counter.builder("gateway.responsecache.bytes.saved")
+                .description("Response body bytes served from the cache instead of the backend")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gateway.responsecache.hit.ratio", this, ResponseCache::hitRatio)
+                .description("Share of cacheable lookups answered from the cache, fresh or stale")
+                .register(meterRegistry);
+        Gauge.builder("gateway.responsecache.size", memory,
+                        cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Approximate bytes held by the memory tier")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    Mono<CachedResponse> get(String key) {
+        CachedResponse cached = memory.getIfPresent(key);
+        if (cached != null && cached.isUsable(clock.getAsLong())) {
+            tierHits[Tier.MEMORY.ordinal()].increment();
+            return Mono.just(cached);
+        }
+        if (remote == null) {
+            return Mono.empty();
+        }
+        return remote.get(key)
+                .timeout(properties.redis().timeout())
+                .filter(response -> response.isUsable(clock.getAsLong()))
+                .doOnNext(response -> {
+                    tierHits[Tier.REDIS.ordinal()].increment();
+                    memory.put(key, response);
+                })
+                .onErrorResume(e -> {
+                    log.debug("Response cache lookup in Redis failed for {}: {}", key, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    // The Redis write is not awaited, so storing never delays the response
+    void put(String key, CachedResponse response) {
+        memory.put(key, response);
+        if (remote == null) {
+            return;
+        }
+        Duration ttl = Duration.ofMillis(response.staleUntil() - clock.getAsLong());
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        remote.put(key, response, ttl)
+                .timeout(properties.redis().timeout())
+                .subscribe(null, e -> log.debug("Response cache write to Redis failed for {}: {}", key, e.toString()));
+    }
+
+    List<String> varyHeaders(String requestKey) {
+        List<String> names = varyHeaders.getIfPresent(requestKey);
+        return names != null ? names : List.of();
+    }
+
+    void rememberVaryHeaders(String requestKey, List<String> names) {
+        if (names.isEmpty()) {
+            varyHeaders.invalidate(requestKey);
+        } else {
+            varyHeaders.put(requestKey, names);
+        }
+    }
+
+    // At most one revalidation per entry at a time; the winner must call finishRevalidation
+    boolean startRevalidation(String key) {
+        return revalidating.add(key);
+    }
+
+    void finishRevalidation(String key, Revalidation outcome) {
+        revalidating.remove(key);
+        revalidations[outcome.ordinal()].increment();
+    }
+
+    void recordLookup(Lookup result, long servedBytes) {
+        lookups[result.ordinal()].increment();
+        if (servedBytes > 0) {
+            bytesSaved.increment(servedBytes);
+        }
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    private double hitRatio() {
+        double hits = lookups[Lookup.HIT.ordinal()].count() + lookups[Lookup.STALE.ordinal()].count();
+        double total = hits + lookups[Lookup.MISS.ordinal()].count();
+        return total == 0 ? 0 : hits / total;
+    }
+}
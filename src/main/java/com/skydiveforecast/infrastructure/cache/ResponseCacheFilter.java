@@ -0,0 +1,316 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import com.skydiveforecast.infrastructure.ratelimit.PrincipalKeyResolver;
+import com.skydiveforecast.infrastructure.security.AuthenticatedPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+// Serves GET responses from ResponseCache. Entries are keyed on route, path, the query with parameters sorted, the
+// caller (unless the route is shared) and the request headers named in the response's Vary. Fresh entries are
+// answered directly, with 304 when the client's validators match. Stale entries inside their stale-while-revalidate
+// window are answered too, while one background request through the rest of the chain refreshes them.
+class ResponseCacheFilter implements GatewayFilter {
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final List<String> UNSTORED_HEADERS = List.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.UPGRADE,
+            HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.AGE, CACHE_STATUS_HEADER);
+    // Per-caller quota state from RequestRateLimiter, wherever it sits in the chain
+    private static final String RATE_LIMIT_HEADER_PREFIX = "X-RateLimit-";
+
+    private final ResponseCache cache;
+    private final boolean shared;
+    private final long ttlMillis;
+    private final long staleWhileRevalidateMillis;
+    private final int maxEntryBytes;
+
+    ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties,
+                        ResponseCacheGatewayFilterFactory.Config config) {
+        this.cache = cache;
+        this.shared = config.isShared();
+        this.ttlMillis = (config.getTtl() != null ? config.getTtl() : properties.ttl()).toMillis();
+        this.staleWhileRevalidateMillis = (config.getStaleWhileRevalidate() != null
+                ? config.getStaleWhileRevalidate()
+                : properties.staleWhileRevalidate()).toMillis();
+        this.maxEntryBytes = (int) properties.maxEntrySize().toBytes();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        CacheDirectives directives = CacheDirectives.parse(request.getHeaders().get(HttpHeaders.CACHE_CONTROL));
+        if (directives.noStore()) {
+            cache.recordLookup(ResponseCache.Lookup.BYPASS, 0);
+            return chain.filter(exchange);
+        }
+        String requestKey = requestKey(exchange);
+        String key = variantKey(requestKey, cache.varyHeaders(requestKey), request.getHeaders());
+        // no-cache and max-age=0 ask for an end-to-end fetch; the answer still refreshes the cache
+        if (directives.noCache() || directives.maxAge() == 0) {
+            return fetch(exchange, chain, requestKey);
+        }
+        return cache.get(key)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(cached -> cached.isPresent()
+                        ? serve(exchange, chain, requestKey, key, cached.get())
+                        : fetch(exchange, chain, requestKey));
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain, String requestKey, String key,
+                             CachedResponse cached) {
+        long now = cache.now();
+        ResponseCache.Lookup result = ResponseCache.Lookup.HIT;
+        if (!cached.isFresh(now)) {
+            result = ResponseCache.Lookup.STALE;
+            if (cache.startRevalidation(key)) {
+                revalidate(exchange, chain, requestKey, key, cached).subscribe();
+            }
+        }
+        cache.recordLookup(result, cached.body().length);
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        HttpHeaders headers = response.getHeaders();
+        // Headers already written by earlier filters belong to this request and win over the stored ones
+        cached.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(now)));
+        headers.set(CACHE_STATUS_HEADER, result.name());
+        long lastModified = cached.headers().getLastModified();
+        if (exchange.checkNotModified(cached.etag(),
+                lastModified >= 0 ? Instant.ofEpochMilli(lastModified) : Instant.MIN)) {
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, String requestKey) {
+        cache.recordLookup(ResponseCache.Lookup.MISS, 0);
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, ResponseCache.Lookup.MISS.name());
+        HttpHeaders preset = snapshot(exchange.getResponse().getHeaders());
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), maxEntryBytes,
+                (status, headers, body) -> store(requestKey, requestHeaders, status, upstreamHeaders(headers, preset),
+                        body));
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    // The rest of the chain runs again with the entry's validators, writing to a response no client sees. The
+    // request headers are copied now, while the exchange that triggered it is still live, and so that filters
+    // mutating them cannot touch the original request.
+    private Mono<Void> revalidate(ServerWebExchange exchange, GatewayFilterChain chain, String requestKey, String key,
+                                  CachedResponse cached) {
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        conditionalHeaders.putAll(requestHeaders);
+        conditionalHeaders.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        conditionalHeaders.remove(HttpHeaders.IF_NONE_MATCH);
+        if (cached.etag() != null) {
+            conditionalHeaders.setIfNoneMatch(cached.etag());
+        }
+        ServerHttpRequest conditionalRequest = new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return HttpHeaders.readOnlyHttpHeaders(conditionalHeaders);
+            }
+        };
+        DetachedResponse detached = new DetachedResponse(maxEntryBytes);
+        ServerWebExchange background = exchange.mutate()
+                .request(conditionalRequest)
+                .response(detached)
+                .build();
+        return chain.filter(background)
+                .then(Mono.fromSupplier(() -> {
+                    HttpStatusCode status = detached.getStatusCode();
+                    if (status != null && status.value() == HttpStatus.NOT_MODIFIED.value()) {
+                        HttpHeaders merged = new HttpHeaders();
+                        merged.putAll(cached.headers());
+                        detached.getHeaders().forEach((name, values) -> {
+                            if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+                                merged.put(name, values);
+                            }
+                        });
+                        store(requestKey, requestHeaders, HttpStatus.OK, merged, cached.body());
+                        return ResponseCache.Revalidation.NOT_MODIFIED;
+                    }
+                    if (status != null && status.value() == HttpStatus.OK.value()) {
+                        store(requestKey, requestHeaders, status, detached.getHeaders(), detached.body());
+                        return ResponseCache.Revalidation.MODIFIED;
+                    }
+                    return ResponseCache.Revalidation.FAILED;
+                }))
+                .onErrorResume(e -> {
+                    log.debug("Revalidation of cached response {} failed: {}", key, e.toString());
+                    return Mono.just(ResponseCache.Revalidation.FAILED);
+                })
+                .doOnNext(outcome -> cache.finishRevalidation(key, outcome))
+                .then();
+    }
+
+    private void store(String requestKey, HttpHeaders requestHeaders, HttpStatusCode status, HttpHeaders headers,
+                       byte[] body) {
+        CachedResponse entry = toEntry(status, headers, body, cache.now());
+        if (entry == null) {
+            return;
+        }
+        List<String> vary = varyHeaders(headers);
+        cache.rememberVaryHeaders(requestKey, vary);
+        cache.put(variantKey(requestKey, vary, requestHeaders), entry);
+    }
+
+    // null when the response must not be stored: anything but 200, cookies, Vary: *, no-store or no-cache,
+    // private on a shared route, no remaining freshness, or a body over the entry limit
+    CachedResponse toEntry(HttpStatusCode status, HttpHeaders headers, byte[] body, long now) {
+        if (body == null || status == null || status.value() != HttpStatus.OK.value()
+                || headers.containsKey(HttpHeaders.SET_COOKIE) || headers.getVary().contains("*")) {
+            return null;
+        }
+        CacheDirectives directives = CacheDirectives.parse(headers.get(HttpHeaders.CACHE_CONTROL));
+        if (directives.noStore() || directives.noCache() || (directives.isPrivate() && shared)) {
+            return null;
+        }
+        long freshMillis = directives.sMaxAge() >= 0 ? directives.sMaxAge() * 1000
+                : directives.maxAge() >= 0 ? directives.maxAge() * 1000
+                : ttlMillis;
+        freshMillis -= upstreamAgeSeconds(headers) * 1000;
+        if (freshMillis <= 0) {
+            return null;
+        }
+        long staleMillis = directives.mustRevalidate() ? 0
+                : directives.staleWhileRevalidate() >= 0 ? directives.staleWhileRevalidate() * 1000
+                : staleWhileRevalidateMillis;
+
+        HttpHeaders stored = new HttpHeaders();
+        stored.putAll(headers);
+        UNSTORED_HEADERS.forEach(stored::remove);
+        stored.keySet().removeIf(name -> name.regionMatches(true, 0, RATE_LIMIT_HEADER_PREFIX, 0,
+                RATE_LIMIT_HEADER_PREFIX.length()));
+        stored.setContentLength(body.length);
+        return new CachedResponse(status.value(), HttpHeaders.readOnlyHttpHeaders(stored), body, now,
+                now + freshMillis, now + freshMillis + staleMillis);
+    }
+
+    private String requestKey(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        StringBuilder key = new StringBuilder(128)
+                .append(route != null ? route.getId() : "-")
+                .append(' ')
+                .append(request.getPath().value());
+        appendQuery(key, request.getQueryParams());
+        key.append(' ');
+        if (shared) {
+            key.append('*');
+        } else {
+            AuthenticatedPrincipal principal = exchange.getAttribute(AuthenticatedPrincipal.EXCHANGE_ATTRIBUTE);
+            key.append(principal != null ? PrincipalKeyResolver.identity(principal) : "anonymous");
+        }
+        return key.toString();
+    }
+
+    // Parameter order is dropped, the order of a repeated parameter's values is kept
+    static void appendQuery(StringBuilder key, MultiValueMap<String, String> params) {
+        if (params.isEmpty()) {
+            return;
+        }
+        List<String> names = new ArrayList<>(params.keySet());
+        names.sort(null);
+        char separator = '?';
+        for (String name : names) {
+            for (String value : params.get(name)) {
+                key.append(separator).append(UriUtils.encodeQueryParam(name, StandardCharsets.UTF_8));
+                if (value != null) {
+                    key.append('=').append(UriUtils.encodeQueryParam(value, StandardCharsets.UTF_8));
+                }
+                separator = '&';
+            }
+        }
+    }
+
+    static String variantKey(String requestKey, List<String> varyHeaders, HttpHeaders requestHeaders) {
+        if (varyHeaders.isEmpty()) {
+            return requestKey;
+        }
+        StringBuilder key = new StringBuilder(requestKey);
+        for (String name : varyHeaders) {
+            key.append('\n').append(name).append(':').append(String.join(",", requestHeaders.getOrEmpty(name)));
+        }
+        return key.toString();
+    }
+
+    private static List<String> varyHeaders(HttpHeaders headers) {
+        List<String> vary = headers.getVary();
+        if (vary.isEmpty()) {
+            return List.of();
+        }
+        return vary.stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static HttpHeaders snapshot(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> copy.put(name, List.copyOf(values)));
+        return copy;
+    }
+
+    // The response headers minus those earlier filters had already set before the chain continued, so what is
+    // stored is what the rest of the chain and the backend produced, not another request's state
+    private static HttpHeaders upstreamHeaders(HttpHeaders headers, HttpHeaders preset) {
+        HttpHeaders upstream = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!values.equals(preset.get(name))) {
+                upstream.put(name, values);
+            }
+        });
+        return upstream;
+    }
+
+    private static long upstreamAgeSeconds(HttpHeaders headers) {
+        String age = headers.getFirst(HttpHeaders.AGE);
+        if (age == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(age.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+
+import java.time.Duration;
+
+// Route filter "ResponseCache". With gateway.response-cache.enabled=false routes keep the filter but it passes
+// every request through.
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache cache, ResponseCacheProperties properties) {
+        super(Config.class);
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (!properties.enabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        return new ResponseCacheFilter(cache, properties, config);
+    }
+
+    public static class Config {
+
+        // Shared entries are keyed without the caller, so every user gets the same cached response
+        private boolean shared;
+        private Duration ttl;
+        private Duration staleWhileRevalidate;
+
+        public boolean isShared() {
+            return shared;
+        }
+
+        public Config setShared(boolean shared) {
+            this.shared = shared;
+            return this;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public Config setTtl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        public Duration getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public Config setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Config{shared=" + shared + ", ttl=" + ttl + ", staleWhileRevalidate=" + staleWhileRevalidate + "}";
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        DataSize maxSize,
+        DataSize maxEntrySize,
+        Duration ttl,
+        Duration staleWhileRevalidate,
+        Redis redis) {
+
+    public ResponseCacheProperties {
+        if (maxSize == null || maxSize.toBytes() <= 0) {
+            maxSize = DataSize.ofMegabytes(64);
+        }
+        if (maxEntrySize == null || maxEntrySize.toBytes() <= 0) {
+            maxEntrySize = DataSize.ofMegabytes(1);
+        }
+        if (maxEntrySize.toBytes() > Math.min(maxSize.toBytes(), Integer.MAX_VALUE)) {
+            maxEntrySize = DataSize.ofBytes(Math.min(maxSize.toBytes(), Integer.MAX_VALUE));
+        }
+        // Freshness for responses without Cache-Control; routes can override both with filter args
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            ttl = Duration.ofMinutes(1);
+        }
+        if (staleWhileRevalidate == null || staleWhileRevalidate.isNegative()) {
+            staleWhileRevalidate = Duration.ofSeconds(30);
+        }
+        if (redis == null) {
+            redis = new Redis(false, null, null);
+        }
+    }
+
+    public static ResponseCacheProperties defaults() {
+        return new ResponseCacheProperties(true, null, null, null, null, null);
+    }
+
+    // Second tier shared by all gateway nodes; calls are bounded by timeout and any failure counts as a miss
+    public record Redis(
+            boolean enabled,
+            String keyPrefix,
+            Duration timeout) {
+        public Redis {
+            if (keyPrefix == null || keyPrefix.isBlank()) {
+                keyPrefix = "gateway_response_cache:";
+            }
+            if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+                timeout = Duration.ofMillis(100);
+            }
+        }
+    }
+}
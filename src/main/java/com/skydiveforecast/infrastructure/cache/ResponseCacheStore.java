@@ -0,0 +1,13 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Second cache tier shared between gateway nodes
+public interface ResponseCacheStore {
+
+    Mono<CachedResponse> get(String key);
+
+    Mono<Void> put(String key, CachedResponse response, Duration ttl);
+}
@@ -0,0 +1,48 @@
+package com.skydiveforecast.infrastructure.config;
+
+import com.skydiveforecast.infrastructure.http.BackendConnectionWarmer;
+import com.skydiveforecast.infrastructure.http.BackendHttpClientFactory;
+import com.skydiveforecast.infrastructure.http.BackendHttpClientProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(BackendHttpClientProperties.class)
+public class BackendHttpClientConfig {
+
+    // Replaces the gateway's own factory, which backs off when an HttpClientFactory bean exists; spring.cloud.gateway
+    // .httpclient.* settings other than the pool still apply
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties httpClientProperties,
+                                                      ServerProperties serverProperties,
+                                                      HttpClientSslConfigurer httpClientSslConfigurer,
+                                                      List<HttpClientCustomizer> httpClientCustomizers,
+                                                      BackendHttpClientProperties backendHttpClientProperties) {
+        return new BackendHttpClientFactory(httpClientProperties, serverProperties, httpClientSslConfigurer,
+                httpClientCustomizers, backendHttpClientProperties);
+    }
+
+    // Cleartext HTTP/2 via upgrade, so backends that only speak HTTP/1.1 keep working
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.backend-http", name = "h2c", havingValue = "true")
+    public HttpClientCustomizer h2cHttpClientCustomizer() {
+        return httpClient -> httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+    }
+
+    @Bean
+    public BackendConnectionWarmer backendConnectionWarmer(HttpClient httpClient,
+                                                           BackendHttpClientProperties backendHttpClientProperties) {
+        return new BackendConnectionWarmer(httpClient, backendHttpClientProperties);
+    }
+}
@@ -1,24 +1,141 @@
 package com.skydiveforecast.infrastructure.config;
 
+import com.skydiveforecast.infrastructure.network.ClientIpProperties;
+import com.skydiveforecast.infrastructure.network.ClientIpResolver;
+import com.skydiveforecast.infrastructure.ratelimit.BatchingRedisRateLimiter;
+import com.skydiveforecast.infrastructure.ratelimit.HeavyHitterEndpoint;
+import com.skydiveforecast.infrastructure.ratelimit.HeavyHitterFilter;
+import com.skydiveforecast.infrastructure.ratelimit.HeavyHitterMonitor;
+import com.skydiveforecast.infrastructure.ratelimit.HeavyHitterProperties;
+import com.skydiveforecast.infrastructure.ratelimit.HybridRateLimiter;
+import com.skydiveforecast.infrastructure.ratelimit.LeaseStore;
+import com.skydiveforecast.infrastructure.ratelimit.LocalRateLimiter;
+import com.skydiveforecast.infrastructure.ratelimit.PrincipalKeyResolver;
+import com.skydiveforecast.infrastructure.ratelimit.RateLimitBatchExecutor;
+import com.skydiveforecast.infrastructure.ratelimit.RateLimitTiers;
+import com.skydiveforecast.infrastructure.ratelimit.RateLimiterProperties;
+import com.skydiveforecast.infrastructure.ratelimit.ResilientRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import reactor.core.publisher.Mono;
 
-import java.util.Optional;
+import java.util.List;
 
 @Configuration
+@EnableConfigurationProperties({RateLimiterProperties.class, ClientIpProperties.class, HeavyHitterProperties.class})
 public class RateLimiterConfig {
 
+    private final ClientIpResolver clientIpResolver;
+
+    public RateLimiterConfig() {
+        this(new ClientIpResolver(ClientIpProperties.defaults()));
+    }
+
+    @Autowired
+    public RateLimiterConfig(ClientIpResolver clientIpResolver) {
+        this.clientIpResolver = clientIpResolver;
+    }
+
+    // Keys on the first hop that is not a trusted proxy; see ClientIpResolver
     @Bean
     public KeyResolver ipKeyResolver() {
-        return exchange -> {
-            String ip = Optional.ofNullable(exchange.getRequest().getHeaders().getFirst("X-Forwarded-For"))
-                    .map(header -> header.split(",")[0].trim())
-                    .orElseGet(() -> Optional.ofNullable(exchange.getRequest().getRemoteAddress())
-                            .map(addr -> addr.getAddress().getHostAddress())
-                            .orElse("unknown"));
-            return Mono.just(ip);
-        };
+        return exchange -> Mono.just(clientIpResolver.resolve(exchange));
+    }
+
+    // Selected per route with key-resolver: "#{@userKeyResolver}"; not a default candidate, so ipKeyResolver stays
+    // the KeyResolver injected into RequestRateLimiter filters. Tiers only take effect on the local and hybrid
+    // limiters, RedisRateLimiter applies the route limits to every key
+    @Bean(defaultCandidate = false)
+    public KeyResolver userKeyResolver(RateLimitTiers rateLimitTiers) {
+        return new PrincipalKeyResolver(rateLimitTiers, clientIpResolver);
+    }
+
+    @Bean
+    public RateLimitTiers rateLimitTiers(RateLimiterProperties rateLimiterProperties) {
+        return new RateLimitTiers(rateLimiterProperties.tiers());
+    }
+
+    // Selected per route with rate-limiter: "#{@localRateLimiter}"; not a default candidate, so the Redis-backed
+    // limiter stays the RateLimiter injected into RequestRateLimiter filters by default
+    @Bean(defaultCandidate = false)
+    public LocalRateLimiter localRateLimiter(RateLimiterProperties rateLimiterProperties, RateLimitTiers rateLimitTiers,
+                                             ConfigurationService configurationService) {
+        return new LocalRateLimiter(rateLimiterProperties.local(), rateLimitTiers, configurationService);
+    }
+
+    // Selected per route with rate-limiter: "#{@hybridRateLimiter}" and hybrid-rate-limiter.* args
+    @Bean(defaultCandidate = false)
+    public HybridRateLimiter hybridRateLimiter(RateLimiterProperties rateLimiterProperties,
+                                               RateLimitTiers rateLimitTiers, LeaseStore leaseStore,
+                                               ConfigurationService configurationService) {
+        return new HybridRateLimiter(rateLimiterProperties, rateLimitTiers, leaseStore, configurationService);
+    }
+
+    // Takes the redisRateLimiter bean name, so the gateway's own RedisRateLimiter backs off and routes keep their
+    // redis-rate-limiter.* args. A batch spans many hash slots and would fail with CROSSSLOT on every call against
+    // Redis Cluster, letting all requests through, so startup fails instead
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.rate-limiter.batching", name = "enabled", havingValue = "true")
+    public RedisRateLimiter redisRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                             @Qualifier(RedisRateLimiter.REDIS_SCRIPT_NAME)
+                                             RedisScript<List<Long>> redisScript,
+                                             ConfigurationService configurationService,
+                                             RateLimitBatchExecutor rateLimitBatchExecutor,
+                                             RateLimiterProperties rateLimiterProperties,
+                                             MeterRegistry meterRegistry) {
+        if (redisTemplate.getConnectionFactory() instanceof LettuceConnectionFactory connectionFactory
+                && connectionFactory.isClusterAware()) {
+            throw new IllegalStateException("gateway.rate-limiter.batching.enabled is not supported on Redis Cluster");
+        }
+        return new BatchingRedisRateLimiter(redisTemplate, redisScript, configurationService, rateLimitBatchExecutor,
+                rateLimiterProperties.batching(), meterRegistry);
+    }
+
+    // Primary, so RequestRateLimiter filters without an explicit rate-limiter go through the health check in front
+    // of whichever redisRateLimiter bean is active; route redis-rate-limiter.* args apply unchanged
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "gateway.rate-limiter.fallback", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ResilientRateLimiter resilientRateLimiter(RateLimiterProperties rateLimiterProperties,
+                                                     RedisRateLimiter redisRateLimiter,
+                                                     ConfigurationService configurationService,
+                                                     MeterRegistry meterRegistry) {
+        return new ResilientRateLimiter(rateLimiterProperties, redisRateLimiter, configurationService, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.heavy-hitters", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public HeavyHitterMonitor heavyHitterMonitor(HeavyHitterProperties heavyHitterProperties,
+                                                 MeterRegistry meterRegistry) {
+        return new HeavyHitterMonitor(heavyHitterProperties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.heavy-hitters", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public HeavyHitterFilter heavyHitterFilter(HeavyHitterMonitor heavyHitterMonitor) {
+        return new HeavyHitterFilter(heavyHitterMonitor, clientIpResolver);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.heavy-hitters", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public HeavyHitterEndpoint heavyHitterEndpoint(HeavyHitterMonitor heavyHitterMonitor,
+                                                   HeavyHitterProperties heavyHitterProperties) {
+        return new HeavyHitterEndpoint(heavyHitterMonitor, heavyHitterProperties);
     }
 }
@@ -0,0 +1,48 @@
+package com.skydiveforecast.infrastructure.config;
+
+import com.skydiveforecast.infrastructure.cache.GeoQuantizeGatewayFilterFactory;
+import com.skydiveforecast.infrastructure.cache.RedisResponseCacheStore;
+import com.skydiveforecast.infrastructure.cache.ResponseCache;
+import com.skydiveforecast.infrastructure.cache.ResponseCacheGatewayFilterFactory;
+import com.skydiveforecast.infrastructure.cache.ResponseCacheProperties;
+import com.skydiveforecast.infrastructure.cache.ResponseCacheStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.response-cache.redis", name = "enabled", havingValue = "true")
+    public RedisResponseCacheStore redisResponseCacheStore(ReactiveStringRedisTemplate redisTemplate,
+                                                           ResponseCacheProperties responseCacheProperties) {
+        return new RedisResponseCacheStore(redisTemplate, responseCacheProperties);
+    }
+
+    // Memory only unless the Redis tier is enabled
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties responseCacheProperties,
+                                       ObjectProvider<ResponseCacheStore> responseCacheStore,
+                                       MeterRegistry meterRegistry) {
+        return new ResponseCache(responseCacheProperties, responseCacheStore.getIfAvailable(), meterRegistry);
+    }
+
+    // Applied per route as the ResponseCache filter
+    @Bean
+    public ResponseCacheGatewayFilterFactory responseCacheGatewayFilterFactory(
+            ResponseCache responseCache, ResponseCacheProperties responseCacheProperties) {
+        return new ResponseCacheGatewayFilterFactory(responseCache, responseCacheProperties);
+    }
+
+    // Applied per route as the GeoQuantize filter, listed ahead of ResponseCache
+    @Bean
+    public GeoQuantizeGatewayFilterFactory geoQuantizeGatewayFilterFactory(MeterRegistry meterRegistry) {
+        return new GeoQuantizeGatewayFilterFactory(meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.skydiveforecast.infrastructure.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+// Opens pooled connections to the configured destinations once the gateway is up, so the first requests after a
+// deploy skip DNS lookups and TCP handshakes. Runs in the background; a destination that is down is only logged.
+public class BackendConnectionWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(BackendConnectionWarmer.class);
+
+    private final HttpClient httpClient;
+    private final BackendHttpClientProperties properties;
+
+    public BackendConnectionWarmer(HttpClient httpClient, BackendHttpClientProperties properties) {
+        this.httpClient = httpClient;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        warmUpConnections().subscribe();
+    }
+
+    Mono<Void> warmUpConnections() {
+        int connections = properties.warmUp().connections();
+        Mono<Void> eventLoops = httpClient.warmup();
+        if (connections == 0 || properties.destinations().isEmpty()) {
+            return eventLoops;
+        }
+        return eventLoops.thenMany(Flux.fromIterable(properties.destinations().keySet()))
+                .flatMap(destination -> Flux.range(0, connections)
+                        // Requests in flight together each take their own connection from the pool
+                        .flatMap(i -> httpClient.head()
+                                .uri(destination + properties.warmUp().path())
+                                .response()
+                                .then(), connections)
+                        .doOnComplete(() -> log.info("Warmed up {} connections to {}", connections, destination))
+                        .onErrorResume(e -> {
+                            log.warn("Could not warm up connections to {}: {}", destination, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+}
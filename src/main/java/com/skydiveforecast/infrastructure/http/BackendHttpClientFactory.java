@@ -0,0 +1,66 @@
+package com.skydiveforecast.infrastructure.http;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+// Builds the gateway's HttpClient, which routes use and the OpenAPI aggregation injects, with one pool per
+// configured destination and a default pool for everything else. Pool metrics are published under
+// reactor.netty.connection.provider.* tagged with the pool name and remote address.
+public class BackendHttpClientFactory extends HttpClientFactory {
+
+    static final String POOL_NAME = "backend";
+
+    private final BackendHttpClientProperties backendProperties;
+
+    public BackendHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                    HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                    BackendHttpClientProperties backendProperties) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.backendProperties = backendProperties;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        return connectionProvider(backendProperties);
+    }
+
+    static ConnectionProvider connectionProvider(BackendHttpClientProperties properties) {
+        BackendHttpClientProperties.Pool defaults = properties.pool();
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(defaults.maxConnections())
+                .pendingAcquireMaxCount(defaults.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(defaults.pendingAcquireTimeout())
+                .maxIdleTime(defaults.maxIdleTime())
+                .maxLifeTime(defaults.maxLifeTime())
+                .evictInBackground(defaults.evictionInterval())
+                .metrics(true);
+        for (Map.Entry<String, BackendHttpClientProperties.Pool> destination : properties.destinations().entrySet()) {
+            BackendHttpClientProperties.Pool pool = destination.getValue();
+            // Reactor Netty looks pools up by the unresolved address it builds from the request URI
+            builder.forRemoteHost(remoteAddress(destination.getKey()), spec -> spec
+                    .maxConnections(pool.maxConnections())
+                    .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                    .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                    .maxIdleTime(pool.maxIdleTime())
+                    .maxLifeTime(pool.maxLifeTime())
+                    .evictInBackground(pool.evictionInterval())
+                    .metrics(true));
+        }
+        return builder.build();
+    }
+
+    static InetSocketAddress remoteAddress(String destination) {
+        URI uri = URI.create(destination);
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return InetSocketAddress.createUnresolved(uri.getHost(), port);
+    }
+}
@@ -0,0 +1,83 @@
+package com.skydiveforecast.infrastructure.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+// Connection pools for calls from the gateway to backend services, shared by routes and the OpenAPI aggregation.
+// Destinations are keyed by base URL (http://analysis-service:8082) and get their own pool limits.
+@ConfigurationProperties(prefix = "gateway.backend-http")
+public record BackendHttpClientProperties(
+        Pool pool,
+        Map<String, Pool> destinations,
+        boolean h2c,
+        WarmUp warmUp) {
+
+    public BackendHttpClientProperties {
+        if (pool == null) {
+            pool = new Pool(0, 0, null, null, null, null);
+        }
+        if (destinations == null) {
+            destinations = Map.of();
+        }
+        if (warmUp == null) {
+            warmUp = new WarmUp(0, null);
+        }
+        for (String destination : destinations.keySet()) {
+            URI uri = URI.create(destination);
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("Backend destination must be a base URL: " + destination);
+            }
+        }
+    }
+
+    public static BackendHttpClientProperties defaults() {
+        return new BackendHttpClientProperties(null, null, false, null);
+    }
+
+    public record Pool(
+            int maxConnections,
+            int pendingAcquireMaxCount,
+            Duration pendingAcquireTimeout,
+            Duration maxIdleTime,
+            Duration maxLifeTime,
+            Duration evictionInterval) {
+
+        public Pool {
+            if (maxConnections <= 0) {
+                maxConnections = 500;
+            }
+            if (pendingAcquireMaxCount <= 0) {
+                pendingAcquireMaxCount = 2 * maxConnections;
+            }
+            if (pendingAcquireTimeout == null) {
+                pendingAcquireTimeout = Duration.ofSeconds(5);
+            }
+            // Below the usual 60 s keep-alive timeout of the backends, so the gateway closes idle connections first
+            if (maxIdleTime == null) {
+                maxIdleTime = Duration.ofSeconds(30);
+            }
+            if (maxLifeTime == null) {
+                maxLifeTime = Duration.ofMinutes(10);
+            }
+            if (evictionInterval == null) {
+                evictionInterval = Duration.ofSeconds(30);
+            }
+        }
+    }
+
+    // Connections opened to each configured destination at startup, by sending HEAD requests to path
+    public record WarmUp(int connections, String path) {
+
+        public WarmUp {
+            if (connections < 0) {
+                connections = 0;
+            }
+            if (path == null || path.isBlank()) {
+                path = "/actuator/health";
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.skydiveforecast.infrastructure.network;
+
+import java.util.Arrays;
+
+// Binary trie over address bits for one address family. Nodes live in parallel int arrays, so a lookup is at most
+// one array hop per prefix bit and allocates nothing.
+final class CidrTrie {
+
+    private static final int NONE = 0;
+
+    private int[] zero = new int[16];
+    private int[] one = new int[16];
+    private boolean[] terminal = new boolean[16];
+    private int size = 1;
+
+    void add(byte[] address, int prefixLength) {
+        int node = 0;
+        for (int bit = 0; bit < prefixLength; bit++) {
+            if (terminal[node]) {
+                // A shorter prefix already covers this one
+                return;
+            }
+            int[] children = bit(address, bit) == 0 ? zero : one;
+            if (children[node] == NONE) {
+                // allocate() may grow the arrays, so the child is linked after it returns
+                int child = allocate();
+                children = bit(address, bit) == 0 ? zero : one;
+                children[node] = child;
+            }
+            node = children[node];
+        }
+        terminal[node] = true;
+    }
+
+    boolean contains(byte[] address, int bits) {
+        int node = 0;
+        for (int bit = 0; bit < bits; bit++) {
+            if (terminal[node]) {
+                return true;
+            }
+            node = bit(address, bit) == 0 ? zero[node] : one[node];
+            if (node == NONE) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    private int allocate() {
+        if (size == terminal.length) {
+            zero = Arrays.copyOf(zero, size * 2);
+            one = Arrays.copyOf(one, size * 2);
+            terminal = Arrays.copyOf(terminal, size * 2);
+        }
+        return size++;
+    }
+
+    private static int bit(byte[] address, int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+}
@@ -0,0 +1,31 @@
+package com.skydiveforecast.infrastructure.network;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "gateway.client-ip")
+public record ClientIpProperties(
+        List<String> trustedProxies,
+        int ipv6PrefixLength,
+        @DefaultValue("true") boolean forwardedHeaderEnabled) {
+
+    // Loopback, RFC 1918, carrier-grade NAT and IPv6 unique-local ranges: the hops inside our own network
+    public static final List<String> DEFAULT_TRUSTED_PROXIES = List.of(
+            "127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "100.64.0.0/10",
+            "::1/128", "fc00::/7");
+
+    public ClientIpProperties {
+        if (trustedProxies == null) {
+            trustedProxies = DEFAULT_TRUSTED_PROXIES;
+        }
+        if (ipv6PrefixLength <= 0 || ipv6PrefixLength > 128) {
+            ipv6PrefixLength = 64;
+        }
+    }
+
+    public static ClientIpProperties defaults() {
+        return new ClientIpProperties(null, 0, true);
+    }
+}
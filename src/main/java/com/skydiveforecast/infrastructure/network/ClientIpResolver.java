@@ -0,0 +1,178 @@
+package com.skydiveforecast.infrastructure.network;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+// Picks the client address from the proxy chain: starting at the TCP peer, hops are walked right to left through
+// Forwarded (RFC 7239) or X-Forwarded-For and skipped while they match a trusted proxy. The first untrusted hop is
+// the client; anything further left was written by the client and could be spoofed. The result is stored on the
+// exchange so the key resolver and the security filters resolve it only once per request.
+@Component
+public class ClientIpResolver {
+
+    public static final String CLIENT_IP_ATTRIBUTE = ClientIpResolver.class.getName() + ".clientIp";
+    public static final String UNKNOWN = "unknown";
+
+    private static final String FORWARDED = "Forwarded";
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    private static final String FORWARDED_FOR = "for=";
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final CidrTrie trustedIpv4 = new CidrTrie();
+    private final CidrTrie trustedIpv6 = new CidrTrie();
+    private final int ipv6PrefixLength;
+    private final boolean forwardedHeaderEnabled;
+
+    public ClientIpResolver(ClientIpProperties properties) {
+        for (String cidr : properties.trustedProxies()) {
+            addTrustedProxy(cidr.trim());
+        }
+        this.ipv6PrefixLength = properties.ipv6PrefixLength();
+        this.forwardedHeaderEnabled = properties.forwardedHeaderEnabled();
+    }
+
+    public String resolve(ServerWebExchange exchange) {
+        String cached = exchange.getAttribute(CLIENT_IP_ATTRIBUTE);
+        if (cached != null) {
+            return cached;
+        }
+        String clientIp = resolve(exchange.getRequest());
+        exchange.getAttributes().put(CLIENT_IP_ATTRIBUTE, clientIp);
+        return clientIp;
+    }
+
+    String resolve(ServerHttpRequest request) {
+        Scratch scratch = SCRATCH.get();
+        scratch.candidateLength = 0;
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        InetAddress peer = remoteAddress != null ? remoteAddress.getAddress() : null;
+        if (peer != null) {
+            byte[] bytes = peer.getAddress();
+            System.arraycopy(bytes, 0, scratch.candidate, 0, bytes.length);
+            scratch.candidateLength = bytes.length;
+            if (!isTrusted(scratch.candidate, scratch.candidateLength)) {
+                return format(scratch.candidate, scratch.candidateLength);
+            }
+        }
+
+        // Forwarding headers are only believed when the peer is one of our proxies; with no peer (tests, some
+        // embedded servers) the chain is all we have
+        HttpHeaders headers = request.getHeaders();
+        List<String> forwarded = forwardedHeaderEnabled ? headers.get(FORWARDED) : null;
+        if (forwarded != null && !forwarded.isEmpty()) {
+            walk(forwarded, true, scratch);
+        } else {
+            List<String> forwardedFor = headers.get(X_FORWARDED_FOR);
+            if (forwardedFor != null) {
+                walk(forwardedFor, false, scratch);
+            }
+        }
+        return scratch.candidateLength == 0 ? UNKNOWN : format(scratch.candidate, scratch.candidateLength);
+    }
+
+    // Header lines are appended in order, so the last line holds the hops closest to us
+    private void walk(List<String> values, boolean forwarded, Scratch scratch) {
+        for (int line = values.size() - 1; line >= 0; line--) {
+            String value = values.get(line);
+            int end = value.length();
+            while (end >= 0) {
+                int comma = value.lastIndexOf(',', end - 1);
+                int length = forwarded
+                        ? parseForwardedElement(value, comma + 1, end, scratch.hop)
+                        : IpAddressParser.parse(value, comma + 1, end, scratch.hop);
+                if (length == IpAddressParser.INVALID) {
+                    // Obfuscated or garbage hop: stop at the last address a trusted proxy vouched for
+                    return;
+                }
+                System.arraycopy(scratch.hop, 0, scratch.candidate, 0, length);
+                scratch.candidateLength = length;
+                if (!isTrusted(scratch.candidate, length)) {
+                    return;
+                }
+                if (comma < 0) {
+                    break;
+                }
+                end = comma;
+            }
+        }
+    }
+
+    // An element is a ';'-separated list of pairs such as for=192.0.2.60;proto=https;by=203.0.113.43
+    private static int parseForwardedElement(String value, int start, int end, byte[] out) {
+        int pairStart = start;
+        while (pairStart < end) {
+            int semicolon = value.indexOf(';', pairStart);
+            int pairEnd = semicolon < 0 || semicolon > end ? end : semicolon;
+            while (pairStart < pairEnd && value.charAt(pairStart) == ' ') {
+                pairStart++;
+            }
+            if (value.regionMatches(true, pairStart, FORWARDED_FOR, 0, FORWARDED_FOR.length())) {
+                return IpAddressParser.parse(value, pairStart + FORWARDED_FOR.length(), pairEnd, out);
+            }
+            pairStart = pairEnd + 1;
+        }
+        return IpAddressParser.INVALID;
+    }
+
+    private boolean isTrusted(byte[] address, int length) {
+        return length == 4 ? trustedIpv4.contains(address, 32) : trustedIpv6.contains(address, 128);
+    }
+
+    // IPv6 clients are keyed by their network prefix, since a single host can rotate through a whole /64
+    private String format(byte[] address, int length) {
+        if (length == 4) {
+            return IpAddressParser.format(address, 4);
+        }
+        byte[] masked = address.clone();
+        mask(masked, ipv6PrefixLength);
+        String network = IpAddressParser.format(masked, 16);
+        return ipv6PrefixLength == 128 ? network : network + "/" + ipv6PrefixLength;
+    }
+
+    private void addTrustedProxy(String cidr) {
+        int slash = cidr.indexOf('/');
+        byte[] address = new byte[16];
+        int length = IpAddressParser.parse(cidr, 0, slash < 0 ? cidr.length() : slash, address);
+        if (length == IpAddressParser.INVALID) {
+            throw new IllegalArgumentException("Invalid trusted proxy address: " + cidr);
+        }
+        int prefixLength = length * 8;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(cidr, slash + 1, cidr.length(), 10);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix length: " + cidr, e);
+            }
+            // ::ffff:a.b.c.d/n is parsed as IPv4, so its prefix counts the 96 mapped bits
+            if (length == 4 && cidr.indexOf(':') >= 0) {
+                prefixLength -= 96;
+            }
+            if (prefixLength < 0 || prefixLength > length * 8) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix length: " + cidr);
+            }
+        }
+        (length == 4 ? trustedIpv4 : trustedIpv6).add(address, prefixLength);
+    }
+
+    private static void mask(byte[] address, int prefixLength) {
+        for (int i = 0; i < address.length; i++) {
+            int bits = Math.max(0, Math.min(8, prefixLength - i * 8));
+            address[i] &= (byte) (0xff00 >>> bits);
+        }
+    }
+
+    private static final class Scratch {
+
+        private final byte[] hop = new byte[16];
+        private final byte[] candidate = new byte[16];
+        private int candidateLength;
+    }
+}
@@ -0,0 +1,232 @@
+package com.skydiveforecast.infrastructure.network;
+
+// Parses IPv4/IPv6 literals straight from a region of a header value into a byte buffer, without substrings.
+// Accepts the decorations seen in forwarding headers: surrounding quotes, [brackets], :port and %zone suffixes.
+final class IpAddressParser {
+
+    static final int INVALID = -1;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private IpAddressParser() {
+    }
+
+    // Returns 4 or 16 (address length written to out) or INVALID; IPv4-mapped IPv6 addresses are returned as IPv4
+    static int parse(CharSequence value, int start, int end, byte[] out) {
+        while (start < end && isBlank(value.charAt(start))) {
+            start++;
+        }
+        while (end > start && isBlank(value.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start >= 2 && value.charAt(start) == '"' && value.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        if (start >= end) {
+            return INVALID;
+        }
+        if (value.charAt(start) == '[') {
+            int close = indexOf(value, ']', start + 1, end);
+            if (close < 0) {
+                return INVALID;
+            }
+            return parseIpv6(value, start + 1, close, out);
+        }
+        int colons = 0;
+        for (int i = start; i < end && colons < 2; i++) {
+            if (value.charAt(i) == ':') {
+                colons++;
+            }
+        }
+        if (colons == 0) {
+            return parseIpv4(value, start, end, out, 0) ? 4 : INVALID;
+        }
+        if (colons == 1) {
+            // a.b.c.d:port
+            int colon = indexOf(value, ':', start, end);
+            return parseIpv4(value, start, colon, out, 0) ? 4 : INVALID;
+        }
+        return parseIpv6(value, start, end, out);
+    }
+
+    static String format(byte[] address, int length) {
+        if (length == 4) {
+            return (address[0] & 0xff) + "." + (address[1] & 0xff) + "." + (address[2] & 0xff) + "."
+                    + (address[3] & 0xff);
+        }
+        // RFC 5952: lowercase, no leading zeros, longest run of two or more zero groups shortened to ::
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int i = 0; i < 8; ) {
+            if (group(address, i) != 0) {
+                i++;
+                continue;
+            }
+            int runStart = i;
+            while (i < 8 && group(address, i) == 0) {
+                i++;
+            }
+            if (i - runStart > bestLength) {
+                bestStart = runStart;
+                bestLength = i - runStart;
+            }
+        }
+        StringBuilder text = new StringBuilder(39);
+        for (int i = 0; i < 8; i++) {
+            if (i == bestStart) {
+                text.append("::");
+                i += bestLength - 1;
+                continue;
+            }
+            if (text.length() > 0 && text.charAt(text.length() - 1) != ':') {
+                text.append(':');
+            }
+            appendHex(text, group(address, i));
+        }
+        return text.toString();
+    }
+
+    private static boolean parseIpv4(CharSequence value, int start, int end, byte[] out, int offset) {
+        int octet = 0;
+        int digits = 0;
+        int index = offset;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? value.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return false;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || index == offset + 4) {
+                    return false;
+                }
+                out[index++] = (byte) octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return false;
+            }
+        }
+        return index == offset + 4;
+    }
+
+    private static int parseIpv6(CharSequence value, int start, int end, byte[] out) {
+        int zone = indexOf(value, '%', start, end);
+        if (zone >= 0) {
+            end = zone;
+        }
+        int groups = 0;
+        int compressAt = -1;
+        int i = start;
+        if (end - i >= 2 && value.charAt(i) == ':' && value.charAt(i + 1) == ':') {
+            compressAt = 0;
+            i += 2;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int group = 0;
+            while (i < end && i - groupStart < 5 && hexDigit(value.charAt(i)) >= 0) {
+                group = (group << 4) | hexDigit(value.charAt(i));
+                i++;
+            }
+            if (i < end && value.charAt(i) == '.') {
+                // Embedded IPv4 in the last 32 bits
+                if (groups > 6 || !parseIpv4(value, groupStart, end, out, groups * 2)) {
+                    return INVALID;
+                }
+                groups += 2;
+                i = end;
+                break;
+            }
+            if (i == groupStart || i - groupStart > 4 || groups == 8) {
+                return INVALID;
+            }
+            out[groups * 2] = (byte) (group >>> 8);
+            out[groups * 2 + 1] = (byte) group;
+            groups++;
+            if (i == end) {
+                break;
+            }
+            if (value.charAt(i) != ':') {
+                return INVALID;
+            }
+            i++;
+            if (i < end && value.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return INVALID;
+                }
+                compressAt = groups;
+                i++;
+            } else if (i == end) {
+                return INVALID;
+            }
+        }
+        if (compressAt < 0 ? groups != 8 : groups > 7) {
+            return INVALID;
+        }
+        if (compressAt >= 0) {
+            int tail = (groups - compressAt) * 2;
+            System.arraycopy(out, compressAt * 2, out, 16 - tail, tail);
+            for (int b = compressAt * 2; b < 16 - tail; b++) {
+                out[b] = 0;
+            }
+        }
+        if (isIpv4Mapped(out)) {
+            System.arraycopy(out, 12, out, 0, 4);
+            return 4;
+        }
+        return 16;
+    }
+
+    private static boolean isIpv4Mapped(byte[] address) {
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+        return address[10] == (byte) 0xff && address[11] == (byte) 0xff;
+    }
+
+    private static int group(byte[] address, int index) {
+        return ((address[index * 2] & 0xff) << 8) | (address[index * 2 + 1] & 0xff);
+    }
+
+    private static void appendHex(StringBuilder text, int group) {
+        boolean started = false;
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            int digit = (group >>> shift) & 0xf;
+            if (digit != 0 || started || shift == 0) {
+                text.append(HEX[digit]);
+                started = true;
+            }
+        }
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence value, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
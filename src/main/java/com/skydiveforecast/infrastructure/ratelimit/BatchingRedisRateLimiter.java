@@ -0,0 +1,168 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Drop-in RedisRateLimiter that collects the checks arriving within a short window and sends them to Redis as one
+// multi-key script call, trading up to one window of latency for far fewer Redis operations at peak. Route
+// redis-rate-limiter.* args and X-RateLimit-* headers work as before; a zero window falls back to one script call
+// per request.
+public class BatchingRedisRateLimiter extends RedisRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingRedisRateLimiter.class);
+
+    private final RateLimitBatchExecutor batchExecutor;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Scheduler scheduler;
+    private final Queue<PendingCheck> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final DistributionSummary batchSize;
+    private final Timer queueLatency;
+    private final Counter batchFailures;
+
+    public BatchingRedisRateLimiter(ReactiveStringRedisTemplate redisTemplate, RedisScript<List<Long>> script,
+                                    ConfigurationService configurationService, RateLimitBatchExecutor batchExecutor,
+                                    RateLimiterProperties.Batching properties, MeterRegistry meterRegistry) {
+        this(redisTemplate, script, configurationService, batchExecutor, properties, meterRegistry,
+                Schedulers.parallel());
+    }
+
+    BatchingRedisRateLimiter(ReactiveStringRedisTemplate redisTemplate, RedisScript<List<Long>> script,
+                             ConfigurationService configurationService, RateLimitBatchExecutor batchExecutor,
+                             RateLimiterProperties.Batching properties, MeterRegistry meterRegistry,
+                             Scheduler scheduler) {
+        super(redisTemplate, script, configurationService);
+        this.batchExecutor = batchExecutor;
+        this.windowNanos = properties.window().toNanos();
+        this.maxBatchSize = properties.maxBatchSize();
+        this.scheduler = scheduler;
+        this.batchSize = DistributionSummary.builder("gateway.ratelimit.redis.batch.size")
+                .description("Rate limit checks sent to Redis in one script call")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) maxBatchSize)
+                .register(meterRegistry);
+        this.queueLatency = Timer.builder("gateway.ratelimit.redis.batch.queue")
+                .description("Time a rate limit check waited for its batch to be sent")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+        this.batchFailures = Counter.builder("gateway.ratelimit.redis.batch.failures")
+                .description("Rate limit batches that failed and were allowed through")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        if (windowNanos == 0) {
+            return super.isAllowed(routeId, id);
+        }
+        Config config = configFor(routeId);
+        return Mono.create(sink -> enqueue(new PendingCheck(routeId, config, id, sink, System.nanoTime())));
+    }
+
+    private void enqueue(PendingCheck check) {
+        queue.add(check);
+        scheduleFlush(queued.incrementAndGet() >= maxBatchSize);
+    }
+
+    // A full batch goes out right away; otherwise the first check of a window arms the timer
+    private void scheduleFlush(boolean full) {
+        if (full) {
+            scheduler.schedule(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<PendingCheck> batch = new ArrayList<>(Math.min(Math.max(1, queued.get()), maxBatchSize));
+        PendingCheck check;
+        while (batch.size() < maxBatchSize && (check = queue.poll()) != null) {
+            batch.add(check);
+        }
+        if (!batch.isEmpty()) {
+            int remaining = queued.addAndGet(-batch.size());
+            send(batch);
+            if (remaining > 0) {
+                scheduleFlush(remaining >= maxBatchSize);
+            }
+        }
+    }
+
+    private void send(List<PendingCheck> batch) {
+        long now = System.nanoTime();
+        List<RateLimitBatchExecutor.Check> checks = new ArrayList<>(batch.size());
+        for (PendingCheck pending : batch) {
+            queueLatency.record(now - pending.enqueuedNanos, TimeUnit.NANOSECONDS);
+            checks.add(new RateLimitBatchExecutor.Check(pending.routeId, pending.id, pending.config.getReplenishRate(),
+                    pending.config.getBurstCapacity(), pending.config.getRequestedTokens()));
+        }
+        batchSize.record(batch.size());
+        batchExecutor.execute(checks)
+                .defaultIfEmpty(List.of())
+                .subscribe(results -> complete(batch, results), error -> failOpen(batch, error));
+    }
+
+    private void complete(List<PendingCheck> batch, List<Long> results) {
+        if (results.size() != batch.size() * 2) {
+            failOpen(batch, new IllegalStateException(
+                    "Expected " + batch.size() * 2 + " rate limit results but got " + results.size()));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCheck pending = batch.get(i);
+            boolean allowed = results.get(2 * i) == 1L;
+            pending.sink.success(new Response(allowed, getHeaders(pending.config, results.get(2 * i + 1))));
+        }
+    }
+
+    // Same policy as RedisRateLimiter: a Redis failure must not take the API down, so requests are let through
+    private void failOpen(List<PendingCheck> batch, Throwable error) {
+        batchFailures.increment();
+        log.error("Error determining if {} rate limited requests are allowed", batch.size(), error);
+        for (PendingCheck pending : batch) {
+            pending.sink.success(new Response(true, getHeaders(pending.config, -1L)));
+        }
+    }
+
+    private Config configFor(String routeId) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            config = getConfig().get(RouteDefinitionRouteLocator.DEFAULT_FILTERS);
+        }
+        if (config == null) {
+            throw new IllegalArgumentException("No Configuration found for route " + routeId + " or defaultFilters");
+        }
+        return config;
+    }
+
+    private record PendingCheck(String routeId, Config config, String id, MonoSink<Response> sink, long enqueuedNanos) {
+    }
+}
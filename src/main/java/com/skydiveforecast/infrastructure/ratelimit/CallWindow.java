@@ -0,0 +1,55 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Sliding window of call outcomes split into fixed time slices. Recording is a couple of atomic increments; a slice
+// is reset by the first call that lands in it after it has gone stale, so counts are approximate under races.
+final class CallWindow {
+
+    private static final int SLICES = 10;
+
+    private final long sliceNanos;
+    private final AtomicLongArray sliceIndex = new AtomicLongArray(SLICES);
+    private final AtomicLongArray calls = new AtomicLongArray(SLICES);
+    private final AtomicLongArray failures = new AtomicLongArray(SLICES);
+
+    CallWindow(long windowNanos) {
+        this.sliceNanos = Math.max(1L, windowNanos / SLICES);
+        reset();
+    }
+
+    void record(long now, boolean failed) {
+        long index = now / sliceNanos;
+        int slot = (int) Math.floorMod(index, (long) SLICES);
+        long current = sliceIndex.get(slot);
+        if (current != index && sliceIndex.compareAndSet(slot, current, index)) {
+            calls.set(slot, 0L);
+            failures.set(slot, 0L);
+        }
+        calls.incrementAndGet(slot);
+        if (failed) {
+            failures.incrementAndGet(slot);
+        }
+    }
+
+    boolean exceeds(long now, int minimumCalls, double failureRateThreshold) {
+        long oldest = now / sliceNanos - SLICES + 1;
+        long total = 0L;
+        long failed = 0L;
+        for (int slot = 0; slot < SLICES; slot++) {
+            if (sliceIndex.get(slot) >= oldest) {
+                total += calls.get(slot);
+                failed += failures.get(slot);
+            }
+        }
+        return total >= minimumCalls && failed >= total * failureRateThreshold;
+    }
+
+    void reset() {
+        for (int slot = 0; slot < SLICES; slot++) {
+            sliceIndex.set(slot, Long.MIN_VALUE);
+            calls.set(slot, 0L);
+            failures.set(slot, 0L);
+        }
+    }
+}
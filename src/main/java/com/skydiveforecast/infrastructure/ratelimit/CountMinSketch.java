@@ -0,0 +1,54 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Count-Min Sketch over 64-bit key hashes: depth rows of width counters, one counter per row picked with double
+// hashing. Estimates never undercount and overcount by at most about e / width of the total per row.
+final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counts;
+
+    CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counts = new AtomicLongArray(width * depth);
+    }
+
+    // Adds one occurrence and returns the new estimate, saving a second pass over the rows
+    long addAndEstimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, counts.incrementAndGet(row * width + column));
+        }
+        return estimate;
+    }
+
+    long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, counts.get(row * width + column));
+        }
+        return estimate;
+    }
+
+    static long hash(String key) {
+        // String caches its hashCode; fmix64 spreads it over both halves used for double hashing
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,5 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+// A client key with its estimated request count over the tracking window
+public record HeavyHitter(String key, long requests, double requestsPerSecond) {
+}
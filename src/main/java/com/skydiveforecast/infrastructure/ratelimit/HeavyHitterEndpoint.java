@@ -0,0 +1,31 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// GET /actuator/heavyhitters?limit=N once exposed through management.endpoints.web.exposure.include
+@Endpoint(id = "heavyhitters")
+public class HeavyHitterEndpoint {
+
+    private final HeavyHitterMonitor monitor;
+    private final int topK;
+
+    public HeavyHitterEndpoint(HeavyHitterMonitor monitor, HeavyHitterProperties properties) {
+        this.monitor = monitor;
+        this.topK = properties.topK();
+    }
+
+    @ReadOperation
+    public Report report(@Nullable Integer limit) {
+        int size = limit == null || limit <= 0 ? topK : Math.min(limit, topK);
+        return new Report(monitor.topClients(size), monitor.topUsers(size), monitor.blockedClients());
+    }
+
+    public record Report(List<HeavyHitter> clients, List<HeavyHitter> users, Map<String, Duration> blocked) {
+    }
+}
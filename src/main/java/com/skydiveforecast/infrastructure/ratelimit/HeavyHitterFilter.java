@@ -0,0 +1,55 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import com.skydiveforecast.infrastructure.network.ClientIpResolver;
+import com.skydiveforecast.infrastructure.security.AuthenticatedPrincipal;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Runs ahead of authentication so floods of rejected requests are counted too; the user is recorded once the
+// chain has run and JwtAuthenticationFilter has put the principal on the exchange
+public class HeavyHitterFilter implements WebFilter, Ordered {
+
+    private static final ByteBuffer BLOCKED_BODY = ByteBuffer.wrap(
+            "{\"error\":\"Too Many Requests\",\"message\":\"Too many requests from this client\"}"
+                    .getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+
+    private final HeavyHitterMonitor monitor;
+    private final ClientIpResolver clientIpResolver;
+
+    public HeavyHitterFilter(HeavyHitterMonitor monitor, ClientIpResolver clientIpResolver) {
+        this.monitor = monitor;
+        this.clientIpResolver = clientIpResolver;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String client = clientIpResolver.resolve(exchange);
+        monitor.recordClient(client);
+        if (monitor.isBlocked(client)) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(BLOCKED_BODY.duplicate())));
+        }
+        return chain.filter(exchange).doFinally(signal -> {
+            AuthenticatedPrincipal principal = exchange.getAttribute(AuthenticatedPrincipal.EXCHANGE_ATTRIBUTE);
+            if (principal != null) {
+                monitor.recordUser(PrincipalKeyResolver.identity(principal));
+            }
+        });
+    }
+}
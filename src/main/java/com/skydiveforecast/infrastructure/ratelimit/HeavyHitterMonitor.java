@@ -0,0 +1,131 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Tracks the heaviest client IPs and users over a sliding window. With blocking enabled, IPs whose rate reaches the
+// threshold are turned away for the block duration; offenders are evaluated on a timer, off the request path.
+public class HeavyHitterMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(HeavyHitterMonitor.class);
+
+    private final HeavyHitterProperties properties;
+    private final HeavyHitterTracker clients;
+    private final HeavyHitterTracker users;
+    private final Map<String, Long> blockedUntil = new ConcurrentHashMap<>();
+    private final long blockNanos;
+    private final LongSupplier nanoClock;
+    private final Counter blocks;
+    private final Counter rejections;
+    private Disposable evaluator;
+
+    public HeavyHitterMonitor(HeavyHitterProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    HeavyHitterMonitor(HeavyHitterProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.clients = new HeavyHitterTracker(properties, nanoClock);
+        this.users = new HeavyHitterTracker(properties, nanoClock);
+        this.blockNanos = properties.blockDuration().toNanos();
+        this.nanoClock = nanoClock;
+        this.blocks = Counter.builder("gateway.heavyhitters.blocks")
+                .description("Client IPs temporarily blocked for exceeding the heavy-hitter rate")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("gateway.heavyhitters.rejections")
+                .description("Requests rejected because the client IP is temporarily blocked")
+                .register(meterRegistry);
+        Gauge.builder("gateway.heavyhitters.blocked", blockedUntil, Map::size)
+                .description("Client IPs currently blocked")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startEvaluation() {
+        if (properties.blockingEnabled()) {
+            Duration interval = properties.window().dividedBy(properties.slices());
+            evaluator = Flux.interval(interval, Schedulers.parallel())
+                    .subscribe(tick -> evaluate());
+        }
+    }
+
+    @PreDestroy
+    void stopEvaluation() {
+        if (evaluator != null) {
+            evaluator.dispose();
+        }
+    }
+
+    void recordClient(String client) {
+        clients.record(client);
+    }
+
+    void recordUser(String user) {
+        users.record(user);
+    }
+
+    boolean isBlocked(String client) {
+        if (blockedUntil.isEmpty()) {
+            return false;
+        }
+        Long until = blockedUntil.get(client);
+        if (until == null) {
+            return false;
+        }
+        if (nanoClock.getAsLong() - until >= 0) {
+            blockedUntil.remove(client, until);
+            return false;
+        }
+        rejections.increment();
+        return true;
+    }
+
+    void evaluate() {
+        long now = nanoClock.getAsLong();
+        blockedUntil.values().removeIf(until -> now - until >= 0);
+        for (HeavyHitter hitter : clients.topOffenders(properties.topK())) {
+            if (hitter.requestsPerSecond() < properties.blockRate()) {
+                break;
+            }
+            if (blockedUntil.putIfAbsent(hitter.key(), now + blockNanos) == null) {
+                blocks.increment();
+                log.warn("Blocking client {} for {} at {} requests per second", hitter.key(),
+                        properties.blockDuration(), String.format("%.1f", hitter.requestsPerSecond()));
+            }
+        }
+    }
+
+    List<HeavyHitter> topClients(int limit) {
+        return clients.topOffenders(limit);
+    }
+
+    List<HeavyHitter> topUsers(int limit) {
+        return users.topOffenders(limit);
+    }
+
+    Map<String, Duration> blockedClients() {
+        long now = nanoClock.getAsLong();
+        Map<String, Duration> blocked = new TreeMap<>();
+        blockedUntil.forEach((client, until) -> {
+            if (until - now > 0) {
+                blocked.put(client, Duration.ofNanos(until - now));
+            }
+        });
+        return blocked;
+    }
+}
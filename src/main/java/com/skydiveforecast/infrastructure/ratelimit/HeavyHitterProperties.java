@@ -0,0 +1,53 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.heavy-hitters")
+public record HeavyHitterProperties(
+        @DefaultValue("true") boolean enabled,
+        Duration window,
+        int slices,
+        int topK,
+        double sketchError,
+        int sketchWidth,
+        int sketchDepth,
+        boolean blockingEnabled,
+        double blockRate,
+        Duration blockDuration) {
+
+    public HeavyHitterProperties {
+        if (window == null || window.isNegative() || window.isZero()) {
+            window = Duration.ofMinutes(1);
+        }
+        if (slices <= 0) {
+            slices = 6;
+        }
+        if (topK <= 0) {
+            topK = 32;
+        }
+        // A key's estimate runs high by at most sketchError times the window's traffic (e / width), so an IP behind
+        // busy traffic is not pushed over block-rate. The width is at least e / sketchError, 2048 by default, and
+        // rounded up to a power of two so a column is picked with a mask
+        if (sketchError <= 0 || sketchError >= 1) {
+            sketchError = 0.002;
+        }
+        int minimumWidth = (int) Math.min(1 << 24, Math.ceil(Math.E / sketchError));
+        sketchWidth = Integer.highestOneBit(Math.min(1 << 24, Math.max(minimumWidth, sketchWidth)) * 2 - 1);
+        if (sketchDepth <= 0) {
+            sketchDepth = 4;
+        }
+        if (blockRate <= 0) {
+            blockRate = 50;
+        }
+        if (blockDuration == null || blockDuration.isNegative() || blockDuration.isZero()) {
+            blockDuration = Duration.ofMinutes(5);
+        }
+    }
+
+    public static HeavyHitterProperties defaults() {
+        return new HeavyHitterProperties(true, null, 0, 0, 0, 0, 0, false, 0, null);
+    }
+}
@@ -0,0 +1,135 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+// Streaming top-K over a sliding window in fixed memory. The window is a ring of time slices, each with a
+// Count-Min Sketch for per-key counts and a Space-Saving style candidate set of at most topK keys: a new key only
+// displaces the weakest candidate once its estimate is higher. Reads merge the live slices, so counts cover the
+// last window give or take one slice.
+final class HeavyHitterTracker {
+
+    private final AtomicReferenceArray<Slice> slices;
+    private final long sliceNanos;
+    private final int topK;
+    private final int sketchWidth;
+    private final int sketchDepth;
+    private final LongSupplier nanoClock;
+
+    HeavyHitterTracker(HeavyHitterProperties properties, LongSupplier nanoClock) {
+        this.slices = new AtomicReferenceArray<>(properties.slices());
+        this.sliceNanos = Math.max(1L, properties.window().toNanos() / properties.slices());
+        this.topK = properties.topK();
+        this.sketchWidth = properties.sketchWidth();
+        this.sketchDepth = properties.sketchDepth();
+        this.nanoClock = nanoClock;
+    }
+
+    void record(String key) {
+        long epoch = Math.floorDiv(nanoClock.getAsLong(), sliceNanos);
+        Slice slice = current(epoch);
+        slice.offer(key, slice.sketch.addAndEstimate(CountMinSketch.hash(key)));
+    }
+
+    List<HeavyHitter> topOffenders(int limit) {
+        long now = nanoClock.getAsLong();
+        long epoch = Math.floorDiv(now, sliceNanos);
+        List<Slice> live = new ArrayList<>(slices.length());
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < slices.length(); i++) {
+            Slice slice = slices.get(i);
+            if (slice != null && epoch - slice.epoch < slices.length() && slice.epoch <= epoch) {
+                live.add(slice);
+                keys.addAll(slice.candidates.keySet());
+            }
+        }
+        // The current slice is only partly elapsed, so rates are taken over the time actually covered
+        double seconds = ((slices.length() - 1) * sliceNanos + (now - epoch * sliceNanos)) / 1e9;
+        List<HeavyHitter> hitters = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            long hash = CountMinSketch.hash(key);
+            long requests = 0;
+            for (Slice slice : live) {
+                requests += slice.sketch.estimate(hash);
+            }
+            hitters.add(new HeavyHitter(key, requests, requests / seconds));
+        }
+        hitters.sort(Comparator.comparingLong(HeavyHitter::requests).reversed());
+        return hitters.size() > limit ? List.copyOf(hitters.subList(0, limit)) : hitters;
+    }
+
+    private Slice current(long epoch) {
+        int index = (int) Math.floorMod(epoch, (long) slices.length());
+        Slice slice = slices.get(index);
+        while (slice == null || slice.epoch != epoch) {
+            // The slot still holds a slice from a previous turn of the ring; the first writer replaces it
+            Slice fresh = new Slice(epoch, new CountMinSketch(sketchWidth, sketchDepth), topK);
+            if (slices.compareAndSet(index, slice, fresh)) {
+                return fresh;
+            }
+            slice = slices.get(index);
+        }
+        return slice;
+    }
+
+    private static final class Slice {
+
+        private final long epoch;
+        private final CountMinSketch sketch;
+        private final int capacity;
+        private final Map<String, Long> candidates;
+        // Lower bound on the smallest candidate estimate; estimates only grow, so a stale value is still safe
+        private volatile long minimum;
+
+        private Slice(long epoch, CountMinSketch sketch, int capacity) {
+            this.epoch = epoch;
+            this.sketch = sketch;
+            this.capacity = capacity;
+            this.candidates = new ConcurrentHashMap<>(capacity * 2);
+        }
+
+        private void offer(String key, long estimate) {
+            if (candidates.replace(key, estimate) != null) {
+                return;
+            }
+            // Most keys are light and stop here without taking the lock
+            if (estimate <= minimum && candidates.size() >= capacity) {
+                return;
+            }
+            synchronized (this) {
+                if (candidates.size() < capacity) {
+                    candidates.put(key, estimate);
+                } else {
+                    String weakest = null;
+                    long weakestEstimate = Long.MAX_VALUE;
+                    for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                        if (candidate.getValue() < weakestEstimate) {
+                            weakest = candidate.getKey();
+                            weakestEstimate = candidate.getValue();
+                        }
+                    }
+                    if (estimate <= weakestEstimate) {
+                        minimum = weakestEstimate;
+                        return;
+                    }
+                    candidates.remove(weakest);
+                    candidates.put(key, estimate);
+                }
+                if (candidates.size() >= capacity) {
+                    long smallest = Long.MAX_VALUE;
+                    for (long value : candidates.values()) {
+                        smallest = Math.min(smallest, value);
+                    }
+                    minimum = smallest;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Local-first limiter for multi-node deployments. Each node spends tokens from a lease borrowed from the shared
+// LeaseStore bucket and decides without waiting on Redis. Leases are topped up in batches in the background, on a
+// fixed interval and as soon as a lease runs low. A key seen for the first time gets one lease on credit, which is
+// charged to the shared bucket at the next reconciliation. Overshoot across N nodes is therefore bounded by about
+// N leases instead of N times the quota. Keys carrying a quota tier (see RateLimitTiers) lease against the tier's
+// limits instead of the route's.
+public class HybridRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+
+    private static final Logger log = LoggerFactory.getLogger(HybridRateLimiter.class);
+    private static final int RECONCILE_CONCURRENCY = 64;
+
+    private final LeaseStore leaseStore;
+    private final RateLimiterProperties.Hybrid properties;
+    private final LocalRateLimiter.Config defaultConfig;
+    private final RateLimitTiers tiers;
+    private final LeaseLimits[] tierLimits;
+    private final LongSupplier nanoClock;
+    private final long idleTimeoutNanos;
+    private final Map<String, RouteLeases> routes = new ConcurrentHashMap<>();
+    private final Queue<Lease> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private final AtomicBoolean urgentScheduled = new AtomicBoolean();
+    private Disposable reconciler;
+
+    public HybridRateLimiter(RateLimiterProperties properties, RateLimitTiers tiers, LeaseStore leaseStore,
+                             ConfigurationService configurationService) {
+        this(properties, tiers, leaseStore, configurationService, System::nanoTime);
+    }
+
+    HybridRateLimiter(RateLimiterProperties properties, RateLimitTiers tiers, LeaseStore leaseStore,
+                      ConfigurationService configurationService, LongSupplier nanoClock) {
+        super(LocalRateLimiter.Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.leaseStore = leaseStore;
+        this.properties = properties.hybrid();
+        this.defaultConfig = new LocalRateLimiter.Config()
+                .setReplenishRate(properties.local().replenishRate())
+                .setBurstCapacity(properties.local().burstCapacity())
+                .setRequestedTokens(properties.local().requestedTokens());
+        this.nanoClock = nanoClock;
+        this.idleTimeoutNanos = this.properties.idleTimeout().toNanos();
+        this.tiers = tiers;
+        this.tierLimits = new LeaseLimits[tiers.size()];
+        for (int i = 0; i < tierLimits.length; i++) {
+            RateLimiterProperties.Tier tier = tiers.tier(i);
+            tierLimits[i] = new LeaseLimits(tier.replenishRate(), tier.burstCapacity(), tier.requestedTokens(),
+                    this.properties.leaseFraction());
+        }
+    }
+
+    @PostConstruct
+    void startReconciliation() {
+        reconciler = Flux.interval(properties.reconcileInterval(), Schedulers.parallel())
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stopReconciliation() {
+        if (reconciler != null) {
+            reconciler.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        RouteLeases existing = routes.get(routeId);
+        RouteLeases route = existing != null
+                ? existing
+                : routes.computeIfAbsent(routeId, key -> new RouteLeases(key, limitsFor(key)));
+        Lease lease = route.leases.get(id);
+        if (lease == null) {
+            int tier = tiers.indexOf(id);
+            LeaseLimits fixed = tier < 0 ? null : tierLimits[tier];
+            lease = route.leases.computeIfAbsent(id, key -> newLease(route, key, fixed));
+        }
+        LeaseLimits limits = lease.limits();
+        lease.touch(nanoClock.getAsLong());
+
+        while (true) {
+            long tokens = lease.tokens.get();
+            if (tokens < limits.requestedTokens) {
+                markPending(lease, true);
+                return limits.responses.get(false, tokens);
+            }
+            long remaining = tokens - limits.requestedTokens;
+            if (lease.tokens.compareAndSet(tokens, remaining)) {
+                if (remaining <= limits.lowWatermark) {
+                    markPending(lease, remaining < limits.requestedTokens);
+                }
+                return limits.responses.get(true, remaining);
+            }
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(FilterArgsEvent event) {
+        super.onApplicationEvent(event);
+        RouteLeases route = routes.get(event.getRouteId());
+        if (route != null) {
+            route.limits = limitsFor(event.getRouteId());
+        }
+    }
+
+    // Tops up every pending lease in one pipelined batch; overlapping calls are skipped
+    Mono<Void> reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        urgentScheduled.set(false);
+        List<Lease> batch = new ArrayList<>();
+        for (Lease lease = pending.poll(); lease != null; lease = pending.poll()) {
+            batch.add(lease);
+        }
+        evictIdle();
+        AtomicInteger failures = new AtomicInteger();
+        return Flux.fromIterable(batch)
+                .flatMap(lease -> topUp(lease, failures), RECONCILE_CONCURRENCY)
+                .then()
+                .doOnSuccess(done -> {
+                    if (failures.get() > 0) {
+                        log.warn("Failed to reconcile {} of {} rate limit leases; nodes keep spending local leases",
+                                failures.get(), batch.size());
+                    }
+                })
+                .doFinally(signal -> reconciling.set(false));
+    }
+
+    int leaseCount() {
+        return routes.values().stream().mapToInt(route -> route.leases.size()).sum();
+    }
+
+    private Mono<Void> topUp(Lease lease, AtomicInteger failures) {
+        LeaseLimits limits = lease.limits();
+        long owed = lease.owed.getAndSet(0L);
+        long wanted = owed + (lease.tokens.get() <= limits.lowWatermark ? limits.leaseSize : 0L);
+        if (wanted == 0L) {
+            lease.pending.set(false);
+            return Mono.empty();
+        }
+        return leaseStore.acquire(lease.storeKey, limits.replenishRate, limits.burstCapacity, wanted)
+                .doOnNext(granted -> {
+                    // Tokens spent on credit are paid back first; a shortfall is taken from the local balance
+                    lease.tokens.addAndGet(granted - owed);
+                    lease.pending.set(false);
+                })
+                .onErrorResume(e -> {
+                    lease.owed.addAndGet(owed);
+                    lease.pending.set(false);
+                    markPending(lease, false);
+                    failures.incrementAndGet();
+                    log.debug("Failed to reconcile rate limit lease for {}: {}", lease.storeKey, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // The credit handed to a new key is queued right away so it is charged to the shared bucket
+    private Lease newLease(RouteLeases route, String id, LeaseLimits tierLimits) {
+        Lease lease = new Lease(route, id, tierLimits);
+        lease.pending.set(true);
+        pending.add(lease);
+        return lease;
+    }
+
+    private void markPending(Lease lease, boolean urgent) {
+        if (lease.pending.compareAndSet(false, true)) {
+            pending.add(lease);
+        }
+        if (urgent && reconciler != null && urgentScheduled.compareAndSet(false, true)) {
+            Schedulers.parallel().schedule(() -> reconcile().subscribe());
+        }
+    }
+
+    private void evictIdle() {
+        long now = nanoClock.getAsLong();
+        for (RouteLeases route : routes.values()) {
+            route.leases.values().removeIf(lease -> !lease.pending.get() && now - lease.lastUsed > idleTimeoutNanos);
+        }
+    }
+
+    private LeaseLimits limitsFor(String routeId) {
+        LocalRateLimiter.Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        return new LeaseLimits(config.getReplenishRate(), config.getBurstCapacity(), config.getRequestedTokens(),
+                properties.leaseFraction());
+    }
+
+    private static final class RouteLeases {
+
+        private final String routeId;
+        private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+        private volatile LeaseLimits limits;
+
+        RouteLeases(String routeId, LeaseLimits limits) {
+            this.routeId = routeId;
+            this.limits = limits;
+        }
+    }
+
+    private static final class Lease {
+
+        private static final long TOUCH_GRANULARITY_NANOS = 1_000_000_000L;
+
+        private final RouteLeases route;
+        private final LeaseLimits tierLimits;
+        private final String storeKey;
+        private final AtomicLong tokens;
+        private final AtomicLong owed;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private volatile long lastUsed;
+
+        Lease(RouteLeases route, String id, LeaseLimits tierLimits) {
+            this.route = route;
+            this.tierLimits = tierLimits;
+            this.storeKey = route.routeId + ":" + id;
+            long credit = limits().leaseSize;
+            this.tokens = new AtomicLong(credit);
+            this.owed = new AtomicLong(credit);
+        }
+
+        LeaseLimits limits() {
+            return tierLimits != null ? tierLimits : route.limits;
+        }
+
+        // Idle tracking only needs second precision, so hot keys skip the shared write most of the time
+        void touch(long now) {
+            if (now - lastUsed > TOUCH_GRANULARITY_NANOS) {
+                lastUsed = now;
+            }
+        }
+    }
+
+    private static final class LeaseLimits {
+
+        private final int replenishRate;
+        private final int burstCapacity;
+        private final int requestedTokens;
+        private final long leaseSize;
+        private final long lowWatermark;
+        private final RateLimitResponses responses;
+
+        LeaseLimits(int replenishRate, int burstCapacity, int requestedTokens, double leaseFraction) {
+            if (replenishRate <= 0) {
+                throw new IllegalArgumentException("Hybrid rate limiter replenish rate must be positive");
+            }
+            this.replenishRate = replenishRate;
+            this.burstCapacity = Math.max(0, burstCapacity);
+            this.requestedTokens = Math.max(1, requestedTokens);
+            this.leaseSize = Math.min(this.burstCapacity,
+                    Math.max(this.requestedTokens, Math.round(this.burstCapacity * leaseFraction)));
+            this.lowWatermark = leaseSize / 2;
+            this.responses = new RateLimitResponses(replenishRate, burstCapacity, requestedTokens, 2 * leaseSize);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+// Cluster-wide token bucket that gateway nodes borrow token leases from
+public interface LeaseStore {
+
+    // Takes up to requested tokens from the shared bucket for key and emits how many were granted
+    Mono<Long> acquire(String key, int replenishRate, int burstCapacity, long requested);
+}
@@ -0,0 +1,212 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// In-process token bucket using GCRA: each key is a single AtomicLong holding its theoretical arrival time (TAT)
+// in nanos and is updated with CAS, so a check takes no lock and allocates nothing. Keys carrying a quota tier
+// (see RateLimitTiers) use the tier's limits instead of the route's.
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    private static final Logger log = LoggerFactory.getLogger(LocalRateLimiter.class);
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Config defaultConfig;
+    private final long idleTimeoutNanos;
+    private final RateLimiterProperties.Local properties;
+    private final RateLimitTiers tiers;
+    private final Limits[] tierLimits;
+    private final LongSupplier nanoClock;
+    private final Map<String, RouteBuckets> routes = new ConcurrentHashMap<>();
+    private Disposable evictor;
+
+    public LocalRateLimiter(RateLimiterProperties.Local properties, ConfigurationService configurationService) {
+        this(properties, RateLimitTiers.none(), configurationService);
+    }
+
+    public LocalRateLimiter(RateLimiterProperties.Local properties, RateLimitTiers tiers,
+                            ConfigurationService configurationService) {
+        this(properties, tiers, configurationService, System::nanoTime);
+    }
+
+    LocalRateLimiter(RateLimiterProperties.Local properties, RateLimitTiers tiers,
+                     ConfigurationService configurationService, LongSupplier nanoClock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.properties = properties;
+        this.tiers = tiers;
+        this.tierLimits = new Limits[tiers.size()];
+        for (int i = 0; i < tierLimits.length; i++) {
+            RateLimiterProperties.Tier tier = tiers.tier(i);
+            tierLimits[i] = new Limits(tier.replenishRate(), tier.burstCapacity(), tier.requestedTokens());
+        }
+        this.defaultConfig = new Config()
+                .setReplenishRate(properties.replenishRate())
+                .setBurstCapacity(properties.burstCapacity())
+                .setRequestedTokens(properties.requestedTokens());
+        this.idleTimeoutNanos = properties.idleTimeout().toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @PostConstruct
+    void startEviction() {
+        evictor = Flux.interval(properties.evictionInterval(), Schedulers.parallel())
+                .subscribe(tick -> evictIdle());
+    }
+
+    @PreDestroy
+    void stopEviction() {
+        if (evictor != null) {
+            evictor.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        RouteBuckets route = routes.get(routeId);
+        if (route == null) {
+            route = routes.computeIfAbsent(routeId, key -> new RouteBuckets(limitsFor(key)));
+        }
+        int tier = tiers.indexOf(id);
+        return route.tryAcquire(id, tier < 0 ? route.limits : tierLimits[tier], nanoClock.getAsLong());
+    }
+
+    // Route filter args are rebound on every route refresh; only the limits are swapped so buckets survive
+    @Override
+    public void onApplicationEvent(FilterArgsEvent event) {
+        super.onApplicationEvent(event);
+        RouteBuckets route = routes.get(event.getRouteId());
+        if (route != null) {
+            route.limits = limitsFor(event.getRouteId());
+        }
+    }
+
+    // A bucket whose TAT lies further in the past than the idle timeout is full, so dropping it loses nothing
+    void evictIdle() {
+        long now = nanoClock.getAsLong();
+        int evicted = 0;
+        for (RouteBuckets route : routes.values()) {
+            int before = route.buckets.size();
+            route.buckets.values().removeIf(tat -> now - tat.get() > idleTimeoutNanos);
+            evicted += before - route.buckets.size();
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    int bucketCount() {
+        return routes.values().stream().mapToInt(route -> route.buckets.size()).sum();
+    }
+
+    private Limits limitsFor(String routeId) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        return new Limits(config.getReplenishRate(), config.getBurstCapacity(), config.getRequestedTokens());
+    }
+
+    public static class Config {
+
+        private int replenishRate;
+        private int burstCapacity = 1;
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Config{replenishRate=" + replenishRate + ", burstCapacity=" + burstCapacity
+                    + ", requestedTokens=" + requestedTokens + "}";
+        }
+    }
+
+    private static final class RouteBuckets {
+
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private volatile Limits limits;
+
+        RouteBuckets(Limits limits) {
+            this.limits = limits;
+        }
+
+        Mono<Response> tryAcquire(String id, Limits current, long now) {
+            AtomicLong tat = buckets.get(id);
+            if (tat == null) {
+                tat = buckets.computeIfAbsent(id, key -> new AtomicLong(now));
+            }
+            while (true) {
+                long previous = tat.get();
+                // An empty history (TAT in the past) means a full bucket
+                long base = now - previous > 0 ? now : previous;
+                long debt = base + current.costNanos - now;
+                if (debt > current.capacityNanos) {
+                    return current.response(false, (current.capacityNanos - (base - now)) / current.emissionNanos);
+                }
+                if (tat.compareAndSet(previous, base + current.costNanos)) {
+                    return current.response(true, (current.capacityNanos - debt) / current.emissionNanos);
+                }
+            }
+        }
+    }
+
+    private static final class Limits {
+
+        private final long emissionNanos;
+        private final long capacityNanos;
+        private final long costNanos;
+        private final RateLimitResponses responses;
+
+        Limits(int replenishRate, int burstCapacity, int requestedTokens) {
+            if (replenishRate <= 0) {
+                throw new IllegalArgumentException("Local rate limiter replenish rate must be positive");
+            }
+            this.emissionNanos = Math.max(1L, NANOS_PER_SECOND / replenishRate);
+            this.capacityNanos = Math.max(0, burstCapacity) * emissionNanos;
+            this.costNanos = Math.max(1, requestedTokens) * emissionNanos;
+            this.responses = new RateLimitResponses(replenishRate, burstCapacity, requestedTokens, burstCapacity);
+        }
+
+        Mono<Response> response(boolean isAllowed, long remaining) {
+            return responses.get(isAllowed, remaining);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skydiveforecast.infrastructure.network.ClientIpResolver;
+import com.skydiveforecast.infrastructure.security.AuthenticatedPrincipal;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Keys authenticated requests on the user verified by JwtAuthenticationFilter, prefixed with the quota tier from
+// its roles; anonymous requests fall back to the client IP. Keys are built once per cached principal: entries are
+// weak and compared by identity, so they live as long as JwtService keeps the principal for its token.
+public class PrincipalKeyResolver implements KeyResolver {
+
+    private static final int MAX_CACHED_KEYS = 100_000;
+
+    private final RateLimitTiers tiers;
+    private final ClientIpResolver clientIpResolver;
+    private final Cache<AuthenticatedPrincipal, String> keys = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(MAX_CACHED_KEYS)
+            .build();
+
+    public PrincipalKeyResolver(RateLimitTiers tiers, ClientIpResolver clientIpResolver) {
+        this.tiers = tiers;
+        this.clientIpResolver = clientIpResolver;
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        AuthenticatedPrincipal principal = exchange.getAttribute(AuthenticatedPrincipal.EXCHANGE_ATTRIBUTE);
+        if (principal == null) {
+            return Mono.just(clientIpResolver.resolve(exchange));
+        }
+        return Mono.just(keys.get(principal, this::keyFor));
+    }
+
+    private String keyFor(AuthenticatedPrincipal principal) {
+        return tiers.key(tiers.indexFor(principal.roles()), identity(principal));
+    }
+
+    public static String identity(AuthenticatedPrincipal principal) {
+        return principal.userId() != null ? "user:" + principal.userId() : "subject:" + principal.subject();
+    }
+}
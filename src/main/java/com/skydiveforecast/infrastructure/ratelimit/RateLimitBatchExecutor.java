@@ -0,0 +1,15 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Runs a batch of RedisRateLimiter token bucket checks in one round trip. The result holds an allowed (1/0) and
+// tokens-left pair per check, in batch order.
+public interface RateLimitBatchExecutor {
+
+    Mono<List<Long>> execute(List<Check> checks);
+
+    record Check(String routeId, String id, int replenishRate, int burstCapacity, int requestedTokens) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Limiter decisions with the same X-RateLimit-* headers as RedisRateLimiter, pre-built for every remaining-token
+// count up to a cap so the request path hands out a shared Mono instead of building a map per check
+final class RateLimitResponses {
+
+    private static final int MAX_PRECOMPUTED_RESPONSES = 4096;
+
+    private final String replenishRate;
+    private final String burstCapacity;
+    private final String requestedTokens;
+    private final Mono<RateLimiter.Response>[] allowed;
+    private final Mono<RateLimiter.Response>[] denied;
+
+    @SuppressWarnings("unchecked")
+    RateLimitResponses(int replenishRate, int burstCapacity, int requestedTokens, long maxRemaining) {
+        this.replenishRate = String.valueOf(replenishRate);
+        this.burstCapacity = String.valueOf(burstCapacity);
+        this.requestedTokens = String.valueOf(requestedTokens);
+        int precomputed = (int) Math.min(Math.max(0L, maxRemaining), MAX_PRECOMPUTED_RESPONSES) + 1;
+        this.allowed = new Mono[precomputed];
+        this.denied = new Mono[precomputed];
+        for (int remaining = 0; remaining < precomputed; remaining++) {
+            allowed[remaining] = Mono.just(create(true, remaining));
+            denied[remaining] = Mono.just(create(false, remaining));
+        }
+    }
+
+    Mono<RateLimiter.Response> get(boolean isAllowed, long remaining) {
+        long tokens = Math.max(0L, remaining);
+        Mono<RateLimiter.Response>[] responses = isAllowed ? allowed : denied;
+        return tokens < responses.length ? responses[(int) tokens] : Mono.just(create(isAllowed, tokens));
+    }
+
+    private RateLimiter.Response create(boolean isAllowed, long remaining) {
+        return new RateLimiter.Response(isAllowed, Map.of(
+                RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining),
+                RedisRateLimiter.REPLENISH_RATE_HEADER, replenishRate,
+                RedisRateLimiter.BURST_CAPACITY_HEADER, burstCapacity,
+                RedisRateLimiter.REQUESTED_TOKENS_HEADER, requestedTokens));
+    }
+}
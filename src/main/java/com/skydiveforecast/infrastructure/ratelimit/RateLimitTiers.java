@@ -0,0 +1,89 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Quota tiers travel inside the rate limit key as "<tier>@<id>", because RateLimiter.isAllowed only sees the key.
+// Limiters find the tier with one prefix comparison per configured tier; IP keys never contain '@'.
+public final class RateLimitTiers {
+
+    static final char SEPARATOR = '@';
+
+    private static final RateLimitTiers NONE = new RateLimitTiers(Map.of());
+
+    private final String[] names;
+    private final RateLimiterProperties.Tier[] tiers;
+    private final Map<String, Integer> tierByRole = new HashMap<>();
+
+    public RateLimitTiers(Map<String, RateLimiterProperties.Tier> tiers) {
+        this.names = new String[tiers.size()];
+        this.tiers = new RateLimiterProperties.Tier[tiers.size()];
+        int index = 0;
+        for (Map.Entry<String, RateLimiterProperties.Tier> entry : tiers.entrySet()) {
+            String name = entry.getKey();
+            RateLimiterProperties.Tier tier = entry.getValue();
+            if (name.isEmpty() || name.indexOf(SEPARATOR) >= 0) {
+                throw new IllegalArgumentException("Invalid rate limit tier name: " + name);
+            }
+            if (tier.replenishRate() <= 0) {
+                throw new IllegalArgumentException("Rate limit tier " + name + " needs a positive replenish rate");
+            }
+            names[index] = name;
+            this.tiers[index] = tier;
+            for (String role : tier.roles()) {
+                tierByRole.putIfAbsent(role, index);
+            }
+            index++;
+        }
+    }
+
+    public static RateLimitTiers none() {
+        return NONE;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public RateLimiterProperties.Tier tier(int index) {
+        return tiers[index];
+    }
+
+    // Index of the first declared tier granted by any of the roles, or -1
+    public int indexFor(List<String> roles) {
+        int best = -1;
+        for (String role : roles) {
+            Integer index = tierByRole.get(role);
+            if (index != null && (best < 0 || index < best)) {
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    public String key(int index, String id) {
+        return index < 0 ? id : names[index] + SEPARATOR + id;
+    }
+
+    // Tier encoded in a rate limit key, or -1 for untiered keys
+    public int indexOf(String key) {
+        if (names.length == 0) {
+            return -1;
+        }
+        int separator = key.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            return -1;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].length() == separator && key.regionMatches(0, names[i], 0, separator)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
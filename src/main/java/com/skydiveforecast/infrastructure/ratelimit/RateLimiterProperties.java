@@ -0,0 +1,151 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "gateway.rate-limiter")
+public record RateLimiterProperties(
+        Local local,
+        Hybrid hybrid,
+        Map<String, Tier> tiers,
+        Batching batching,
+        Fallback fallback) {
+
+    public RateLimiterProperties(Local local, Hybrid hybrid) {
+        this(local, hybrid, null, null, null);
+    }
+
+    public RateLimiterProperties {
+        if (local == null) {
+            local = new Local(0, 0, 0, null, null);
+        }
+        if (hybrid == null) {
+            hybrid = new Hybrid(null, 0, null);
+        }
+        if (tiers == null) {
+            tiers = Map.of();
+        }
+        if (batching == null) {
+            batching = new Batching(false, null, 0);
+        }
+        if (fallback == null) {
+            fallback = new Fallback(true, null, null, 0, 0, null, null, 0);
+        }
+    }
+
+    // Defaults for routes that use the in-process limiter without local-rate-limiter.* filter args
+    public record Local(
+            int replenishRate,
+            int burstCapacity,
+            int requestedTokens,
+            Duration idleTimeout,
+            Duration evictionInterval) {
+        public Local {
+            if (replenishRate <= 0) {
+                replenishRate = 10;
+            }
+            if (burstCapacity <= 0) {
+                burstCapacity = 2 * replenishRate;
+            }
+            if (requestedTokens <= 0) {
+                requestedTokens = 1;
+            }
+            if (idleTimeout == null || idleTimeout.isNegative() || idleTimeout.isZero()) {
+                idleTimeout = Duration.ofMinutes(10);
+            }
+            if (evictionInterval == null || evictionInterval.isNegative() || evictionInterval.isZero()) {
+                evictionInterval = Duration.ofMinutes(1);
+            }
+        }
+    }
+
+    // Routes on the hybrid limiter use the local defaults above for rate, burst and requested tokens
+    public record Hybrid(
+            Duration reconcileInterval,
+            double leaseFraction,
+            Duration idleTimeout) {
+        public Hybrid {
+            if (reconcileInterval == null || reconcileInterval.isNegative() || reconcileInterval.isZero()) {
+                reconcileInterval = Duration.ofMillis(50);
+            }
+            if (leaseFraction <= 0 || leaseFraction > 1) {
+                leaseFraction = 0.1;
+            }
+            if (idleTimeout == null || idleTimeout.isNegative() || idleTimeout.isZero()) {
+                idleTimeout = Duration.ofMinutes(10);
+            }
+        }
+    }
+
+    // Quota tier picked from the JWT roles by userKeyResolver; the first declared tier holding one of the roles wins
+    public record Tier(
+            List<String> roles,
+            int replenishRate,
+            int burstCapacity,
+            int requestedTokens) {
+        public Tier {
+            roles = roles == null ? List.of() : List.copyOf(roles);
+            if (burstCapacity <= 0) {
+                burstCapacity = 2 * replenishRate;
+            }
+            if (requestedTokens <= 0) {
+                requestedTokens = 1;
+            }
+        }
+    }
+
+    // Replaces the gateway's RedisRateLimiter with BatchingRedisRateLimiter; a zero window disables batching
+    public record Batching(
+            boolean enabled,
+            Duration window,
+            int maxBatchSize) {
+        public Batching {
+            if (window == null || window.isNegative()) {
+                window = Duration.ofMillis(1);
+            }
+            if (maxBatchSize <= 0) {
+                maxBatchSize = 128;
+            }
+        }
+    }
+
+    // Health thresholds for ResilientRateLimiter, which serves the RedisRateLimiter route limits from memory while
+    // Redis is failing or slow
+    public record Fallback(
+            @DefaultValue("true") boolean enabled,
+            Duration callTimeout,
+            Duration slowCallThreshold,
+            double failureRateThreshold,
+            int minimumCalls,
+            Duration window,
+            Duration probeInterval,
+            int probeSuccesses) {
+        public Fallback {
+            if (callTimeout == null || callTimeout.isNegative() || callTimeout.isZero()) {
+                callTimeout = Duration.ofMillis(250);
+            }
+            if (slowCallThreshold == null || slowCallThreshold.isNegative() || slowCallThreshold.isZero()) {
+                slowCallThreshold = Duration.ofMillis(100);
+            }
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+                failureRateThreshold = 0.5;
+            }
+            if (minimumCalls <= 0) {
+                minimumCalls = 20;
+            }
+            if (window == null || window.isNegative() || window.isZero()) {
+                window = Duration.ofSeconds(10);
+            }
+            if (probeInterval == null || probeInterval.isNegative() || probeInterval.isZero()) {
+                probeInterval = Duration.ofSeconds(5);
+            }
+            if (probeSuccesses <= 0) {
+                probeSuccesses = 3;
+            }
+        }
+    }
+}
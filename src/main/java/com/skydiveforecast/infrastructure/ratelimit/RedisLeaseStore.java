@@ -0,0 +1,32 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+public class RedisLeaseStore implements LeaseStore {
+
+    private static final RedisScript<Long> LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/rate_limit_lease.lua"), Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisLeaseStore(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<Long> acquire(String key, int replenishRate, int burstCapacity, long requested) {
+        // Hash tag keeps both keys of a bucket in the same cluster slot
+        String prefix = "gateway_rate_lease.{" + key + "}";
+        return redisTemplate.execute(LEASE_SCRIPT, List.of(prefix + ".tokens", prefix + ".timestamp"),
+                        List.of(String.valueOf(replenishRate), String.valueOf(burstCapacity), String.valueOf(requested)))
+                .next()
+                .defaultIfEmpty(0L);
+    }
+}
@@ -0,0 +1,50 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Uses RedisRateLimiter's key layout, so batched and unbatched gateway nodes share the same buckets. A batch touches
+// keys in many hash slots and therefore needs standalone or sentinel Redis; RateLimiterConfig refuses Redis Cluster.
+@Component
+public class RedisRateLimitBatchExecutor implements RateLimitBatchExecutor {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> BATCH_SCRIPT = (RedisScript) RedisScript.of(
+            new ClassPathResource("scripts/request_rate_limiter_batch.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisRateLimitBatchExecutor(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<List<Long>> execute(List<Check> checks) {
+        List<String> keys = new ArrayList<>(checks.size() * 2);
+        List<String> args = new ArrayList<>(checks.size() * 3);
+        for (Check check : checks) {
+            keys.addAll(bucketKeys(check.routeId(), check.id()));
+            args.add(String.valueOf(check.replenishRate()));
+            args.add(String.valueOf(check.burstCapacity()));
+            args.add(String.valueOf(check.requestedTokens()));
+        }
+        return redisTemplate.execute(BATCH_SCRIPT, keys, args)
+                .<List<Long>>reduce(new ArrayList<>(checks.size() * 2), (results, chunk) -> {
+                    results.addAll(chunk);
+                    return results;
+                });
+    }
+
+    // Same names as RedisRateLimiter.getKeys, which is not public: one bucket per route and key. The braces are a hash
+    // tag that keeps both keys of one bucket in the same slot.
+    static List<String> bucketKeys(String routeId, String id) {
+        String prefix = "request_rate_limiter.{" + routeId + "." + id;
+        return List.of(prefix + "}.tokens", prefix + "}.timestamp");
+    }
+}
@@ -0,0 +1,231 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+// Health-aware front for RedisRateLimiter. Calls are bounded by a timeout and their outcomes tracked in a sliding
+// window; once too many are slow or failing, checks are served from an in-process LocalRateLimiter holding the same
+// route limits. Each node then enforces the whole limit on its own, so the cluster-wide limit becomes approximate.
+// While degraded, one request per probe interval is sent to Redis, and a run of healthy probes switches back.
+public class ResilientRateLimiter extends AbstractRateLimiter<RedisRateLimiter.Config> {
+
+    enum Mode {
+        REDIS, LOCAL
+    }
+
+    private enum Outcome {
+        SUCCESS, SLOW, ERROR, TIMEOUT
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientRateLimiter.class);
+
+    private final RedisRateLimiter redisRateLimiter;
+    private final LocalRateLimiter fallback;
+    private final RateLimiterProperties.Fallback properties;
+    private final LongSupplier nanoClock;
+    private final long slowCallNanos;
+    private final long probeIntervalNanos;
+    private final CallWindow window;
+    private final AtomicReference<Mode> mode = new AtomicReference<>(Mode.REDIS);
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private final AtomicInteger healthyProbes = new AtomicInteger();
+    private volatile long nextProbeAt;
+    private final Timer[] redisCalls;
+    private final Counter[] modeSwitches;
+
+    public ResilientRateLimiter(RateLimiterProperties properties, RedisRateLimiter redisRateLimiter,
+                                ConfigurationService configurationService, MeterRegistry meterRegistry) {
+        this(properties, redisRateLimiter, configurationService, meterRegistry, System::nanoTime);
+    }
+
+    ResilientRateLimiter(RateLimiterProperties properties, RedisRateLimiter redisRateLimiter,
+                         ConfigurationService configurationService, MeterRegistry meterRegistry,
+                         LongSupplier nanoClock) {
+        super(RedisRateLimiter.Config.class, RedisRateLimiter.CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisRateLimiter = redisRateLimiter;
+        // Tiers stay off in degraded mode so the fallback applies the same limits RedisRateLimiter would
+        this.fallback = new LocalRateLimiter(properties.local(), RateLimitTiers.none(), null, nanoClock);
+        this.properties = properties.fallback();
+        this.nanoClock = nanoClock;
+        this.slowCallNanos = this.properties.slowCallThreshold().toNanos();
+        this.probeIntervalNanos = this.properties.probeInterval().toNanos();
+        this.window = new CallWindow(this.properties.window().toNanos());
+
+        Outcome[] outcomes = Outcome.values();
+        this.redisCalls = new Timer[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            redisCalls[outcome.ordinal()] = Timer.builder("gateway.ratelimit.redis.calls")
+                    .description("Rate limit calls to Redis by outcome")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        Mode[] modes = Mode.values();
+        this.modeSwitches = new Counter[modes.length];
+        for (Mode target : modes) {
+            modeSwitches[target.ordinal()] = Counter.builder("gateway.ratelimit.mode.switches")
+                    .description("Rate limiter switches between Redis and in-process limiting")
+                    .tag("to", target.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("gateway.ratelimit.degraded", mode, current -> current.get() == Mode.LOCAL ? 1 : 0)
+                .description("1 while rate limits are enforced in-process because Redis is unhealthy")
+                .register(meterRegistry);
+    }
+
+    // The fallback is not a bean of its own, so its idle bucket eviction follows this limiter's lifecycle
+    @PostConstruct
+    void startEviction() {
+        fallback.startEviction();
+    }
+
+    @PreDestroy
+    void stopEviction() {
+        fallback.stopEviction();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        if (mode.get() == Mode.LOCAL) {
+            if (!tryStartProbe()) {
+                return local(routeId, id);
+            }
+            return callRedis(routeId, id, true);
+        }
+        return callRedis(routeId, id, false);
+    }
+
+    // Keeps the fallback's cached limits in step with route refreshes
+    @Override
+    public void onApplicationEvent(FilterArgsEvent event) {
+        super.onApplicationEvent(event);
+        RedisRateLimiter.Config config = getConfig().get(event.getRouteId());
+        if (config != null) {
+            fallback.getConfig().put(event.getRouteId(), toLocal(config));
+            fallback.onApplicationEvent(event);
+        }
+    }
+
+    Mode mode() {
+        return mode.get();
+    }
+
+    int fallbackBucketCount() {
+        return fallback.bucketCount();
+    }
+
+    private Mono<Response> callRedis(String routeId, String id, boolean probe) {
+        long start = System.nanoTime();
+        // Deferred so a limiter that throws instead of erroring still ends up in onErrorResume and doFinally
+        return Mono.defer(() -> redisRateLimiter.isAllowed(routeId, id))
+                .timeout(properties.callTimeout())
+                .flatMap(response -> {
+                    // RedisRateLimiter fails open and reports -1 remaining tokens when its script call fails
+                    if ("-1".equals(response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER))) {
+                        record(Outcome.ERROR, start, probe);
+                        return local(routeId, id);
+                    }
+                    record(System.nanoTime() - start > slowCallNanos ? Outcome.SLOW : Outcome.SUCCESS, start, probe);
+                    return Mono.just(response);
+                })
+                .onErrorResume(e -> {
+                    record(e instanceof TimeoutException ? Outcome.TIMEOUT : Outcome.ERROR, start, probe);
+                    return local(routeId, id);
+                })
+                .doFinally(signal -> {
+                    if (probe) {
+                        probeInFlight.set(false);
+                    }
+                });
+    }
+
+    private void record(Outcome outcome, long start, boolean probe) {
+        redisCalls[outcome.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        boolean healthy = outcome == Outcome.SUCCESS;
+        long now = nanoClock.getAsLong();
+        if (probe) {
+            if (!healthy) {
+                healthyProbes.set(0);
+                nextProbeAt = now + probeIntervalNanos;
+            } else if (healthyProbes.incrementAndGet() >= properties.probeSuccesses()) {
+                switchTo(Mode.REDIS, "Redis answered " + properties.probeSuccesses() + " probes in time");
+            }
+            return;
+        }
+        if (mode.get() != Mode.REDIS) {
+            return;
+        }
+        window.record(now, !healthy);
+        if (!healthy && window.exceeds(now, properties.minimumCalls(), properties.failureRateThreshold())) {
+            switchTo(Mode.LOCAL, "too many slow or failed Redis calls");
+        }
+    }
+
+    private boolean tryStartProbe() {
+        return nanoClock.getAsLong() - nextProbeAt >= 0 && probeInFlight.compareAndSet(false, true);
+    }
+
+    private void switchTo(Mode target, String reason) {
+        Mode previous = target == Mode.LOCAL ? Mode.REDIS : Mode.LOCAL;
+        if (!mode.compareAndSet(previous, target)) {
+            return;
+        }
+        modeSwitches[target.ordinal()].increment();
+        if (target == Mode.LOCAL) {
+            healthyProbes.set(0);
+            nextProbeAt = nanoClock.getAsLong() + probeIntervalNanos;
+            log.warn("Rate limiting switched to in-process limits: {}", reason);
+        } else {
+            window.reset();
+            log.info("Rate limiting switched back to Redis: {}", reason);
+        }
+    }
+
+    private Mono<Response> local(String routeId, String id) {
+        if (!fallback.getConfig().containsKey(routeId)) {
+            RedisRateLimiter.Config config = routeConfig(routeId);
+            if (config != null) {
+                fallback.getConfig().putIfAbsent(routeId, toLocal(config));
+            }
+        }
+        return fallback.isAllowed(routeId, id);
+    }
+
+    private RedisRateLimiter.Config routeConfig(String routeId) {
+        RedisRateLimiter.Config config = getConfig().get(routeId);
+        if (config == null) {
+            config = redisRateLimiter.getConfig().get(routeId);
+        }
+        if (config == null) {
+            config = redisRateLimiter.getConfig().get(RouteDefinitionRouteLocator.DEFAULT_FILTERS);
+        }
+        return config;
+    }
+
+    private static LocalRateLimiter.Config toLocal(RedisRateLimiter.Config config) {
+        return new LocalRateLimiter.Config()
+                .setReplenishRate(config.getReplenishRate())
+                .setBurstCapacity(config.getBurstCapacity())
+                .setRequestedTokens(config.getRequestedTokens());
+    }
+}
@@ -0,0 +1,27 @@
+package com.skydiveforecast.infrastructure.security;
+
+import java.time.Instant;
+import java.util.List;
+
+public record AuthenticatedPrincipal(
+        String subject,
+        Long userId,
+        List<String> roles,
+        List<String> permissions,
+        Instant expiresAt,
+        String tokenId,
+        Instant issuedAt) {
+
+    // Set by JwtAuthenticationFilter once the token is verified, for filters that key on the caller
+    public static final String EXCHANGE_ATTRIBUTE = AuthenticatedPrincipal.class.getName();
+
+    public AuthenticatedPrincipal {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+        permissions = permissions == null ? List.of() : List.copyOf(permissions);
+    }
+
+    public AuthenticatedPrincipal(String subject, Long userId, List<String> roles, List<String> permissions,
+                                  Instant expiresAt) {
+        this(subject, userId, roles, permissions, expiresAt, null, null);
+    }
+}
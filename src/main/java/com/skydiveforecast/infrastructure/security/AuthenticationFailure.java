@@ -0,0 +1,52 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public enum AuthenticationFailure {
+
+    MISSING_TOKEN(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header", false),
+    INVALID_FORMAT(HttpStatus.UNAUTHORIZED, "Invalid JWT token format", true),
+    MALFORMED(HttpStatus.UNAUTHORIZED, "Malformed JWT token", true),
+    EXPIRED(HttpStatus.UNAUTHORIZED, "Invalid or expired JWT token", false),
+    NOT_YET_VALID(HttpStatus.UNAUTHORIZED, "JWT token is not yet valid", false),
+    INVALID_SIGNATURE(HttpStatus.UNAUTHORIZED, "Invalid JWT token signature", true),
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "Invalid JWT token", true),
+    REVOKED(HttpStatus.UNAUTHORIZED, "JWT token has been revoked", false),
+    TOO_MANY_FAILURES(HttpStatus.TOO_MANY_REQUESTS, "Too many failed authentication attempts", false);
+
+    private final HttpStatus status;
+    private final String message;
+    private final boolean suspicious;
+    private final ByteBuffer body;
+
+    AuthenticationFailure(HttpStatus status, String message, boolean suspicious) {
+        this.status = status;
+        this.message = message;
+        this.suspicious = suspicious;
+        // Encoded once; every response wraps a read-only view instead of formatting and copying the body
+        String json = "{\"error\":\"" + status.getReasonPhrase() + "\",\"message\":\"" + message + "\"}";
+        this.body = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    public HttpStatus status() {
+        return status;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    // Failures that indicate forged or garbage tokens rather than an ordinary stale session
+    public boolean suspicious() {
+        return suspicious;
+    }
+
+    public DataBuffer body(DataBufferFactory bufferFactory) {
+        return bufferFactory.wrap(body.duplicate());
+    }
+}
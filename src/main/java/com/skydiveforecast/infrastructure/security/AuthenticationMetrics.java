@@ -0,0 +1,77 @@
+package com.skydiveforecast.infrastructure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Every meter is registered up front with a fixed tag set, so recording is a plain field access
+// with no tag building or registry lookup on the request path
+final class AuthenticationMetrics {
+
+    private final Counter[] rejections;
+    private final Counter authenticated;
+    private final Counter publicPathBypasses;
+    private final Timer verificationSuccess;
+    private final Timer verificationFailure;
+    private final DistributionSummary tokenAge;
+
+    AuthenticationMetrics(MeterRegistry meterRegistry) {
+        AuthenticationFailure[] failures = AuthenticationFailure.values();
+        this.rejections = new Counter[failures.length];
+        for (AuthenticationFailure failure : failures) {
+            rejections[failure.ordinal()] = Counter.builder("gateway.auth.rejections")
+                    .description("Requests rejected by JWT authentication")
+                    .tag("reason", failure.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        this.authenticated = Counter.builder("gateway.auth.authenticated")
+                .description("Requests that passed JWT authentication")
+                .register(meterRegistry);
+        this.publicPathBypasses = Counter.builder("gateway.auth.public.bypass")
+                .description("Requests to public paths that skipped JWT authentication")
+                .register(meterRegistry);
+        this.verificationSuccess = verificationTimer(meterRegistry, "success");
+        this.verificationFailure = verificationTimer(meterRegistry, "failure");
+        this.tokenAge = DistributionSummary.builder("gateway.auth.token.age")
+                .description("Time since the token was issued, measured when it is used")
+                .baseUnit("seconds")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) Duration.ofDays(1).toSeconds())
+                .register(meterRegistry);
+    }
+
+    void recordRejection(AuthenticationFailure failure) {
+        rejections[failure.ordinal()].increment();
+    }
+
+    void recordAuthenticated(AuthenticatedPrincipal principal, long nowMillis) {
+        authenticated.increment();
+        if (principal.issuedAt() != null) {
+            tokenAge.record(Math.max(0L, nowMillis - principal.issuedAt().toEpochMilli()) / 1000.0);
+        }
+    }
+
+    void recordPublicPathBypass() {
+        publicPathBypasses.increment();
+    }
+
+    void recordVerification(long nanos, boolean success) {
+        (success ? verificationSuccess : verificationFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("gateway.auth.verification")
+                .description("JWT signature verification time, excluding cache hits and pre-parse rejections")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.skydiveforecast.infrastructure.security;
+
+public record AuthenticationResult(
+        AuthenticatedPrincipal principal,
+        AuthenticationFailure failure) {
+
+    private static final AuthenticationResult[] FAILURES =
+            new AuthenticationResult[AuthenticationFailure.values().length];
+
+    static {
+        for (AuthenticationFailure failure : AuthenticationFailure.values()) {
+            FAILURES[failure.ordinal()] = new AuthenticationResult(null, failure);
+        }
+    }
+
+    public static AuthenticationResult success(AuthenticatedPrincipal principal) {
+        return new AuthenticationResult(principal, null);
+    }
+
+    public static AuthenticationResult failure(AuthenticationFailure failure) {
+        return FAILURES[failure.ordinal()];
+    }
+
+    public boolean authenticated() {
+        return principal != null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.skydiveforecast.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Counts suspicious authentication failures per client within a fixed window starting at the first failure
+final class ClientFailureTracker {
+
+    private static final long MAXIMUM_TRACKED_CLIENTS = 100000L;
+
+    private final Cache<String, AtomicInteger> failures;
+    private final int threshold;
+
+    ClientFailureTracker(JwtProperties.Rejection properties) {
+        this.threshold = properties.clientFailureThreshold();
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_TRACKED_CLIENTS)
+                .expireAfterWrite(properties.clientFailureWindow())
+                .build();
+    }
+
+    boolean isBlocked(String client) {
+        AtomicInteger count = failures.getIfPresent(client);
+        return count != null && count.get() >= threshold;
+    }
+
+    void recordFailure(String client) {
+        failures.get(client, key -> new AtomicInteger()).incrementAndGet();
+    }
+}
@@ -0,0 +1,137 @@
+package com.skydiveforecast.infrastructure.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+// Binary principal encoding signed with a truncated HMAC-SHA256: base64url(payload) "." base64url(mac).
+// Payload: version, expiry (epoch seconds), user id, subject, roles, permissions.
+public final class IdentityHeaderCodec {
+
+    private static final byte VERSION = 1;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 16;
+    private static final long NO_USER_ID = Long.MIN_VALUE;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+
+    public IdentityHeaderCodec(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("Identity header secret must not be blank");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(ALGORITHM + " is not available", e);
+            }
+        });
+    }
+
+    // Throws IllegalArgumentException when a claim is over 64 KB of modified UTF-8 or a list has more than 65,535
+    // entries, which the payload format cannot hold
+    public String encode(AuthenticatedPrincipal principal) {
+        byte[] payload = serialize(principal);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    public Optional<AuthenticatedPrincipal> decode(String value, Instant now) {
+        int dot = value == null ? -1 : value.indexOf('.');
+        if (dot <= 0 || dot == value.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = DECODER.decode(value.substring(0, dot));
+            byte[] signature = DECODER.decode(value.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            AuthenticatedPrincipal principal = deserialize(payload);
+            if (principal == null || principal.expiresAt() != null && now.isAfter(principal.expiresAt())) {
+                return Optional.empty();
+            }
+            return Optional.of(principal);
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return Arrays.copyOf(mac.get().doFinal(payload), MAC_LENGTH);
+    }
+
+    private static byte[] serialize(AuthenticatedPrincipal principal) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(principal.expiresAt() != null ? principal.expiresAt().getEpochSecond() : 0L);
+            out.writeLong(principal.userId() != null ? principal.userId() : NO_USER_ID);
+            out.writeUTF(principal.subject() != null ? principal.subject() : "");
+            writeList(out, principal.roles());
+            writeList(out, principal.permissions());
+        } catch (UTFDataFormatException e) {
+            throw new IllegalArgumentException("Identity claim is too long for the identity header", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static AuthenticatedPrincipal deserialize(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            long expiresAt = in.readLong();
+            long userId = in.readLong();
+            String subject = in.readUTF();
+            List<String> roles = readList(in);
+            List<String> permissions = readList(in);
+            return new AuthenticatedPrincipal(
+                    subject.isEmpty() ? null : subject,
+                    userId == NO_USER_ID ? null : userId,
+                    roles,
+                    permissions,
+                    expiresAt == 0L ? null : Instant.ofEpochSecond(expiresAt));
+        }
+    }
+
+    private static void writeList(DataOutputStream out, List<String> values) throws IOException {
+        if (values.size() > 0xFFFF) {
+            throw new IllegalArgumentException("Identity claim has too many entries for the identity header");
+        }
+        out.writeShort(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException {
+        int size = in.readUnsignedShort();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,89 @@
+package com.skydiveforecast.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.Locale;
+
+// Downstream identity header values, rendered once per verified principal. Keys are weak and compared by
+// identity, so an entry lives exactly as long as JwtService keeps the principal cached for its token.
+final class IdentityHeaders {
+
+    static final String EMAIL_HEADER = "X-User-Email";
+    static final String USER_ID_HEADER = "X-User-Id";
+    static final String PERMISSIONS_HEADER = "X-User-Permissions";
+    static final String ROLES_HEADER = "X-User-Roles";
+    private static final String USER_HEADER_PREFIX = "x-user-";
+
+    private final JwtProperties.IdentityHeader properties;
+    private final IdentityHeaderCodec codec;
+    private final Cache<AuthenticatedPrincipal, Values> rendered;
+
+    IdentityHeaders(JwtProperties jwtProperties) {
+        this.properties = jwtProperties.identityHeader();
+        this.codec = properties.compactEnabled()
+                ? new IdentityHeaderCodec(properties.secret())
+                : null;
+        this.rendered = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(jwtProperties.cache().maximumSize())
+                .build();
+    }
+
+    // Client-supplied identity headers are always removed, whichever modes are on, so downstream services only
+    // ever see values written here. Returns false when the principal cannot be rendered into the compact header.
+    boolean apply(ServerHttpRequest.Builder request, AuthenticatedPrincipal principal) {
+        request.headers(this::remove);
+        Values values;
+        try {
+            values = rendered.get(principal, this::render);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (properties.legacyHeadersEnabled()) {
+            request.header(EMAIL_HEADER, values.email())
+                    .header(USER_ID_HEADER, values.userId())
+                    .header(PERMISSIONS_HEADER, values.permissions())
+                    .header(ROLES_HEADER, values.roles());
+        }
+        if (values.compact() != null) {
+            request.header(properties.headerName(), values.compact());
+        }
+        return true;
+    }
+
+    // Public paths carry no identity, so the request only has client-supplied identity headers removed. The
+    // request is returned as is when it has none.
+    ServerHttpRequest strip(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        boolean forged = headers.containsKey(properties.headerName())
+                || headers.keySet().stream().anyMatch(IdentityHeaders::isUserHeader);
+        return forged ? request.mutate().headers(this::remove).build() : request;
+    }
+
+    private void remove(HttpHeaders headers) {
+        headers.keySet().stream()
+                .filter(IdentityHeaders::isUserHeader)
+                .toList()
+                .forEach(headers::remove);
+        headers.remove(properties.headerName());
+    }
+
+    private static boolean isUserHeader(String name) {
+        return name.toLowerCase(Locale.ROOT).startsWith(USER_HEADER_PREFIX);
+    }
+
+    private Values render(AuthenticatedPrincipal principal) {
+        return new Values(
+                principal.subject() != null ? principal.subject() : "",
+                principal.userId() != null ? String.valueOf(principal.userId()) : "",
+                String.join(",", principal.permissions()),
+                String.join(",", principal.roles()),
+                codec != null ? codec.encode(principal) : null);
+    }
+
+    private record Values(String email, String userId, String permissions, String roles, String compact) {
+    }
+}
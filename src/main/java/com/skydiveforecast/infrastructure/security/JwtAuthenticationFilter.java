@@ -1,42 +1,51 @@
 package com.skydiveforecast.infrastructure.security;
 
+import com.skydiveforecast.infrastructure.network.ClientIpProperties;
+import com.skydiveforecast.infrastructure.network.ClientIpResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
 public class JwtAuthenticationFilter implements WebFilter {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private static final String BEARER_PREFIX = "Bearer ";
 
-    private static final List<String> PUBLIC_PATHS = List.of(
-            "/api/v1/users/auth/**",
-            "/actuator/**",
-            "/v3/api-docs/**",
-            "/swagger-ui/**",
-            "/swagger-ui.html",
-            "/webjars/**");
-
     private final JwtService jwtService;
-    private final AntPathMatcher pathMatcher;
+    private final PublicPathMatcher publicPathMatcher;
+    private final ClientFailureTracker clientFailureTracker;
+    private final IdentityHeaders identityHeaders;
+    private final AuthenticationMetrics metrics;
+    private final ClientIpResolver clientIpResolver;
+
+    public JwtAuthenticationFilter(JwtService jwtService, JwtProperties jwtProperties) {
+        this(jwtService, jwtProperties, new ClientIpResolver(ClientIpProperties.defaults()));
+    }
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    @Autowired
+    public JwtAuthenticationFilter(JwtService jwtService, JwtProperties jwtProperties,
+                                   ClientIpResolver clientIpResolver) {
         this.jwtService = jwtService;
-        this.pathMatcher = new AntPathMatcher();
+        this.publicPathMatcher = PublicPathMatcher.compile(jwtProperties.publicPaths());
+        this.clientFailureTracker = jwtProperties.rejection().clientBlockingEnabled()
+                ? new ClientFailureTracker(jwtProperties.rejection())
+                : null;
+        this.identityHeaders = new IdentityHeaders(jwtProperties);
+        this.metrics = jwtService.metrics();
+        this.clientIpResolver = clientIpResolver;
     }
 
     @Override
@@ -44,53 +53,72 @@ public class JwtAuthenticationFilter implements WebFilter {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getPath().value();
 
-        // Skip authentication for public paths
+        // Skip authentication for public paths, but never forward identity headers the client made up
         if (isPublicPath(path)) {
             log.debug("Skipping JWT authentication for public path: {}", path);
-            return chain.filter(exchange);
+            metrics.recordPublicPathBypass();
+            ServerHttpRequest stripped = identityHeaders.strip(request);
+            return chain.filter(stripped == request ? exchange : exchange.mutate().request(stripped).build());
+        }
+
+        // Clients that keep presenting forged or garbage tokens are turned away before any token work
+        String client = clientFailureTracker != null ? clientIpResolver.resolve(exchange) : null;
+        if (client != null && clientFailureTracker.isBlocked(client)) {
+            log.debug("Rejecting request from client with repeated authentication failures: {}", client);
+            return reject(exchange, AuthenticationFailure.TOO_MANY_FAILURES);
         }
 
         String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
 
         if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
             log.debug("Missing or invalid Authorization header for path: {}", path);
-            return unauthorized(exchange, "Missing or invalid Authorization header");
+            return reject(exchange, AuthenticationFailure.MISSING_TOKEN);
         }
 
         String token = authHeader.substring(BEARER_PREFIX.length()).trim();
 
-        if (token.isEmpty() || token.chars().filter(ch -> ch == '.').count() < 2) {
+        if (token.isEmpty() || !JwtPreParser.hasJwsStructure(token)) {
             log.debug("Invalid JWT token format for path: {}", path);
-            return unauthorized(exchange, "Invalid JWT token format");
+            return fail(exchange, client, AuthenticationFailure.INVALID_FORMAT);
         }
 
-        if (!jwtService.isTokenValid(token)) {
+        AuthenticationResult result = jwtService.verify(token);
+        if (!result.authenticated()) {
             log.debug("JWT token validation failed for path: {}", path);
-            return unauthorized(exchange, "Invalid or expired JWT token");
+            return fail(exchange, client, result.failure());
         }
 
-        // Token is valid - extract user info and add to headers for downstream services
-        ServerHttpRequest mutatedRequest = request.mutate()
-                .header("X-User-Email", jwtService.extractUsername(token).orElse(""))
-                .header("X-User-Id", jwtService.extractUserId(token).map(String::valueOf).orElse(""))
-                .header("X-User-Permissions", String.join(",", jwtService.extractPermissions(token).orElse(List.of())))
-                .header("X-User-Roles", String.join(",", jwtService.extractRoles(token).orElse(List.of())))
-                .build();
+        // Token is valid - add the verified user info to headers for downstream services
+        AuthenticatedPrincipal principal = result.principal();
+        ServerHttpRequest.Builder mutatedRequest = request.mutate();
+        if (!identityHeaders.apply(mutatedRequest, principal)) {
+            log.debug("JWT claims too large for the identity header for path: {}", path);
+            return fail(exchange, client, AuthenticationFailure.INVALID_TOKEN);
+        }
 
-        log.debug("JWT authentication successful for user: {}", jwtService.extractUsername(token).orElse("unknown"));
+        log.debug("JWT authentication successful for user: {}", principal.subject());
+        metrics.recordAuthenticated(principal, System.currentTimeMillis());
+        exchange.getAttributes().put(AuthenticatedPrincipal.EXCHANGE_ATTRIBUTE, principal);
 
-        return chain.filter(exchange.mutate().request(mutatedRequest).build());
+        return chain.filter(exchange.mutate().request(mutatedRequest.build()).build());
     }
 
     private boolean isPublicPath(String path) {
-        return PUBLIC_PATHS.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+        return publicPathMatcher.matches(path);
+    }
+
+    private Mono<Void> fail(ServerWebExchange exchange, String client, AuthenticationFailure failure) {
+        if (client != null && failure.suspicious()) {
+            clientFailureTracker.recordFailure(client);
+        }
+        return reject(exchange, failure);
     }
 
-    private Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
-        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-        exchange.getResponse().getHeaders().add("Content-Type", "application/json");
-        String body = String.format("{\"error\":\"Unauthorized\",\"message\":\"%s\"}", message);
-        return exchange.getResponse().writeWith(
-                Mono.just(exchange.getResponse().bufferFactory().wrap(body.getBytes())));
+    private Mono<Void> reject(ServerWebExchange exchange, AuthenticationFailure failure) {
+        metrics.recordRejection(failure);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(failure.status());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(failure.body(response.bufferFactory())));
     }
 }
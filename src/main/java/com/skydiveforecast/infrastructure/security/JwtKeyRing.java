@@ -0,0 +1,344 @@
+package com.skydiveforecast.infrastructure.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Parser;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class JwtKeyRing implements EnvironmentAware {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Clock clock;
+    private volatile JwtProperties properties;
+    private volatile Snapshot snapshot;
+    private volatile FileTime jwksLastModified;
+    private volatile long generation;
+    private Environment environment;
+    private Disposable watcher;
+
+    @Autowired
+    public JwtKeyRing(JwtProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    JwtKeyRing(JwtProperties properties, Clock clock) {
+        this.clock = clock;
+        this.properties = properties;
+        this.snapshot = Snapshot.EMPTY;
+        reload(properties);
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    void startWatching() {
+        if (properties.keyRing().jwksFile() == null) {
+            return;
+        }
+        Duration interval = properties.keyRing().reloadInterval();
+        watcher = Flux.interval(interval, interval, Schedulers.boundedElastic())
+                .subscribe(tick -> reloadIfJwksChanged());
+    }
+
+    @PreDestroy
+    void stopWatching() {
+        if (watcher != null) {
+            watcher.dispose();
+        }
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (environment == null || event.getKeys().stream().noneMatch(key -> key.startsWith("jwt."))) {
+            return;
+        }
+        Binder.get(environment)
+                .bind("jwt", JwtProperties.class)
+                .ifBound(this::reload);
+    }
+
+    // Resolves the verification key for a JWS header; null means the token must be rejected
+    public Key resolve(String kid, String algorithm) {
+        Snapshot current = snapshot;
+        RingKey ringKey = kid == null ? current.defaultKey() : current.keys().get(kid);
+        if (ringKey == null || !ringKey.isActive(clock.instant(), current.gracePeriod())) {
+            return null;
+        }
+        if (ringKey.algorithm() != null && !ringKey.algorithm().equalsIgnoreCase(algorithm)) {
+            return null;
+        }
+        return ringKey.key();
+    }
+
+    // Incremented on every successful reload, and when a retired key's grace period ends, so callers can drop
+    // decisions made against keys that are no longer accepted
+    public long generation() {
+        Instant nextRetirement = snapshot.nextRetirement();
+        if (nextRetirement != null && clock.instant().isAfter(nextRetirement)) {
+            dropRetiredKeys();
+        }
+        return generation;
+    }
+
+    // Parsers for previous kid-less HMAC secrets that are still inside their grace period
+    public List<JwtParser> retiredDefaultParsers() {
+        Snapshot current = snapshot;
+        if (current.retiredDefaults().isEmpty()) {
+            return List.of();
+        }
+        Instant now = clock.instant();
+        List<JwtParser> parsers = new ArrayList<>(current.retiredDefaults().size());
+        for (RingKey retired : current.retiredDefaults()) {
+            if (retired.isActive(now, current.gracePeriod())) {
+                parsers.add(retired.parser());
+            }
+        }
+        return parsers;
+    }
+
+    public synchronized void reload(JwtProperties newProperties) {
+        Instant now = clock.instant();
+        Duration gracePeriod = newProperties.keyRing().gracePeriod();
+        Map<String, RingKey> loaded;
+        try {
+            loaded = loadKeys(newProperties.keyRing());
+        } catch (Exception e) {
+            if (snapshot == Snapshot.EMPTY) {
+                throw new IllegalStateException("Cannot load JWT key ring: " + e.getMessage(), e);
+            }
+            // Keep verifying with the previous keys rather than rejecting every token
+            log.error("Failed to reload JWT key ring, keeping {} existing keys: {}",
+                    snapshot.keys().size(), e.getMessage());
+            return;
+        }
+
+        Snapshot previous = snapshot;
+        for (RingKey old : previous.keys().values()) {
+            if (!loaded.containsKey(old.kid())) {
+                RingKey retired = old.retiredAt() != null ? old : old.retire(now);
+                if (retired.isActive(now, gracePeriod)) {
+                    log.info("JWT key '{}' retired, accepted until {}", old.kid(),
+                            retired.retiredAt().plus(gracePeriod));
+                    loaded.put(old.kid(), retired);
+                }
+            }
+        }
+
+        RingKey defaultKey = hmacKey(null, null, newProperties.secret(), null);
+        List<RingKey> retiredDefaults = new ArrayList<>();
+        if (previous.defaultKey() != null && !sameKey(previous.defaultKey().key(), defaultKey.key())) {
+            retiredDefaults.add(previous.defaultKey().retire(now));
+        }
+        for (RingKey retired : previous.retiredDefaults()) {
+            if (retired.isActive(now, gracePeriod)) {
+                retiredDefaults.add(retired);
+            }
+        }
+
+        this.properties = newProperties;
+        this.snapshot = Snapshot.of(loaded, defaultKey, retiredDefaults, gracePeriod);
+        this.generation++;
+        log.info("JWT key ring loaded with {} keys", loaded.size());
+    }
+
+    private synchronized void dropRetiredKeys() {
+        Snapshot current = snapshot;
+        Instant now = clock.instant();
+        if (current.nextRetirement() == null || !now.isAfter(current.nextRetirement())) {
+            return;
+        }
+        Map<String, RingKey> keys = new HashMap<>();
+        current.keys().forEach((kid, key) -> {
+            if (key.isActive(now, current.gracePeriod())) {
+                keys.put(kid, key);
+            } else {
+                log.info("JWT key '{}' is no longer accepted, its grace period has ended", kid);
+            }
+        });
+        List<RingKey> retiredDefaults = new ArrayList<>();
+        for (RingKey retired : current.retiredDefaults()) {
+            if (retired.isActive(now, current.gracePeriod())) {
+                retiredDefaults.add(retired);
+            }
+        }
+        this.snapshot = Snapshot.of(keys, current.defaultKey(), retiredDefaults, current.gracePeriod());
+        this.generation++;
+    }
+
+    private void reloadIfJwksChanged() {
+        Path jwksFile = Path.of(properties.keyRing().jwksFile());
+        try {
+            FileTime lastModified = Files.getLastModifiedTime(jwksFile);
+            if (!lastModified.equals(jwksLastModified)) {
+                reload(properties);
+            }
+        } catch (IOException e) {
+            log.warn("Cannot check JWKS file {}: {}", jwksFile, e.getMessage());
+        }
+    }
+
+    private Map<String, RingKey> loadKeys(JwtProperties.KeyRing keyRing) throws Exception {
+        Map<String, RingKey> keys = new HashMap<>();
+        if (keyRing.jwksFile() != null) {
+            Path jwksFile = Path.of(keyRing.jwksFile());
+            FileTime lastModified = Files.getLastModifiedTime(jwksFile);
+            // Entries are parsed one by one: an empty set is valid here, and an unsupported entry only skips itself
+            JsonNode entries = JSON.readTree(Files.readString(jwksFile, StandardCharsets.UTF_8)).get("keys");
+            if (entries == null || !entries.isArray()) {
+                throw new IllegalArgumentException("JWKS file " + jwksFile + " has no 'keys' array");
+            }
+            Parser<Jwk<?>> parser = Jwks.parser().build();
+            for (JsonNode entry : entries) {
+                Jwk<?> jwk;
+                try {
+                    jwk = parser.parse(entry.toString());
+                } catch (JwtException e) {
+                    log.warn("Skipping unsupported JWKS entry: {}", e.getMessage());
+                    continue;
+                }
+                if (jwk.getId() == null || jwk.toKey() instanceof PrivateKey) {
+                    log.warn("Skipping JWKS entry without kid or with private key material");
+                    continue;
+                }
+                keys.put(jwk.getId(), new RingKey(jwk.getId(), jwk.getAlgorithm(), jwk.toKey(), null,
+                        parserFor(jwk.toKey())));
+            }
+            jwksLastModified = lastModified;
+        }
+        // Explicitly configured keys override JWKS entries with the same kid
+        for (JwtProperties.VerificationKey definition : keyRing.keys()) {
+            keys.put(definition.kid(), definition.secret() != null && !definition.secret().isBlank()
+                    ? hmacKey(definition.kid(), definition.algorithm(), definition.secret(), definition.retiredAt())
+                    : publicKey(definition));
+        }
+        return keys;
+    }
+
+    private static RingKey hmacKey(String kid, String algorithm, String secret, Instant retiredAt) {
+        Key key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return new RingKey(kid, algorithm, key, retiredAt, parserFor(key));
+    }
+
+    private static RingKey publicKey(JwtProperties.VerificationKey definition) throws Exception {
+        String algorithm = definition.algorithm();
+        if (algorithm == null) {
+            throw new IllegalArgumentException("JWT verification key '" + definition.kid()
+                    + "' with a public key must declare its algorithm");
+        }
+        String encoded = definition.publicKey()
+                .replaceAll("-----(BEGIN|END) PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        KeyFactory keyFactory = KeyFactory.getInstance(keyFamily(algorithm));
+        PublicKey key = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        return new RingKey(definition.kid(), algorithm, key, definition.retiredAt(), parserFor(key));
+    }
+
+    private static String keyFamily(String algorithm) {
+        String upper = algorithm.toUpperCase();
+        if (upper.startsWith("RS") || upper.startsWith("PS")) {
+            return "RSA";
+        }
+        if (upper.startsWith("ES")) {
+            return "EC";
+        }
+        if (upper.equals("EDDSA")) {
+            return "EdDSA";
+        }
+        throw new IllegalArgumentException("Unsupported JWT public key algorithm: " + algorithm);
+    }
+
+    private static JwtParser parserFor(Key key) {
+        if (key instanceof PublicKey publicKey) {
+            return Jwts.parser().verifyWith(publicKey).build();
+        }
+        return Jwts.parser().verifyWith((SecretKey) key).build();
+    }
+
+    private static boolean sameKey(Key first, Key second) {
+        return MessageDigest.isEqual(first.getEncoded(), second.getEncoded());
+    }
+
+    private record RingKey(String kid, String algorithm, Key key, Instant retiredAt, JwtParser parser) {
+
+        RingKey retire(Instant now) {
+            return new RingKey(kid, algorithm, key, now, parser);
+        }
+
+        boolean isActive(Instant now, Duration gracePeriod) {
+            return retiredAt == null || !now.isAfter(retiredAt.plus(gracePeriod));
+        }
+    }
+
+    // nextRetirement is the earliest end of a retired key's grace period, null when no key is retired
+    private record Snapshot(Map<String, RingKey> keys, RingKey defaultKey, List<RingKey> retiredDefaults,
+                            Duration gracePeriod, Instant nextRetirement) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), null, List.of(), Duration.ZERO, null);
+
+        static Snapshot of(Map<String, RingKey> keys, RingKey defaultKey, List<RingKey> retiredDefaults,
+                           Duration gracePeriod) {
+            Instant nextRetirement = null;
+            for (RingKey key : keys.values()) {
+                nextRetirement = earlier(nextRetirement, key, gracePeriod);
+            }
+            for (RingKey key : retiredDefaults) {
+                nextRetirement = earlier(nextRetirement, key, gracePeriod);
+            }
+            return new Snapshot(Map.copyOf(keys), defaultKey, List.copyOf(retiredDefaults), gracePeriod,
+                    nextRetirement);
+        }
+
+        private static Instant earlier(Instant current, RingKey key, Duration gracePeriod) {
+            if (key.retiredAt() == null) {
+                return current;
+            }
+            Instant end = key.retiredAt().plus(gracePeriod);
+            return current == null || end.isBefore(current) ? end : current;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.skydiveforecast.infrastructure.security;
+
+import java.util.Arrays;
+
+// Cheap structural and time-window checks run before any signature verification. Only the payload
+// segment is Base64url-decoded (into a reused per-thread buffer) and only top-level exp/nbf are read.
+// Anything it cannot decide with certainty is passed on to the full parser as VALID.
+final class JwtPreParser {
+
+    enum Outcome {
+        VALID,
+        MALFORMED,
+        EXPIRED,
+        NOT_YET_VALID
+    }
+
+    private static final int MAX_CACHED_BUFFER = 8 * 1024;
+    private static final byte[] EXP = {'e', 'x', 'p'};
+    private static final byte[] NBF = {'n', 'b', 'f'};
+    private static final int[] BASE64_URL = new int[128];
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[1024]);
+
+    static {
+        Arrays.fill(BASE64_URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private JwtPreParser() {
+    }
+
+    static boolean hasJwsStructure(String token) {
+        int firstDot = token.indexOf('.');
+        if (firstDot <= 0) {
+            return false;
+        }
+        int secondDot = token.indexOf('.', firstDot + 1);
+        return secondDot > firstDot + 1
+                && secondDot < token.length() - 1
+                && token.indexOf('.', secondDot + 1) < 0;
+    }
+
+    static Outcome check(String token, long nowMillis) {
+        if (!hasJwsStructure(token)) {
+            return Outcome.MALFORMED;
+        }
+        int payloadStart = token.indexOf('.') + 1;
+        int payloadEnd = token.indexOf('.', payloadStart);
+
+        byte[] json = buffer((payloadEnd - payloadStart) * 3 / 4 + 3);
+        int length = decode(token, payloadStart, payloadEnd, json);
+        if (length < 0) {
+            return Outcome.MALFORMED;
+        }
+        return new ClaimScanner(json, length).scan(nowMillis);
+    }
+
+    private static byte[] buffer(int size) {
+        if (size > MAX_CACHED_BUFFER) {
+            return new byte[size];
+        }
+        byte[] buffer = BUFFER.get();
+        if (buffer.length < size) {
+            buffer = new byte[Math.max(size, buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static int decode(String source, int start, int end, byte[] target) {
+        int bits = 0;
+        int bitCount = 0;
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char ch = source.charAt(i);
+            int value = ch < 128 ? BASE64_URL[ch] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[length++] = (byte) (bits >> bitCount);
+            }
+        }
+        return bitCount >= 6 ? -1 : length;
+    }
+
+    private static final class ClaimScanner {
+
+        private static final long UNKNOWN = Long.MIN_VALUE;
+
+        private final byte[] json;
+        private final int length;
+        private int pos;
+
+        ClaimScanner(byte[] json, int length) {
+            this.json = json;
+            this.length = length;
+        }
+
+        Outcome scan(long nowMillis) {
+            long exp = UNKNOWN;
+            long nbf = UNKNOWN;
+            boolean hasExp = false;
+
+            skipWhitespace();
+            if (!consume('{')) {
+                return Outcome.MALFORMED;
+            }
+            while (true) {
+                skipWhitespace();
+                int keyStart = pos + 1;
+                if (!skipString()) {
+                    return Outcome.MALFORMED;
+                }
+                int keyLength = pos - 1 - keyStart;
+                skipWhitespace();
+                if (!consume(':')) {
+                    return Outcome.MALFORMED;
+                }
+                skipWhitespace();
+                if (keyEquals(keyStart, keyLength, EXP)) {
+                    hasExp = true;
+                    exp = readSeconds();
+                } else if (keyEquals(keyStart, keyLength, NBF)) {
+                    nbf = readSeconds();
+                } else if (!skipValue()) {
+                    return Outcome.MALFORMED;
+                }
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                if (consume('}')) {
+                    break;
+                }
+                return Outcome.MALFORMED;
+            }
+
+            if (!hasExp) {
+                return Outcome.MALFORMED;
+            }
+            if (exp != UNKNOWN && nowMillis > exp * 1000L) {
+                return Outcome.EXPIRED;
+            }
+            if (nbf != UNKNOWN && nowMillis < nbf * 1000L) {
+                return Outcome.NOT_YET_VALID;
+            }
+            return Outcome.VALID;
+        }
+
+        // Reads an integer NumericDate, ignoring any fraction; other number forms are left to the full parser
+        private long readSeconds() {
+            int start = pos;
+            long value = 0;
+            while (pos < length && json[pos] >= '0' && json[pos] <= '9' && pos - start < 18) {
+                value = value * 10 + (json[pos] - '0');
+                pos++;
+            }
+            boolean integer = pos > start;
+            if (integer && pos < length && json[pos] == '.') {
+                pos++;
+                while (pos < length && json[pos] >= '0' && json[pos] <= '9') {
+                    pos++;
+                }
+            }
+            if (!integer || (pos < length && !isValueEnd(json[pos]))) {
+                pos = start;
+                skipValue();
+                return UNKNOWN;
+            }
+            return value;
+        }
+
+        private boolean skipValue() {
+            byte first = peek();
+            if (first == '"') {
+                return skipString();
+            }
+            if (first == '{' || first == '[') {
+                int depth = 0;
+                while (pos < length) {
+                    byte ch = json[pos];
+                    if (ch == '"') {
+                        if (!skipString()) {
+                            return false;
+                        }
+                        continue;
+                    }
+                    if (ch == '{' || ch == '[') {
+                        depth++;
+                    } else if (ch == '}' || ch == ']') {
+                        depth--;
+                    }
+                    pos++;
+                    if (depth == 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            int start = pos;
+            while (pos < length && !isValueEnd(json[pos])) {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        private boolean skipString() {
+            if (!consume('"')) {
+                return false;
+            }
+            while (pos < length) {
+                byte ch = json[pos++];
+                if (ch == '\\') {
+                    pos++;
+                } else if (ch == '"') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean keyEquals(int start, int keyLength, byte[] expected) {
+            if (keyLength != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < keyLength; i++) {
+                if (json[start + i] != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void skipWhitespace() {
+            while (pos < length && (json[pos] == ' ' || json[pos] == '\t' || json[pos] == '\n' || json[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private boolean consume(char expected) {
+            if (pos < length && json[pos] == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private byte peek() {
+            return pos < length ? json[pos] : 0;
+        }
+
+        private static boolean isValueEnd(byte ch) {
+            return ch == ',' || ch == '}' || ch == ']' || ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r';
+        }
+    }
+}
@@ -1,11 +1,33 @@
 package com.skydiveforecast.infrastructure.security;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 @ConfigurationProperties(prefix = "jwt")
 public record JwtProperties(
         String secret,
-        long expiration) {
+        long expiration,
+        Cache cache,
+        KeyRing keyRing,
+        List<String> publicPaths,
+        Rejection rejection,
+        IdentityHeader identityHeader,
+        Revocation revocation) {
+
+    public static final List<String> DEFAULT_PUBLIC_PATHS = List.of(
+            "/api/v1/users/auth/**",
+            "/actuator/**",
+            "/v3/api-docs/**",
+            "/swagger-ui/**",
+            "/swagger-ui.html",
+            "/webjars/**");
+
+    @ConstructorBinding
     public JwtProperties {
         if (secret == null || secret.isBlank()) {
             throw new IllegalArgumentException("JWT secret must not be blank");
@@ -13,5 +35,144 @@ public record JwtProperties(
         if (expiration <= 0) {
             expiration = 3600000L; // Default 1 hour
         }
+        if (cache == null) {
+            cache = new Cache(true, 0, null);
+        }
+        if (keyRing == null) {
+            keyRing = new KeyRing(null, null, null, null);
+        }
+        publicPaths = publicPaths == null ? DEFAULT_PUBLIC_PATHS : List.copyOf(publicPaths);
+        if (rejection == null) {
+            rejection = new Rejection(0, null, false, 0, null);
+        }
+        if (identityHeader == null) {
+            identityHeader = new IdentityHeader(false, null, null, true);
+        }
+        // Services verifying the identity header hold its secret; with jwt.secret they could mint gateway tokens
+        if (identityHeader.compactEnabled() && secret.equals(identityHeader.secret())) {
+            throw new IllegalArgumentException("jwt.identity-header.secret must differ from jwt.secret");
+        }
+        if (revocation == null) {
+            revocation = new Revocation(false, null, null, null, 0, 0);
+        }
+    }
+
+    public JwtProperties(String secret, long expiration) {
+        this(secret, expiration, null, null, null, null, null, null);
+    }
+
+    public record Cache(
+            @DefaultValue("true") boolean enabled,
+            long maximumSize,
+            Duration maximumTtl) {
+        public Cache {
+            if (maximumSize <= 0) {
+                maximumSize = 10000L;
+            }
+            if (maximumTtl == null || maximumTtl.isNegative() || maximumTtl.isZero()) {
+                maximumTtl = Duration.ofMinutes(15);
+            }
+        }
+    }
+
+    public record KeyRing(
+            List<VerificationKey> keys,
+            String jwksFile,
+            Duration gracePeriod,
+            Duration reloadInterval) {
+        public KeyRing {
+            keys = keys == null ? List.of() : List.copyOf(keys);
+            if (gracePeriod == null || gracePeriod.isNegative()) {
+                gracePeriod = Duration.ofHours(1);
+            }
+            if (reloadInterval == null || reloadInterval.isNegative() || reloadInterval.isZero()) {
+                reloadInterval = Duration.ofSeconds(30);
+            }
+        }
+    }
+
+    // Either secret (HMAC) or publicKey (Base64 or PEM encoded X.509 SubjectPublicKeyInfo) must be set
+    public record VerificationKey(
+            String kid,
+            String algorithm,
+            String secret,
+            String publicKey,
+            Instant retiredAt) {
+        public VerificationKey {
+            if (kid == null || kid.isBlank()) {
+                throw new IllegalArgumentException("JWT verification key id must not be blank");
+            }
+            if ((secret == null || secret.isBlank()) == (publicKey == null || publicKey.isBlank())) {
+                throw new IllegalArgumentException("JWT verification key '" + kid
+                        + "' must define exactly one of secret or public-key");
+            }
+        }
+    }
+
+    public record Rejection(
+            long negativeCacheSize,
+            Duration negativeCacheTtl,
+            boolean clientBlockingEnabled,
+            int clientFailureThreshold,
+            Duration clientFailureWindow) {
+        public Rejection {
+            if (negativeCacheSize <= 0) {
+                negativeCacheSize = 10000L;
+            }
+            if (negativeCacheTtl == null || negativeCacheTtl.isNegative() || negativeCacheTtl.isZero()) {
+                negativeCacheTtl = Duration.ofMinutes(1);
+            }
+            if (clientFailureThreshold <= 0) {
+                clientFailureThreshold = 20;
+            }
+            if (clientFailureWindow == null || clientFailureWindow.isNegative() || clientFailureWindow.isZero()) {
+                clientFailureWindow = Duration.ofMinutes(1);
+            }
+        }
+    }
+
+    // Compact signed identity header for downstream services; it has its own secret, required in compact mode
+    public record IdentityHeader(
+            boolean compactEnabled,
+            String headerName,
+            String secret,
+            @DefaultValue("true") boolean legacyHeadersEnabled) {
+        public IdentityHeader {
+            if (headerName == null || headerName.isBlank()) {
+                headerName = "X-User-Identity";
+            }
+            if (compactEnabled && (secret == null || secret.isBlank())) {
+                throw new IllegalArgumentException(
+                        "jwt.identity-header.secret must be set when compact-enabled is true");
+            }
+        }
+    }
+
+    // Revoked token ids are kept in Redis as a sorted set (member jti, score expiry epoch seconds) and announced
+    // on a pub/sub channel as "<expiry epoch seconds>:<jti>"
+    public record Revocation(
+            boolean enabled,
+            String key,
+            String channel,
+            Duration resyncInterval,
+            long expectedTokens,
+            double falsePositiveRate) {
+        public Revocation {
+            if (key == null || key.isBlank()) {
+                key = "gateway:revoked-tokens";
+            }
+            if (channel == null || channel.isBlank()) {
+                channel = "gateway:token-revocations";
+            }
+            if (resyncInterval == null || resyncInterval.isNegative() || resyncInterval.isZero()) {
+                resyncInterval = Duration.ofMinutes(5);
+            }
+            if (expectedTokens <= 0) {
+                expectedTokens = 100000L;
+            }
+            if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+                falsePositiveRate = 0.001;
+            }
+        }
     }
 }
@@ -1,16 +1,28 @@
 package com.skydiveforecast.infrastructure.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.PrematureJwtException;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -20,63 +32,278 @@ public class JwtService {
 
     private static final Logger log = LoggerFactory.getLogger(JwtService.class);
 
-    private final Key signingKey;
+    private final JwtKeyRing keyRing;
+    private final TokenRevocationList revocationList;
+    private final JwtParser jwtParser;
     private final JwtProperties jwtProperties;
+    private final Cache<String, CachedPrincipal> principalCache;
+    private final Cache<String, Rejection> rejectedTokens;
+    private final AuthenticationMetrics metrics;
 
-    public JwtService(JwtProperties jwtProperties) {
+    public JwtService(JwtProperties jwtProperties, JwtKeyRing keyRing, MeterRegistry meterRegistry) {
+        this(jwtProperties, keyRing, TokenRevocationList.disabled(), meterRegistry);
+    }
+
+    @Autowired
+    public JwtService(JwtProperties jwtProperties, JwtKeyRing keyRing, TokenRevocationList revocationList,
+                      MeterRegistry meterRegistry) {
         this.jwtProperties = jwtProperties;
-        this.signingKey = Keys.hmacShaKeyFor(jwtProperties.secret().getBytes());
+        this.keyRing = keyRing;
+        this.revocationList = revocationList;
+        // JwtParser is immutable and thread-safe, so it is built once and shared by all requests;
+        // the key ring picks the verification key by kid and can be reloaded underneath it
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keyRing.resolve(header.getKeyId(), header.getAlgorithm());
+                    }
+                })
+                .build();
+        this.principalCache = jwtProperties.cache().enabled()
+                ? createPrincipalCache(jwtProperties.cache(), meterRegistry)
+                : null;
+        this.rejectedTokens = createRejectionCache(jwtProperties.rejection(), meterRegistry);
+        this.metrics = new AuthenticationMetrics(meterRegistry);
+    }
+
+    public Optional<AuthenticatedPrincipal> authenticate(String token) {
+        return Optional.ofNullable(verify(token).principal());
+    }
+
+    public AuthenticationResult verify(String token) {
+        // Stale and garbage tokens are rejected here, before any hashing or signature work
+        JwtPreParser.Outcome preCheck = JwtPreParser.check(token, System.currentTimeMillis());
+        if (preCheck != JwtPreParser.Outcome.VALID) {
+            log.debug("JWT token rejected before verification: {}", preCheck);
+            return AuthenticationResult.failure(switch (preCheck) {
+                case EXPIRED -> AuthenticationFailure.EXPIRED;
+                case NOT_YET_VALID -> AuthenticationFailure.NOT_YET_VALID;
+                default -> AuthenticationFailure.MALFORMED;
+            });
+        }
+
+        String digest = TokenDigests.sha256(token);
+        // Decisions cached against an older key ring are not trusted: the signing key may have been removed or
+        // its grace period may have ended, so such tokens are verified again
+        long keyGeneration = keyRing.generation();
+        if (principalCache != null) {
+            CachedPrincipal cached = principalCache.getIfPresent(digest);
+            if (cached != null && cached.keyGeneration() == keyGeneration) {
+                return checkRevocation(cached.principal());
+            }
+        }
+
+        // A token that recently failed verification against the current keys is rejected without crypto
+        Rejection rejection = rejectedTokens.getIfPresent(digest);
+        if (rejection != null && rejection.keyGeneration() == keyGeneration) {
+            return AuthenticationResult.failure(rejection.failure());
+        }
+
+        long start = System.nanoTime();
+        AuthenticationResult result = verifySignature(token);
+        metrics.recordVerification(System.nanoTime() - start, result.authenticated());
+        if (result.authenticated()) {
+            if (principalCache != null) {
+                principalCache.put(digest, new CachedPrincipal(result.principal(), keyGeneration));
+            }
+            return checkRevocation(result.principal());
+        }
+        if (principalCache != null) {
+            principalCache.invalidate(digest);
+        }
+        if (result.failure().suspicious()) {
+            rejectedTokens.put(digest, new Rejection(result.failure(), keyGeneration));
+        }
+        return result;
     }
 
     public Optional<Claims> validateAndExtractClaims(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = parseClaims(token);
 
-            if (claims.getExpiration().before(new Date())) {
+            if (isExpired(claims)) {
                 log.debug("JWT token is expired");
                 return Optional.empty();
             }
 
+            if (revocationList.isRevoked(claims.getId())) {
+                log.debug("JWT token has been revoked");
+                return Optional.empty();
+            }
+
             return Optional.of(claims);
-        } catch (ExpiredJwtException e) {
-            log.debug("JWT token is expired: {}", e.getMessage());
-        } catch (MalformedJwtException e) {
-            log.debug("JWT token is malformed: {}", e.getMessage());
-        } catch (SignatureException e) {
-            log.debug("JWT signature validation failed: {}", e.getMessage());
         } catch (Exception e) {
-            log.debug("JWT token validation failed: {}", e.getMessage());
+            classify(e);
         }
         return Optional.empty();
     }
 
     public Optional<String> extractUsername(String token) {
-        return validateAndExtractClaims(token)
-                .map(Claims::getSubject);
+        return authenticate(token)
+                .map(AuthenticatedPrincipal::subject);
     }
 
     public Optional<Long> extractUserId(String token) {
-        return validateAndExtractClaims(token)
-                .map(claims -> claims.get("userId", Long.class));
+        return authenticate(token)
+                .map(AuthenticatedPrincipal::userId);
     }
 
-    @SuppressWarnings("unchecked")
     public Optional<List<String>> extractPermissions(String token) {
-        return validateAndExtractClaims(token)
-                .map(claims -> claims.get("permissions", List.class));
+        return authenticate(token)
+                .map(AuthenticatedPrincipal::permissions);
     }
 
-    @SuppressWarnings("unchecked")
     public Optional<List<String>> extractRoles(String token) {
-        return validateAndExtractClaims(token)
-                .map(claims -> claims.get("roles", List.class));
+        return authenticate(token)
+                .map(AuthenticatedPrincipal::roles);
     }
 
     public boolean isTokenValid(String token) {
         return validateAndExtractClaims(token).isPresent();
     }
+
+    AuthenticationMetrics metrics() {
+        return metrics;
+    }
+
+    // Checked on every request, including cache hits, so a revocation takes effect before the cache entry expires
+    private AuthenticationResult checkRevocation(AuthenticatedPrincipal principal) {
+        if (revocationList.isRevoked(principal.tokenId())) {
+            log.debug("JWT token has been revoked: {}", principal.tokenId());
+            return AuthenticationResult.failure(AuthenticationFailure.REVOKED);
+        }
+        return AuthenticationResult.success(principal);
+    }
+
+    private Claims parseClaims(String token) {
+        try {
+            return jwtParser.parseSignedClaims(token).getPayload();
+        } catch (SignatureException e) {
+            // Tokens without a kid may still be signed with a previous secret during its grace period
+            for (JwtParser retiredParser : keyRing.retiredDefaultParsers()) {
+                try {
+                    return retiredParser.parseSignedClaims(token).getPayload();
+                } catch (SignatureException ignored) {
+                    // try the next retired secret
+                }
+            }
+            throw e;
+        }
+    }
+
+    private AuthenticationResult verifySignature(String token) {
+        try {
+            Claims claims = parseClaims(token);
+
+            if (isExpired(claims)) {
+                log.debug("JWT token is expired");
+                return AuthenticationResult.failure(AuthenticationFailure.EXPIRED);
+            }
+
+            return AuthenticationResult.success(toPrincipal(claims));
+        } catch (Exception e) {
+            return AuthenticationResult.failure(classify(e));
+        }
+    }
+
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() == null || claims.getExpiration().before(new Date());
+    }
+
+    private static AuthenticationFailure classify(Exception e) {
+        if (e instanceof ExpiredJwtException) {
+            log.debug("JWT token is expired: {}", e.getMessage());
+            return AuthenticationFailure.EXPIRED;
+        }
+        if (e instanceof PrematureJwtException) {
+            log.debug("JWT token is not yet valid: {}", e.getMessage());
+            return AuthenticationFailure.NOT_YET_VALID;
+        }
+        if (e instanceof MalformedJwtException) {
+            log.debug("JWT token is malformed: {}", e.getMessage());
+            return AuthenticationFailure.MALFORMED;
+        }
+        if (e instanceof SignatureException) {
+            log.debug("JWT signature validation failed: {}", e.getMessage());
+            return AuthenticationFailure.INVALID_SIGNATURE;
+        }
+        log.debug("JWT token validation failed: {}", e.getMessage());
+        return AuthenticationFailure.INVALID_TOKEN;
+    }
+
+    private static Cache<String, CachedPrincipal> createPrincipalCache(JwtProperties.Cache properties,
+                                                                       MeterRegistry meterRegistry) {
+        Cache<String, CachedPrincipal> cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new PrincipalExpiry(properties.maximumTtl()))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.principals");
+    }
+
+    private static Cache<String, Rejection> createRejectionCache(JwtProperties.Rejection properties,
+                                                                 MeterRegistry meterRegistry) {
+        Cache<String, Rejection> cache = Caffeine.newBuilder()
+                .maximumSize(properties.negativeCacheSize())
+                .expireAfterWrite(properties.negativeCacheTtl())
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.rejections");
+    }
+
+    private AuthenticatedPrincipal toPrincipal(Claims claims) {
+        return new AuthenticatedPrincipal(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                stringList(claims.get("roles")),
+                stringList(claims.get("permissions")),
+                claims.getExpiration().toInstant(),
+                claims.getId(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null);
+    }
+
+    private static List<String> stringList(Object claim) {
+        if (!(claim instanceof List<?> values)) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value != null) {
+                result.add(value.toString());
+            }
+        }
+        return result;
+    }
+
+    private record Rejection(AuthenticationFailure failure, long keyGeneration) {
+    }
+
+    private record CachedPrincipal(AuthenticatedPrincipal principal, long keyGeneration) {
+    }
+
+    // Entries live until the token's exp claim, capped by the configured maximum TTL
+    private record PrincipalExpiry(Duration maximumTtl) implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedPrincipal cached, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), cached.principal().expiresAt());
+            if (untilExpiry.isNegative()) {
+                return 0L;
+            }
+            return untilExpiry.compareTo(maximumTtl) < 0 ? untilExpiry.toNanos() : maximumTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedPrincipal cached, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, cached, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedPrincipal cached, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
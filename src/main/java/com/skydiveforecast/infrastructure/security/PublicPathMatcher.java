@@ -0,0 +1,186 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Ant-style public path patterns compiled into a segment trie at startup. Literal segments, whole-segment
+// "*" and a trailing "**" are matched without allocation in time proportional to the path depth, independent
+// of the number of patterns. Anything more exotic (partial wildcards, "?", "{var}", "**" mid-pattern) falls
+// back to AntPathMatcher for that pattern only.
+final class PublicPathMatcher {
+
+    private final Node root;
+    private final List<String> fallbackPatterns;
+    private final AntPathMatcher antPathMatcher;
+
+    private PublicPathMatcher(Node root, List<String> fallbackPatterns) {
+        this.root = root;
+        this.fallbackPatterns = List.copyOf(fallbackPatterns);
+        this.antPathMatcher = new AntPathMatcher();
+    }
+
+    static PublicPathMatcher compile(List<String> patterns) {
+        Node root = new Node();
+        List<String> fallbackPatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (!root.insert(pattern)) {
+                fallbackPatterns.add(pattern);
+            }
+        }
+        return new PublicPathMatcher(root, fallbackPatterns);
+    }
+
+    boolean matches(String path) {
+        if (root.matches(path, 0, path.endsWith("/"))) {
+            return true;
+        }
+        for (int i = 0; i < fallbackPatterns.size(); i++) {
+            if (antPathMatcher.match(fallbackPatterns.get(i), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node {
+
+        private String[] keys = new String[4];
+        private int[] hashes = new int[4];
+        private Node[] children = new Node[4];
+        private int size;
+        private Node wildcard;
+        private boolean matchesRest;
+        private boolean terminal;
+        private boolean terminalWithSlash;
+
+        boolean insert(String pattern) {
+            String[] segments = pattern.split("/");
+            List<String> tokens = new ArrayList<>(segments.length);
+            for (String segment : segments) {
+                if (!segment.isEmpty()) {
+                    tokens.add(segment);
+                }
+            }
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean last = i == tokens.size() - 1;
+                if (token.equals("**") ? !last : !token.equals("*") && containsWildcard(token)) {
+                    return false;
+                }
+            }
+
+            Node node = this;
+            for (String token : tokens) {
+                if (token.equals("**")) {
+                    node.matchesRest = true;
+                    return true;
+                }
+                node = token.equals("*") ? node.wildcardChild() : node.literalChild(token);
+            }
+            if (pattern.endsWith("/") && !tokens.isEmpty()) {
+                node.terminalWithSlash = true;
+            } else {
+                node.terminal = true;
+                node.terminalWithSlash |= tokens.isEmpty();
+            }
+            return true;
+        }
+
+        boolean matches(String path, int from, boolean trailingSlash) {
+            if (matchesRest) {
+                return true;
+            }
+            int start = from;
+            int length = path.length();
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start >= length) {
+                return trailingSlash ? terminalWithSlash : terminal;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            Node child = find(path, start, end);
+            if (child != null && child.matches(path, end, trailingSlash)) {
+                return true;
+            }
+            return wildcard != null && wildcard.matches(path, end, trailingSlash);
+        }
+
+        private Node wildcardChild() {
+            if (wildcard == null) {
+                wildcard = new Node();
+            }
+            return wildcard;
+        }
+
+        private Node literalChild(String key) {
+            Node existing = find(key, 0, key.length());
+            if (existing != null) {
+                return existing;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            Node child = new Node();
+            put(key, hash(key, 0, key.length()), child);
+            return child;
+        }
+
+        private Node find(String source, int start, int end) {
+            int hash = hash(source, start, end);
+            int mask = keys.length - 1;
+            int length = end - start;
+            for (int index = hash & mask; keys[index] != null; index = (index + 1) & mask) {
+                if (hashes[index] == hash && keys[index].length() == length
+                        && keys[index].regionMatches(0, source, start, length)) {
+                    return children[index];
+                }
+            }
+            return null;
+        }
+
+        private void put(String key, int hash, Node child) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            hashes[index] = hash;
+            children[index] = child;
+            size++;
+        }
+
+        private void resize() {
+            String[] oldKeys = keys;
+            int[] oldHashes = hashes;
+            Node[] oldChildren = children;
+            keys = new String[oldKeys.length * 2];
+            hashes = new int[oldKeys.length * 2];
+            children = new Node[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    put(oldKeys[i], oldHashes[i], oldChildren[i]);
+                }
+            }
+        }
+
+        private static int hash(String source, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + source.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean containsWildcard(String token) {
+            return token.indexOf('*') >= 0 || token.indexOf('?') >= 0 || token.indexOf('{') >= 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+
+@Component
+public class RedisRevocationStore implements RevocationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRevocationStore.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final JwtProperties.Revocation properties;
+    private final Clock clock = Clock.systemUTC();
+
+    public RedisRevocationStore(ReactiveStringRedisTemplate redisTemplate, JwtProperties jwtProperties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = jwtProperties.revocation();
+    }
+
+    @Override
+    public Flux<RevokedToken> loadAll() {
+        // Expired members are dropped first so the set never grows beyond the tokens that could still be used
+        double now = clock.instant().getEpochSecond();
+        return redisTemplate.opsForZSet()
+                .removeRangeByScore(properties.key(), Range.closed(0d, now))
+                .thenMany(redisTemplate.opsForZSet().rangeByScoreWithScores(properties.key(), Range.unbounded()))
+                .filter(tuple -> tuple.getValue() != null && tuple.getScore() != null)
+                .map(tuple -> new RevokedToken(tuple.getValue(), Instant.ofEpochSecond(tuple.getScore().longValue())));
+    }
+
+    @Override
+    public Flux<RevokedToken> revocations() {
+        return redisTemplate.listenToChannel(properties.channel())
+                .mapNotNull(message -> parse(message.getMessage()));
+    }
+
+    @Override
+    public Mono<Void> revoke(RevokedToken token) {
+        return redisTemplate.opsForZSet()
+                .add(properties.key(), token.tokenId(), token.expiresAt().getEpochSecond())
+                .then(redisTemplate.convertAndSend(properties.channel(), format(token)))
+                .then();
+    }
+
+    static String format(RevokedToken token) {
+        return token.expiresAt().getEpochSecond() + ":" + token.tokenId();
+    }
+
+    static RevokedToken parse(String message) {
+        int separator = message == null ? -1 : message.indexOf(':');
+        if (separator <= 0 || separator == message.length() - 1) {
+            log.warn("Ignoring malformed token revocation message: {}", message);
+            return null;
+        }
+        try {
+            long expiresAt = Long.parseLong(message, 0, separator, 10);
+            return new RevokedToken(message.substring(separator + 1), Instant.ofEpochSecond(expiresAt));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed token revocation message: {}", message);
+            return null;
+        }
+    }
+}
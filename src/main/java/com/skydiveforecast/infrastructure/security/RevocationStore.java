@@ -0,0 +1,15 @@
+package com.skydiveforecast.infrastructure.security;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface RevocationStore {
+
+    // Every revocation that has not expired yet, used for the periodic full resync
+    Flux<RevokedToken> loadAll();
+
+    // Revocations published after subscription
+    Flux<RevokedToken> revocations();
+
+    Mono<Void> revoke(RevokedToken token);
+}
@@ -0,0 +1,15 @@
+package com.skydiveforecast.infrastructure.security;
+
+import java.time.Instant;
+
+// A revoked token id (jti); the entry is only kept until the token would have expired anyway
+public record RevokedToken(String tokenId, Instant expiresAt) {
+    public RevokedToken {
+        if (tokenId == null || tokenId.isBlank()) {
+            throw new IllegalArgumentException("Revoked token id must not be blank");
+        }
+        if (expiresAt == null) {
+            throw new IllegalArgumentException("Revoked token expiry must not be null");
+        }
+    }
+}
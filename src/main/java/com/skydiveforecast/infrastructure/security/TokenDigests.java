@@ -0,0 +1,29 @@
+package com.skydiveforecast.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+final class TokenDigests {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private TokenDigests() {
+    }
+
+    // Raw tokens are never kept as cache keys, only their SHA-256 digest
+    static String sha256(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return ENCODER.encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.skydiveforecast.infrastructure.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Local mirror of the revoked token ids held in the RevocationStore. A Bloom filter answers the common
+// "not revoked" case without leaving the JVM; the exact set confirms the rare positive.
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final JwtProperties.Revocation properties;
+    private final RevocationStore store;
+    private final Clock clock;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private Disposable subscription;
+    private Disposable resync;
+
+    @Autowired
+    public TokenRevocationList(JwtProperties properties, RevocationStore store) {
+        this(properties.revocation(), store, Clock.systemUTC());
+    }
+
+    TokenRevocationList(JwtProperties.Revocation properties, RevocationStore store, Clock clock) {
+        this.properties = properties;
+        this.store = store;
+        this.clock = clock;
+        this.bloomFilter = new BloomFilter(properties.expectedTokens(), properties.falsePositiveRate());
+    }
+
+    // Used where revocation is not wired in, e.g. a JwtService built outside the application context
+    static TokenRevocationList disabled() {
+        return new TokenRevocationList(new JwtProperties.Revocation(false, null, null, null, 0, 0), null,
+                Clock.systemUTC());
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled() || store == null) {
+            return;
+        }
+        subscription = store.revocations()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(this::add, e -> log.error("Token revocation subscription terminated", e));
+        resync = Flux.interval(Duration.ZERO, properties.resyncInterval(), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> resync().onErrorResume(e -> {
+                    log.warn("Failed to resync revoked tokens, keeping {} known entries: {}",
+                            revoked.size(), e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (resync != null) {
+            resync.dispose();
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    synchronized void add(RevokedToken token) {
+        if (token.expiresAt().isBefore(clock.instant())) {
+            return;
+        }
+        revoked.put(token.tokenId(), token.expiresAt());
+        bloomFilter.put(token.tokenId());
+    }
+
+    Mono<Void> resync() {
+        return store.loadAll()
+                .collectList()
+                .doOnNext(this::replace)
+                .then();
+    }
+
+    // Revocations are never withdrawn, so the store snapshot is merged with what pub/sub delivered meanwhile;
+    // entries only leave once expired, which is also the only way the Bloom filter is rebuilt smaller
+    private synchronized void replace(List<RevokedToken> tokens) {
+        Instant now = clock.instant();
+        for (RevokedToken token : tokens) {
+            revoked.put(token.tokenId(), token.expiresAt());
+        }
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(properties.expectedTokens(), 2L * revoked.size()),
+                properties.falsePositiveRate());
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        log.debug("Resynced revoked tokens: {} active entries", revoked.size());
+    }
+}
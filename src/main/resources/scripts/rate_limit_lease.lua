@@ -0,0 +1,30 @@
+-- Shared token bucket for the hybrid rate limiter: refills at rate tokens per second up to capacity and grants up
+-- to the requested lease in one atomic step. Uses the Redis server clock so all gateway nodes agree on time.
+local tokens_key = KEYS[1]
+local timestamp_key = KEYS[2]
+
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) + tonumber(time[2]) / 1000000
+local ttl = math.max(1, math.ceil(capacity / rate * 2))
+
+local last_tokens = tonumber(redis.call('get', tokens_key))
+if last_tokens == nil then
+  last_tokens = capacity
+end
+
+local last_refreshed = tonumber(redis.call('get', timestamp_key))
+if last_refreshed == nil then
+  last_refreshed = now
+end
+
+local available = math.min(capacity, last_tokens + math.max(0, now - last_refreshed) * rate)
+local granted = math.max(0, math.min(requested, math.floor(available)))
+
+redis.call('setex', tokens_key, ttl, tostring(available - granted))
+redis.call('setex', timestamp_key, ttl, tostring(now))
+
+return granted
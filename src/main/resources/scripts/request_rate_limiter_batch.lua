@@ -0,0 +1,43 @@
+-- Batched form of the gateway's request_rate_limiter.lua: KEYS holds a tokens/timestamp pair per check and ARGV a
+-- rate/capacity/requested triple per check. Checks run in order, so repeated keys in one batch see each other's
+-- writes. Returns a flat list of allowed/tokens_left pairs. Uses the Redis server clock, read once per batch.
+local now = tonumber(redis.call('TIME')[1])
+local results = {}
+
+for i = 1, #KEYS / 2 do
+  local tokens_key = KEYS[2 * i - 1]
+  local timestamp_key = KEYS[2 * i]
+  local rate = tonumber(ARGV[3 * i - 2])
+  local capacity = tonumber(ARGV[3 * i - 1])
+  local requested = tonumber(ARGV[3 * i])
+
+  local ttl = math.floor(capacity / rate * 2)
+
+  local last_tokens = tonumber(redis.call('get', tokens_key))
+  if last_tokens == nil then
+    last_tokens = capacity
+  end
+
+  local last_refreshed = tonumber(redis.call('get', timestamp_key))
+  if last_refreshed == nil then
+    last_refreshed = 0
+  end
+
+  local filled_tokens = math.min(capacity, last_tokens + math.max(0, now - last_refreshed) * rate)
+  local allowed_num = 0
+  local new_tokens = filled_tokens
+  if filled_tokens >= requested then
+    new_tokens = filled_tokens - requested
+    allowed_num = 1
+  end
+
+  if ttl > 0 then
+    redis.call('setex', tokens_key, ttl, new_tokens)
+    redis.call('setex', timestamp_key, ttl, now)
+  end
+
+  results[2 * i - 1] = allowed_num
+  results[2 * i] = new_tokens
+end
+
+return results
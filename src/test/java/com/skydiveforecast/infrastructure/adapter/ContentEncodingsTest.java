@@ -0,0 +1,62 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentEncodingsTest {
+
+    @Test
+    void acceptsGzip_shouldBeTrue_whenGzipIsListedAmongOthers() {
+        // Act & Assert
+        assertTrue(ContentEncodings.acceptsGzip(headers("br, gzip;q=0.8, deflate")));
+    }
+
+    @Test
+    void acceptsGzip_shouldBeFalse_whenGzipHasZeroQuality() {
+        // Act & Assert
+        assertFalse(ContentEncodings.acceptsGzip(headers("gzip;q=0, *;q=1")));
+    }
+
+    @Test
+    void acceptsGzip_shouldBeTrue_whenOnlyWildcardIsListed() {
+        // Act & Assert
+        assertTrue(ContentEncodings.acceptsGzip(headers("*")));
+    }
+
+    @Test
+    void acceptsGzip_shouldBeFalse_whenHeaderIsMissingOrIdentityOnly() {
+        // Act & Assert
+        assertFalse(ContentEncodings.acceptsGzip(new HttpHeaders()));
+        assertFalse(ContentEncodings.acceptsGzip(headers("identity")));
+    }
+
+    @Test
+    void gzip_shouldRoundTrip_andSkipBodiesThatDoNotShrink() throws IOException {
+        // Arrange
+        byte[] spec = "{\"paths\":{}}".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        byte[] compressed = ContentEncodings.gzip(spec);
+
+        // Assert
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(spec, in.readAllBytes());
+        }
+        assertTrue(compressed.length < spec.length / 10);
+        assertNull(ContentEncodings.gzip("{}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static HttpHeaders headers(String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return headers;
+    }
+}
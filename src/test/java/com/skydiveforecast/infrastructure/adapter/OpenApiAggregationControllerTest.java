@@ -1,19 +1,42 @@
 package com.skydiveforecast.infrastructure.adapter;
 
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 class OpenApiAggregationControllerTest {
 
+    private static final String USERS_SPEC = "{\"openapi\":\"3.0.1\",\"info\":{\"title\":\"Users API\"},\"servers\":[{\"url\":\"http://localhost:8081\"}],\"paths\":{\"/{id}\":{\"get\":{}}}}";
+
+    private static final String ANALYSES_SPEC = "{\"openapi\":\"3.0.1\",\"info\":{\"title\":\"Analyses API\"},\"paths\":{\"/forecasts\":{\"get\":{}}}}";
+
     private MockWebServer mockWebServer;
     private OpenApiAggregationController controller;
 
@@ -47,7 +70,7 @@ class OpenApiAggregationControllerTest {
                 .addHeader("Content-Type", "application/json"));
 
         // Act & Assert
-        StepVerifier.create(controller.getUsersApiDocs())
+        StepVerifier.create(respond(controller::getUsersApiDocs))
                 .assertNext(response -> {
                     assertTrue(response.contains("openapi"));
                     assertTrue(response.contains("API Gateway"));
@@ -64,7 +87,7 @@ class OpenApiAggregationControllerTest {
                 .addHeader("Content-Type", "application/json"));
 
         // Act & Assert
-        StepVerifier.create(controller.getAnalysesApiDocs())
+        StepVerifier.create(respond(controller::getAnalysesApiDocs))
                 .assertNext(response -> {
                     assertTrue(response.contains("openapi"));
                     assertTrue(response.contains("API Gateway"));
@@ -81,7 +104,7 @@ class OpenApiAggregationControllerTest {
                 .addHeader("Content-Type", "application/json"));
 
         // Act & Assert
-        StepVerifier.create(controller.getLocationsApiDocs())
+        StepVerifier.create(respond(controller::getLocationsApiDocs))
                 .assertNext(response -> {
                     assertTrue(response.contains("openapi"));
                     assertTrue(response.contains("API Gateway"));
@@ -97,7 +120,7 @@ class OpenApiAggregationControllerTest {
                 .setBody("Internal Server Error"));
 
         // Act & Assert
-        StepVerifier.create(controller.getUsersApiDocs())
+        StepVerifier.create(respond(controller::getUsersApiDocs))
                 .assertNext(response -> {
                     assertTrue(response.contains("Unavailable"));
                     assertTrue(response.contains("error"));
@@ -113,7 +136,7 @@ class OpenApiAggregationControllerTest {
                 .setBody("Not Found"));
 
         // Act & Assert
-        StepVerifier.create(controller.getAnalysesApiDocs())
+        StepVerifier.create(respond(controller::getAnalysesApiDocs))
                 .assertNext(response -> {
                     assertTrue(response.contains("Unavailable"));
                     assertTrue(response.contains("analyses"));
@@ -127,7 +150,7 @@ class OpenApiAggregationControllerTest {
         mockWebServer.shutdown();
 
         // Act & Assert
-        StepVerifier.create(controller.getLocationsApiDocs())
+        StepVerifier.create(respond(controller::getLocationsApiDocs))
                 .assertNext(response -> {
                     assertTrue(response.contains("Unavailable"));
                     assertTrue(response.contains("locations"));
@@ -144,11 +167,193 @@ class OpenApiAggregationControllerTest {
                 .addHeader("Content-Type", "application/json"));
 
         // Act & Assert
-        StepVerifier.create(controller.getUsersApiDocs())
+        StepVerifier.create(respond(controller::getUsersApiDocs))
                 .assertNext(response -> {
                     assertTrue(response.contains("http://localhost:8080"));
                     assertTrue(response.contains("API Gateway"));
                 })
                 .verifyComplete();
     }
+
+    @Test
+    void getUsersApiDocs_shouldServeFromCacheWithEtag_andAnswerNotModified() {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(USERS_SPEC)
+                .addHeader("Content-Type", "application/json"));
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/v3/api-docs/users"));
+        respond(controller::getUsersApiDocs, first).block();
+        String etag = first.getResponse().getHeaders().getETag();
+        MockServerWebExchange revalidation = MockServerWebExchange.from(MockServerHttpRequest.get("/v3/api-docs/users")
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        // Act
+        String body = respond(controller::getUsersApiDocs, revalidation).block();
+
+        // Assert
+        assertNotNull(etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidation.getResponse().getStatusCode());
+        assertTrue(body == null || body.isEmpty());
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void getUsersApiDocs_shouldKeepLastGoodCopy_whenRefreshFails() {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(USERS_SPEC)
+                .addHeader("Content-Type", "application/json"));
+        respond(controller::getUsersApiDocs).block();
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+
+        // Act
+        controller.refreshAll().block();
+        String body = respond(controller::getUsersApiDocs).block();
+
+        // Assert
+        assertTrue(body.contains("Users API"));
+        assertFalse(body.contains("Unavailable"));
+    }
+
+    @Test
+    void refreshAll_shouldRevalidateWithUpstreamEtag() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(controller, "analysisServiceUrl", "http://127.0.0.1:1");
+        ReflectionTestUtils.setField(controller, "locationServiceUrl", "http://127.0.0.1:1");
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(USERS_SPEC)
+                .addHeader("Content-Type", "application/json")
+                .addHeader("ETag", "\"users-v1\""));
+        respond(controller::getUsersApiDocs).block();
+        mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+
+        // Act
+        controller.refreshAll().block();
+        String body = respond(controller::getUsersApiDocs).block();
+
+        // Assert
+        mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+        RecordedRequest revalidation = mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("\"users-v1\"", revalidation.getHeader(HttpHeaders.IF_NONE_MATCH));
+        assertTrue(body.contains("API Gateway"));
+    }
+
+    @Test
+    void getMergedApiDocs_shouldReturnPartialDocWithWarning_andReuseIt_whenServiceIsDown() {
+        // Arrange
+        ReflectionTestUtils.setField(controller, "locationServiceUrl", "http://127.0.0.1:1");
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setBody(request.getPath().endsWith("/users") ? USERS_SPEC : ANALYSES_SPEC)
+                        .addHeader("Content-Type", "application/json");
+            }
+        });
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/v3/api-docs/merged"));
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/v3/api-docs/merged"));
+
+        // Act
+        String body = respond(controller::getMergedApiDocs, first).block();
+        respond(controller::getMergedApiDocs, second).block();
+
+        // Assert
+        assertTrue(body.contains("/api/v1/users/{id}"));
+        assertTrue(body.contains("/api/v1/analyses/forecasts"));
+        assertTrue(body.contains("x-gateway-warnings"));
+        assertTrue(body.contains("locations: Service unavailable"));
+        assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void getUsersApiDocs_shouldServeSnapshotAfterRestart_withoutCallingUpstream(@TempDir Path snapshotDir) {
+        // Arrange
+        ReflectionTestUtils.setField(controller, "snapshotDir", snapshotDir.toString());
+        controller.loadSnapshots();
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(USERS_SPEC)
+                .addHeader("Content-Type", "application/json"));
+        respond(controller::getUsersApiDocs).block();
+        OpenApiAggregationController restarted = new OpenApiAggregationController();
+        ReflectionTestUtils.setField(restarted, "userServiceUrl", "http://127.0.0.1:1");
+        ReflectionTestUtils.setField(restarted, "snapshotDir", snapshotDir.toString());
+
+        // Act
+        long start = System.nanoTime();
+        restarted.loadSnapshots();
+        String body = respond(restarted::getUsersApiDocs).block();
+        Duration timeToFirstDoc = Duration.ofNanos(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(body.contains("Users API"));
+        assertEquals(1, mockWebServer.getRequestCount());
+        // A cold start against a dead upstream would take the connect attempt and then serve the error doc
+        assertTrue(timeToFirstDoc.compareTo(Duration.ofMillis(500)) < 0, "time to first doc " + timeToFirstDoc);
+    }
+
+    @Test
+    void getUsersApiDocs_shouldApplyCurrentRewriteSettings_whenServingSnapshotAfterRestart(@TempDir Path snapshotDir) {
+        // Arrange
+        ReflectionTestUtils.setField(controller, "snapshotDir", snapshotDir.toString());
+        controller.loadSnapshots();
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(USERS_SPEC)
+                .addHeader("Content-Type", "application/json"));
+        assertFalse(respond(controller::getUsersApiDocs).block().contains("/api/v1/users/{id}"));
+        OpenApiAggregationController restarted = new OpenApiAggregationController();
+        ReflectionTestUtils.setField(restarted, "userServiceUrl", "http://127.0.0.1:1");
+        ReflectionTestUtils.setField(restarted, "snapshotDir", snapshotDir.toString());
+        ReflectionTestUtils.setField(restarted, "rewritePathPrefixes", true);
+
+        // Act
+        restarted.loadSnapshots();
+        String body = respond(restarted::getUsersApiDocs).block();
+
+        // Assert
+        assertTrue(body.contains("/api/v1/users/{id}"));
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void getUsersApiDocs_shouldServePrecompressedVariant_whenClientAcceptsGzip() throws IOException {
+        // Arrange
+        String spec = "{\"openapi\":\"3.0.1\",\"info\":{\"title\":\"Users API\"},\"paths\":{"
+                + "\"/{id}\":{\"get\":{\"summary\":\"" + "Get a jumper profile by id. ".repeat(50) + "\"}}}}";
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(spec)
+                .addHeader("Content-Type", "application/json"));
+        String identity = respond(controller::getUsersApiDocs).block();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/v3/api-docs/users")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"));
+
+        // Act
+        controller.getUsersApiDocs(exchange).block();
+        byte[] compressed = DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    return bytes;
+                })
+                .block();
+
+        // Assert
+        assertEquals("gzip", exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), exchange.getResponse().getHeaders().getVary());
+        assertTrue(compressed.length < identity.length());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(identity, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Mono<String> respond(Function<ServerWebExchange, Mono<Void>> handler) {
+        return respond(handler, MockServerWebExchange.from(MockServerHttpRequest.get("/v3/api-docs")));
+    }
+
+    private static Mono<String> respond(Function<ServerWebExchange, Mono<Void>> handler,
+                                        MockServerWebExchange exchange) {
+        return handler.apply(exchange).then(Mono.defer(() -> exchange.getResponse().getBodyAsString()));
+    }
 }
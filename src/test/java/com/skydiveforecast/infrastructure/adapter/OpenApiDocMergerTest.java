@@ -0,0 +1,90 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenApiDocMergerTest {
+
+    private static final String USERS_SPEC = """
+            {"openapi":"3.0.1","tags":[{"name":"profile","description":"User profiles"}],
+             "paths":{"/{id}":{"get":{"tags":["profile"],"responses":{"200":{"content":{"application/json":
+             {"schema":{"$ref":"#/components/schemas/Profile"}}}},"404":{"content":{"application/json":
+             {"schema":{"$ref":"#/components/schemas/Error"}}}}}}}},
+             "components":{"schemas":{"Profile":{"type":"object"},"Error":{"type":"object",
+             "properties":{"message":{"type":"string"}}}}}}""";
+
+    private static final String ANALYSES_SPEC = """
+            {"openapi":"3.0.1","tags":[{"name":"profile","description":"Wind profiles"}],
+             "paths":{"/{id}":{"get":{"tags":["profile"],"responses":{"404":{"content":{"application/json":
+             {"schema":{"$ref":"#/components/schemas/Error"}}}}}}}},
+             "components":{"schemas":{"Profile":{"type":"object"},"Error":{"type":"object",
+             "properties":{"code":{"type":"integer"}}}}}}""";
+
+    private final OpenApiDocMerger merger = new OpenApiDocMerger();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void merge_shouldPrefixPathsWithGatewayRoutes() throws IOException {
+        // Act
+        JsonNode merged = merge(Map.of());
+
+        // Assert
+        assertTrue(merged.path("paths").has("/api/v1/users/{id}"));
+        assertTrue(merged.path("paths").has("/api/v1/analyses/{id}"));
+        assertEquals("http://localhost:8080", merged.path("servers").get(0).path("url").asText());
+    }
+
+    @Test
+    void merge_shouldRenameClashingComponents_andRewriteTheirRefs() throws IOException {
+        // Act
+        JsonNode merged = merge(Map.of());
+
+        // Assert
+        JsonNode schemas = merged.path("components").path("schemas");
+        assertTrue(schemas.has("Error"));
+        assertTrue(schemas.has("analyses.Error"));
+        // Identical definitions are shared rather than duplicated
+        assertFalse(schemas.has("analyses.Profile"));
+        assertEquals("#/components/schemas/analyses.Error", merged.at(
+                "/paths/~1api~1v1~1analyses~1{id}/get/responses/404/content/application~1json/schema/$ref").asText());
+        assertEquals("#/components/schemas/Error", merged.at(
+                "/paths/~1api~1v1~1users~1{id}/get/responses/404/content/application~1json/schema/$ref").asText());
+    }
+
+    @Test
+    void merge_shouldRenameClashingTags_inTagListAndOperations() throws IOException {
+        // Act
+        JsonNode merged = merge(Map.of());
+
+        // Assert
+        assertEquals("profile", merged.path("tags").get(0).path("name").asText());
+        assertEquals("analyses.profile", merged.path("tags").get(1).path("name").asText());
+        assertEquals("analyses.profile", merged.at("/paths/~1api~1v1~1analyses~1{id}/get/tags/0").asText());
+    }
+
+    @Test
+    void merge_shouldListFailedServices_underWarningExtension() throws IOException {
+        // Act
+        JsonNode merged = merge(Map.of("locations", "Service unavailable: Connection refused"));
+
+        // Assert
+        JsonNode warnings = merged.path(OpenApiDocMerger.WARNINGS_EXTENSION);
+        assertEquals(1, warnings.size());
+        assertEquals("locations: Service unavailable: Connection refused", warnings.get(0).asText());
+    }
+
+    private JsonNode merge(Map<String, String> failures) throws IOException {
+        Map<String, byte[]> specs = new LinkedHashMap<>();
+        specs.put("users", USERS_SPEC.getBytes(StandardCharsets.UTF_8));
+        specs.put("analyses", ANALYSES_SPEC.getBytes(StandardCharsets.UTF_8));
+        return objectMapper.readTree(merger.merge(specs, failures));
+    }
+}
@@ -0,0 +1,70 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenApiSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadAll_shouldReturnSavedSnapshots_withUpstreamEtag() throws IOException {
+        // Arrange
+        OpenApiSnapshotStore store = new OpenApiSnapshotStore(directory.resolve("openapi"));
+        store.save("users", new OpenApiSnapshotStore.Snapshot(bytes("{\"openapi\":\"3.0.1\"}"), "\"users-v1\""));
+        store.save("analyses", new OpenApiSnapshotStore.Snapshot(bytes("{\"paths\":{}}"), null));
+
+        // Act
+        Map<String, OpenApiSnapshotStore.Snapshot> snapshots = store.loadAll(List.of("users", "analyses", "locations"));
+
+        // Assert
+        assertEquals(2, snapshots.size());
+        assertEquals("{\"openapi\":\"3.0.1\"}", new String(snapshots.get("users").body(), StandardCharsets.UTF_8));
+        assertEquals("\"users-v1\"", snapshots.get("users").upstreamEtag());
+        assertNull(snapshots.get("analyses").upstreamEtag());
+    }
+
+    @Test
+    void save_shouldReplaceSnapshot_withoutLeavingTempFiles() throws IOException {
+        // Arrange
+        OpenApiSnapshotStore store = new OpenApiSnapshotStore(directory);
+        store.save("users", new OpenApiSnapshotStore.Snapshot(bytes("{\"v\":1}"), null));
+
+        // Act
+        store.save("users", new OpenApiSnapshotStore.Snapshot(bytes("{\"v\":2}"), null));
+
+        // Assert
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(directory.resolve("users.upstream.json.gz")), files.toList());
+        }
+        assertEquals("{\"v\":2}",
+                new String(store.loadAll(List.of("users")).get("users").body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void loadAll_shouldSkipCorruptSnapshots() throws IOException {
+        // Arrange
+        Files.write(directory.resolve("users.upstream.json.gz"), bytes("not gzip"));
+        OpenApiSnapshotStore store = new OpenApiSnapshotStore(directory);
+
+        // Act
+        Map<String, OpenApiSnapshotStore.Snapshot> snapshots = store.loadAll(List.of("users"));
+
+        // Assert
+        assertTrue(snapshots.isEmpty());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.skydiveforecast.infrastructure.adapter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenApiSpecRewriterTest {
+
+    private static final String GATEWAY_SERVERS =
+            "\"servers\":[{\"url\":\"http://localhost:8080\",\"description\":\"API Gateway\"}]";
+
+    private final OpenApiSpecRewriter rewriter = new OpenApiSpecRewriter();
+
+    @Test
+    void rewrite_shouldReplaceTopLevelServers_whenServersHaveNestedVariables() {
+        // Arrange
+        String spec = """
+                {"openapi":"3.0.1","servers":[{"url":"http://{host}:8081","variables":{"host":{"default":"users",\
+                "enum":["users","users-canary"]}}}],"paths":{}}""";
+
+        // Act
+        String rewritten = rewrite(spec, 64, null);
+
+        // Assert
+        assertEquals("{\"openapi\":\"3.0.1\"," + GATEWAY_SERVERS + ",\"paths\":{}}", rewritten);
+    }
+
+    @Test
+    void rewrite_shouldKeepServersBelowTopLevel() {
+        // Arrange
+        String spec = """
+                {"servers":[{"url":"http://localhost:8081"}],"paths":{"/{id}":{"get":{"servers":[{"url":"http://cdn"}]}}}}""";
+
+        // Act
+        String rewritten = rewrite(spec, 64, null);
+
+        // Assert
+        assertEquals("{" + GATEWAY_SERVERS + ",\"paths\":{\"/{id}\":{\"get\":{\"servers\":[{\"url\":\"http://cdn\"}]}}}}",
+                rewritten);
+    }
+
+    @Test
+    void rewrite_shouldPrefixPaths_whenPrefixIsGiven() {
+        // Arrange
+        String spec = """
+                {"paths":{"/{id}":{"get":{}},"/api/v1/users/me":{"get":{}}},"components":{"schemas":{"/{id}":{}}}}""";
+
+        // Act
+        String rewritten = rewrite(spec, 64, "/api/v1/users");
+
+        // Assert
+        assertEquals("{\"paths\":{\"/api/v1/users/{id}\":{\"get\":{}},\"/api/v1/users/me\":{\"get\":{}}},"
+                + "\"components\":{\"schemas\":{\"/{id}\":{}}}}", rewritten);
+    }
+
+    @Test
+    void rewrite_shouldProduceSameOutput_whenTokensAreSplitAcrossBuffers() {
+        // Arrange
+        String spec = """
+                {"openapi":"3.0.1","info":{"title":"Łódź drop zones","version":"1.0"},\
+                "servers":[{"url":"http://localhost:8083"}],"paths":{"/zones":{"get":{"x-max":1.10E+3,\
+                "x-big":12345678901234567890123}}}}""";
+
+        // Act
+        String whole = rewrite(spec, 4096, null);
+        String byteByByte = rewrite(spec, 1, null);
+
+        // Assert
+        assertEquals(whole, byteByByte);
+        assertTrue(whole.contains("\"x-max\":1.10E+3"));
+        assertTrue(whole.contains("\"x-big\":12345678901234567890123"));
+        assertTrue(whole.contains("Łódź drop zones"));
+    }
+
+    @Test
+    void rewrite_shouldFail_whenDocumentIsTruncated() {
+        // Arrange
+        String spec = "{\"openapi\":\"3.0.1\",\"paths\":{";
+
+        // Act & Assert
+        StepVerifier.create(rewriter.rewrite(buffers(spec, 8), null))
+                .expectError()
+                .verify();
+    }
+
+    private String rewrite(String spec, int chunkSize, String pathPrefix) {
+        byte[] rewritten = rewriter.rewrite(buffers(spec, chunkSize), pathPrefix).block();
+        return new String(rewritten, StandardCharsets.UTF_8);
+    }
+
+    private static Flux<DataBuffer> buffers(String spec, int chunkSize) {
+        byte[] bytes = spec.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, bytes.length - offset);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(bytes, offset, offset + length)));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
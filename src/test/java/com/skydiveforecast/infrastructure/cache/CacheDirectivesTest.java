@@ -0,0 +1,46 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheDirectivesTest {
+
+    @Test
+    void parse_shouldReadAgesAndFlags_whenHeaderHasSeveralDirectives() {
+        // Act
+        CacheDirectives directives = CacheDirectives.parse(
+                List.of("public, max-age=60, S-MAXAGE=\"120\"", "stale-while-revalidate=30, must-revalidate"));
+
+        // Assert
+        assertEquals(60, directives.maxAge());
+        assertEquals(120, directives.sMaxAge());
+        assertEquals(30, directives.staleWhileRevalidate());
+        assertTrue(directives.mustRevalidate());
+        assertFalse(directives.noStore());
+        assertFalse(directives.isPrivate());
+    }
+
+    @Test
+    void parse_shouldTreatFieldQualifiedDirectivesAsUnqualified_whenArgumentsArePresent() {
+        // Act
+        CacheDirectives directives = CacheDirectives.parse(List.of("private=\"X-User-Id\", no-cache=\"Set-Cookie\""));
+
+        // Assert
+        assertTrue(directives.isPrivate());
+        assertTrue(directives.noCache());
+    }
+
+    @Test
+    void parse_shouldIgnoreMalformedAges_whenValueIsNotANumber() {
+        // Act
+        CacheDirectives directives = CacheDirectives.parse(List.of("max-age=soon, no-store"));
+
+        // Assert
+        assertEquals(-1, directives.maxAge());
+        assertTrue(directives.noStore());
+        assertSame(CacheDirectives.NONE, CacheDirectives.parse(null));
+    }
+}
@@ -0,0 +1,81 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoQuantizeGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final GeoQuantizeGatewayFilterFactory factory = new GeoQuantizeGatewayFilterFactory(meterRegistry,
+            clock::get);
+
+    @Test
+    void apply_shouldForwardQuantizedQuery_whenRouteIsEnabled() {
+        // Arrange
+        GatewayFilter filter = factory.apply(config());
+
+        // Act
+        ServerWebExchange forwarded = forward(filter, "/api/v1/analyses/forecast?lat=49.5325&lon=13.3501&hours=6");
+
+        // Assert
+        assertEquals("/api/v1/analyses/forecast?lat=49.5346&lon=13.3539&hours=6",
+                forwarded.getRequest().getURI().toString());
+        assertEquals("49.5346", forwarded.getRequest().getQueryParams().getFirst("lat"));
+        assertEquals(1, meterRegistry.get("gateway.geoquantize.rewrites").tag("route", "analyses").counter().count());
+    }
+
+    @Test
+    void apply_shouldLeaveRequestUntouched_whenRouteIsDisabled() {
+        // Arrange
+        GatewayFilter filter = factory.apply(config().setEnabled(false));
+
+        // Act
+        ServerWebExchange forwarded = forward(filter, "/api/v1/analyses/forecast?lat=49.5325&lon=13.3501");
+
+        // Assert
+        assertEquals("/api/v1/analyses/forecast?lat=49.5325&lon=13.3501", forwarded.getRequest().getURI().toString());
+        assertTrue(meterRegistry.find("gateway.geoquantize.keys").gauges().isEmpty());
+    }
+
+    @Test
+    void apply_shouldReportKeyReduction_whenNearbyClientsCollapseToOneKey() {
+        // Arrange
+        GatewayFilter filter = factory.apply(config());
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            forward(filter, "/api/v1/analyses/forecast?lat=49.533" + i + "&lon=13.351" + i);
+        }
+
+        // Assert
+        assertEquals(10, meterRegistry.get("gateway.geoquantize.keys").tag("stage", "raw").gauge().value(), 0.5);
+        assertEquals(1, meterRegistry.get("gateway.geoquantize.keys").tag("stage", "quantized").gauge().value(), 0.5);
+        assertEquals(0.9, meterRegistry.get("gateway.geoquantize.key.reduction").gauge().value(), 0.05);
+    }
+
+    private static GeoQuantizeGatewayFilterFactory.Config config() {
+        GeoQuantizeGatewayFilterFactory.Config config = new GeoQuantizeGatewayFilterFactory.Config();
+        config.setRouteId("analyses");
+        return config;
+    }
+
+    private static ServerWebExchange forward(GatewayFilter filter, String uri) {
+        AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get(uri)), exchange -> {
+            forwarded.set(exchange);
+            return Mono.empty();
+        }).block();
+        return forwarded.get();
+    }
+}
@@ -0,0 +1,80 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoQuantizerTest {
+
+    private final GeoQuantizer geohash = GeoQuantizer.geohash(6, Duration.ofHours(1), Set.of("lat"), Set.of("lon"),
+            Set.of("time", "from"), Set.of("to"));
+
+    @Test
+    void quantize_shouldSnapNearbyCoordinatesToSameCell_whenUsingGeohashCells() {
+        // Act
+        String first = geohash.quantize("lat=49.5325&lon=13.3501");
+        String second = geohash.quantize("lat=49.5339&lon=13.3519");
+
+        // Assert
+        assertEquals("lat=49.5346&lon=13.3539", first);
+        assertEquals(first, second);
+    }
+
+    @Test
+    void quantize_shouldSnapToGridCentre_whenUsingGrid() {
+        // Arrange
+        GeoQuantizer grid = new GeoQuantizer(0.01, 0.01, Duration.ofHours(3), Set.of("lat"), Set.of("lon"),
+                Set.of("time"), Set.of());
+
+        // Act
+        String quantized = grid.quantize("lat=49.5312&lon=-13.3501&time=1760609820123");
+
+        // Assert
+        assertEquals("lat=49.535&lon=-13.355&time=1760605200000", quantized);
+    }
+
+    @Test
+    void quantize_shouldRoundRangeOutwards_whenTimesFallBetweenModelSteps() {
+        // Act
+        String quantized = geohash.quantize("from=2026-10-16T10:17:00%2B02:00&to=1760609820");
+
+        // Assert
+        assertEquals("from=2026-10-16T10%3A00%3A00%2B02%3A00&to=1760612400", quantized);
+    }
+
+    @Test
+    void quantize_shouldKeepQueryAsIs_whenNothingNeedsQuantizing() {
+        // Arrange
+        String query = "lat=91&lon=east&time=tomorrow&to=2026-10-16T11:00:00Z&hours=6&x=%ZZ";
+
+        // Act
+        String quantized = geohash.quantize(query);
+
+        // Assert
+        assertSame(query, quantized);
+    }
+
+    @Test
+    void quantize_shouldKeepTimeAsIs_whenDigitsAreNotEpochSecondsOrMillis() {
+        // Arrange
+        String query = "time=20250101&from=1760609&to=17606098201234";
+
+        // Act
+        String quantized = geohash.quantize(query);
+
+        // Assert
+        assertSame(query, quantized);
+    }
+
+    @Test
+    void quantize_shouldKeepOtherParametersByteForByte_whenCoordinatesChange() {
+        // Act
+        String quantized = geohash.quantize("model=icon-d2&lat=49.5325&note=a%2Bb&lon=13.3501&flag");
+
+        // Assert
+        assertEquals("model=icon-d2&lat=49.5346&note=a%2Bb&lon=13.3539&flag", quantized);
+    }
+}
@@ -0,0 +1,40 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_shouldStayWithinFivePercent_whenCountingManyDistinctKeys() {
+        // Arrange
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            hyperLogLog.add("/api/v1/analyses/forecast?lat=" + i);
+            hyperLogLog.add("/api/v1/analyses/forecast?lat=" + i);
+        }
+
+        // Assert
+        assertEquals(100_000, hyperLogLog.estimate(), 5_000);
+    }
+
+    @Test
+    void estimate_shouldBeExactEnough_whenFewKeysWereAdded() {
+        // Arrange
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            hyperLogLog.add("dropzone-" + i);
+        }
+        long beforeClear = hyperLogLog.estimate();
+        hyperLogLog.clear();
+
+        // Assert
+        assertEquals(50, beforeClear, 2);
+        assertEquals(0, hyperLogLog.estimate());
+    }
+}
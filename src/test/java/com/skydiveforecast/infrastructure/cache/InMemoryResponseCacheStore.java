@@ -0,0 +1,48 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-process stand-in for RedisResponseCacheStore that round-trips entries through the same codec
+class InMemoryResponseCacheStore implements ResponseCacheStore {
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, Duration> ttls = new ConcurrentHashMap<>();
+    private final AtomicInteger gets = new AtomicInteger();
+    private volatile boolean failing;
+
+    @Override
+    public Mono<CachedResponse> get(String key) {
+        gets.incrementAndGet();
+        if (failing) {
+            return Mono.error(new IllegalStateException("Redis unavailable"));
+        }
+        return Mono.justOrEmpty(values.get(key)).mapNotNull(CachedResponseCodec::decode);
+    }
+
+    @Override
+    public Mono<Void> put(String key, CachedResponse response, Duration ttl) {
+        if (failing) {
+            return Mono.error(new IllegalStateException("Redis unavailable"));
+        }
+        values.put(key, CachedResponseCodec.encode(response));
+        ttls.put(key, ttl);
+        return Mono.empty();
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    int gets() {
+        return gets.get();
+    }
+
+    Duration ttl(String key) {
+        return ttls.get(key);
+    }
+}
@@ -0,0 +1,292 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import com.skydiveforecast.infrastructure.security.AuthenticatedPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+
+    private static final String FORECAST = "{\"dropzone\":\"Klatovy\",\"windKnots\":12}";
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCache cache = new ResponseCache(ResponseCacheProperties.defaults(), null, meterRegistry,
+            clock::get);
+    private final Backend backend = new Backend();
+
+    @Test
+    void filter_shouldServeSecondRequestFromCache_whenResponseIsCacheable() {
+        // Arrange
+        ResponseCacheFilter filter = filter(new ResponseCacheGatewayFilterFactory.Config());
+
+        // Act
+        MockServerWebExchange miss = send(filter, get("/api/v1/analyses/forecast?dropzone=7"));
+        MockServerWebExchange hit = send(filter, get("/api/v1/analyses/forecast?dropzone=7"));
+
+        // Assert
+        assertEquals(1, backend.calls.size());
+        assertEquals("MISS", miss.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("HIT", hit.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(HttpStatus.OK, hit.getResponse().getStatusCode());
+        assertEquals(FORECAST, hit.getResponse().getBodyAsString().block());
+        assertEquals("\"forecast-1\"", hit.getResponse().getHeaders().getETag());
+        assertEquals(0.5, meterRegistry.get("gateway.responsecache.hit.ratio").gauge().value());
+        assertEquals(FORECAST.length(), meterRegistry.get("gateway.responsecache.bytes.saved").counter().count());
+    }
+
+    @Test
+    void filter_shouldShareEntry_whenQueryParametersAreReordered() {
+        // Arrange
+        ResponseCacheFilter filter = filter(new ResponseCacheGatewayFilterFactory.Config());
+
+        // Act
+        send(filter, get("/api/v1/analyses/forecast?lat=49.5&lon=13.3&hours=6"));
+        MockServerWebExchange reordered = send(filter, get("/api/v1/analyses/forecast?hours=6&lon=13.3&lat=49.5"));
+
+        // Assert
+        assertEquals(1, backend.calls.size());
+        assertEquals("HIT", reordered.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+    }
+
+    @Test
+    void filter_shouldKeepEntriesPerUser_unlessRouteIsShared() {
+        // Arrange
+        ResponseCacheFilter perUser = filter(new ResponseCacheGatewayFilterFactory.Config());
+        ResponseCacheFilter shared = filter(new ResponseCacheGatewayFilterFactory.Config().setShared(true));
+
+        // Act
+        send(perUser, asUser(get("/api/v1/locations/dropzones"), 42L));
+        send(perUser, asUser(get("/api/v1/locations/dropzones"), 43L));
+        send(shared, asUser(get("/api/v1/locations/dropzones/7"), 42L));
+        send(shared, asUser(get("/api/v1/locations/dropzones/7"), 43L));
+
+        // Assert
+        assertEquals(3, backend.calls.size());
+    }
+
+    @Test
+    void filter_shouldAnswerNotModified_whenClientEtagMatchesCachedEntry() {
+        // Arrange
+        ResponseCacheFilter filter = filter(new ResponseCacheGatewayFilterFactory.Config());
+        send(filter, get("/api/v1/analyses/forecast"));
+
+        // Act
+        MockServerWebExchange revalidated = send(filter, get("/api/v1/analyses/forecast")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"forecast-1\""));
+
+        // Assert
+        assertEquals(1, backend.calls.size());
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+        assertEquals("", revalidated.getResponse().getBodyAsString().defaultIfEmpty("").block());
+    }
+
+    @Test
+    void filter_shouldNotStore_whenResponseForbidsIt() {
+        // Arrange
+        ResponseCacheFilter shared = filter(new ResponseCacheGatewayFilterFactory.Config().setShared(true));
+
+        // Act
+        backend.cacheControl = "no-store";
+        send(shared, get("/api/v1/analyses/forecast"));
+        send(shared, get("/api/v1/analyses/forecast"));
+        backend.cacheControl = "private, max-age=60";
+        send(shared, get("/api/v1/analyses/forecast"));
+        send(shared, get("/api/v1/analyses/forecast"));
+
+        // Assert
+        assertEquals(4, backend.calls.size());
+    }
+
+    @Test
+    void filter_shouldFollowUpstreamMaxAge_whenCacheControlIsPresent() {
+        // Arrange
+        ResponseCacheFilter filter = filter(new ResponseCacheGatewayFilterFactory.Config()
+                .setStaleWhileRevalidate(Duration.ZERO));
+        backend.cacheControl = "max-age=5";
+        send(filter, get("/api/v1/analyses/forecast"));
+
+        // Act
+        clock.addAndGet(4_000);
+        send(filter, get("/api/v1/analyses/forecast"));
+        clock.addAndGet(2_000);
+        send(filter, get("/api/v1/analyses/forecast"));
+
+        // Assert
+        assertEquals(2, backend.calls.size());
+    }
+
+    @Test
+    void filter_shouldServeStaleAndRevalidateInBackground_whenEntryIsInStaleWindow() {
+        // Arrange
+        ResponseCacheFilter filter = filter(new ResponseCacheGatewayFilterFactory.Config()
+                .setTtl(Duration.ofSeconds(10))
+                .setStaleWhileRevalidate(Duration.ofSeconds(30)));
+        send(filter, get("/api/v1/analyses/forecast"));
+        clock.addAndGet(15_000);
+
+        // Act
+        MockServerWebExchange stale = send(filter, get("/api/v1/analyses/forecast"));
+        MockServerWebExchange refreshed = send(filter, get("/api/v1/analyses/forecast"));
+
+        // Assert
+        assertEquals("STALE", stale.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("15", stale.getResponse().getHeaders().getFirst(HttpHeaders.AGE));
+        assertEquals(FORECAST, stale.getResponse().getBodyAsString().block());
+        assertEquals(2, backend.calls.size());
+        assertEquals("\"forecast-1\"", backend.calls.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(1, meterRegistry.get("gateway.responsecache.revalidations")
+                .tag("outcome", "not_modified").counter().count());
+        assertEquals("HIT", refreshed.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("0", refreshed.getResponse().getHeaders().getFirst(HttpHeaders.AGE));
+    }
+
+    @Test
+    void filter_shouldStoreVariantsSeparately_whenResponseVaries() {
+        // Arrange
+        ResponseCacheFilter filter = filter(new ResponseCacheGatewayFilterFactory.Config());
+        backend.vary = HttpHeaders.ACCEPT_LANGUAGE;
+
+        // Act
+        send(filter, get("/api/v1/locations/dropzones").header(HttpHeaders.ACCEPT_LANGUAGE, "cs"));
+        send(filter, get("/api/v1/locations/dropzones").header(HttpHeaders.ACCEPT_LANGUAGE, "en"));
+        MockServerWebExchange czech = send(filter, get("/api/v1/locations/dropzones")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "cs"));
+
+        // Assert
+        assertEquals(2, backend.calls.size());
+        assertEquals("HIT", czech.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+    }
+
+    @Test
+    void filter_shouldKeepLiveRateLimitHeaders_whenEarlierFilterSetThem() {
+        // Arrange
+        ResponseCacheFilter shared = filter(new ResponseCacheGatewayFilterFactory.Config().setShared(true));
+        MockServerWebExchange first = MockServerWebExchange.from(get("/api/v1/locations/dropzones"));
+        first.getResponse().getHeaders().set("X-RateLimit-Remaining", "9");
+        send(shared, first);
+        MockServerWebExchange second = MockServerWebExchange.from(get("/api/v1/locations/dropzones"));
+        second.getResponse().getHeaders().set("X-RateLimit-Remaining", "4");
+
+        // Act
+        send(shared, second);
+        MockServerWebExchange third = send(shared, get("/api/v1/locations/dropzones"));
+
+        // Assert
+        assertEquals(1, backend.calls.size());
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(List.of("4"), second.getResponse().getHeaders().get("X-RateLimit-Remaining"));
+        assertNull(third.getResponse().getHeaders().getFirst("X-RateLimit-Remaining"));
+        assertEquals("\"forecast-1\"", third.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void filter_shouldNotStoreRateLimitHeaders_whenLaterFilterSetsThem() {
+        // Arrange
+        ResponseCacheFilter shared = filter(new ResponseCacheGatewayFilterFactory.Config().setShared(true));
+        backend.rateLimitRemaining = "9";
+        send(shared, get("/api/v1/locations/dropzones"));
+
+        // Act
+        MockServerWebExchange hit = send(shared, get("/api/v1/locations/dropzones"));
+
+        // Assert
+        assertEquals(1, backend.calls.size());
+        assertNull(hit.getResponse().getHeaders().getFirst("X-RateLimit-Remaining"));
+    }
+
+    @Test
+    void filter_shouldBypassCache_whenClientSendsNoStore() {
+        // Arrange
+        ResponseCacheFilter filter = filter(new ResponseCacheGatewayFilterFactory.Config());
+        send(filter, get("/api/v1/analyses/forecast"));
+
+        // Act
+        send(filter, get("/api/v1/analyses/forecast").header(HttpHeaders.CACHE_CONTROL, "no-store"));
+
+        // Assert
+        assertEquals(2, backend.calls.size());
+        assertEquals(1, meterRegistry.get("gateway.responsecache.lookups").tag("result", "bypass").counter().count());
+    }
+
+    private ResponseCacheFilter filter(ResponseCacheGatewayFilterFactory.Config config) {
+        return new ResponseCacheFilter(cache, ResponseCacheProperties.defaults(), config);
+    }
+
+    private MockServerWebExchange send(ResponseCacheFilter filter, MockServerHttpRequest.BaseBuilder<?> request) {
+        return send(filter, MockServerWebExchange.from(request));
+    }
+
+    private MockServerWebExchange send(ResponseCacheFilter filter, MockServerWebExchange exchange) {
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("analyses")
+                .uri("http://analyses:8082")
+                .predicate(any -> true)
+                .build());
+        filter.filter(exchange, backend).block();
+        return exchange;
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> get(String uri) {
+        return MockServerHttpRequest.get(uri);
+    }
+
+    private static MockServerWebExchange asUser(MockServerHttpRequest.BaseBuilder<?> request, long userId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(AuthenticatedPrincipal.EXCHANGE_ATTRIBUTE, new AuthenticatedPrincipal(
+                "jumper" + userId + "@example.com", userId, List.of("USER"), List.of(), Instant.now().plusSeconds(300)));
+        return exchange;
+    }
+
+    // Stands in for the routing filters: answers 304 to a matching If-None-Match, otherwise the forecast
+    private static final class Backend implements GatewayFilterChain {
+
+        private final List<HttpHeaders> calls = new ArrayList<>();
+        private String cacheControl;
+        private String vary;
+        private String rateLimitRemaining;
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+            calls.add(requestHeaders);
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setETag("\"forecast-1\"");
+            if ("\"forecast-1\"".equals(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                return response.setComplete();
+            }
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+            if (cacheControl != null) {
+                response.getHeaders().set(HttpHeaders.CACHE_CONTROL, cacheControl);
+            }
+            if (vary != null) {
+                response.getHeaders().set(HttpHeaders.VARY, vary);
+            }
+            if (rateLimitRemaining != null) {
+                response.getHeaders().set("X-RateLimit-Remaining", rateLimitRemaining);
+            }
+            return response.writeWith(Mono.just(response.bufferFactory()
+                    .wrap(FORECAST.getBytes(StandardCharsets.UTF_8))));
+        }
+    }
+}
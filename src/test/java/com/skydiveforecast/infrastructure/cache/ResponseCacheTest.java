@@ -0,0 +1,83 @@
+package com.skydiveforecast.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+    private final InMemoryResponseCacheStore remote = new InMemoryResponseCacheStore();
+
+    @Test
+    void get_shouldPromoteRedisHitToMemory_whenOnlyRedisHoldsEntry() {
+        // Arrange
+        ResponseCache writer = cache(remote);
+        writer.put("analyses /api/v1/analyses/forecast *", entry("{\"windKnots\":12}", 60_000, 30_000));
+        ResponseCache reader = cache(remote);
+
+        // Act
+        CachedResponse first = reader.get("analyses /api/v1/analyses/forecast *").block();
+        CachedResponse second = reader.get("analyses /api/v1/analyses/forecast *").block();
+
+        // Assert
+        assertNotNull(first);
+        assertEquals("{\"windKnots\":12}", new String(first.body(), StandardCharsets.UTF_8));
+        assertSame(first, second);
+        assertEquals(1, remote.gets());
+        assertEquals(Duration.ofSeconds(90), remote.ttl("analyses /api/v1/analyses/forecast *"));
+    }
+
+    @Test
+    void get_shouldTreatRedisFailureAsMiss_whenRedisIsDown() {
+        // Arrange
+        ResponseCache cache = cache(remote);
+        remote.setFailing(true);
+
+        // Act
+        cache.put("locations /api/v1/locations *", entry("[]", 60_000, 0));
+        CachedResponse cached = cache.get("locations /api/v1/locations *").block();
+        CachedResponse missing = cache.get("locations /api/v1/locations/7 *").block();
+
+        // Assert
+        assertNotNull(cached);
+        assertNull(missing);
+    }
+
+    @Test
+    void get_shouldSkipEntry_whenStaleWindowHasPassed() {
+        // Arrange
+        ResponseCache cache = cache(null);
+        cache.put("analyses /api/v1/analyses/forecast *", entry("{}", 1_000, 1_000));
+
+        // Act
+        clock.addAndGet(1_500);
+        CachedResponse stale = cache.get("analyses /api/v1/analyses/forecast *").block();
+        clock.addAndGet(1_000);
+        CachedResponse expired = cache.get("analyses /api/v1/analyses/forecast *").block();
+
+        // Assert
+        assertNotNull(stale);
+        assertFalse(stale.isFresh(clock.get()));
+        assertNull(expired);
+    }
+
+    private ResponseCache cache(ResponseCacheStore store) {
+        return new ResponseCache(ResponseCacheProperties.defaults(), store, new SimpleMeterRegistry(), clock::get);
+    }
+
+    private CachedResponse entry(String body, long freshMillis, long staleMillis) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        headers.setETag("\"v1\"");
+        long now = clock.get();
+        return new CachedResponse(200, HttpHeaders.readOnlyHttpHeaders(headers),
+                body.getBytes(StandardCharsets.UTF_8), now, now + freshMillis, now + freshMillis + staleMillis);
+    }
+}
@@ -4,13 +4,18 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import reactor.test.StepVerifier;
 
 import java.net.InetSocketAddress;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class RateLimiterConfigTest {
 
@@ -73,6 +78,22 @@ class RateLimiterConfigTest {
                 .verifyComplete();
     }
 
+    @Test
+    void ipKeyResolver_shouldIgnoreXForwardedFor_whenPeerIsNotTrustedProxy() {
+        // Arrange
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/api/test")
+                .header("X-Forwarded-For", "192.168.1.100")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 12345))
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        // Act & Assert
+        StepVerifier.create(keyResolver.resolve(exchange))
+                .expectNext("203.0.113.7")
+                .verifyComplete();
+    }
+
     @Test
     void ipKeyResolver_shouldReturnRemoteAddress_whenXForwardedForIsMissing() {
         // Arrange
@@ -125,4 +146,16 @@ class RateLimiterConfigTest {
         // Assert
         assertNotNull(resolver);
     }
+
+    @Test
+    void redisRateLimiter_shouldRefuseBatching_whenRedisIsClustered() {
+        // Arrange
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisClusterConfiguration(List.of("redis-1:6379", "redis-2:6379")));
+        ReactiveStringRedisTemplate redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> rateLimiterConfig.redisRateLimiter(redisTemplate, null, null,
+                null, null, null));
+    }
 }
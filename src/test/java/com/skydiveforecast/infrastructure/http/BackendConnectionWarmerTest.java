@@ -0,0 +1,66 @@
+package com.skydiveforecast.infrastructure.http;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackendConnectionWarmerTest {
+
+    private MockWebServer mockWebServer;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Arrange
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        connectionProvider = ConnectionProvider.create("warm-up-test", 10);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionProvider.disposeLater().block();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void warmUpConnections_shouldSendHeadRequests_toEachDestination() throws InterruptedException {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse());
+        }
+        String destination = "http://" + mockWebServer.getHostName() + ":" + mockWebServer.getPort();
+        BackendHttpClientProperties properties = new BackendHttpClientProperties(null,
+                Map.of(destination, new BackendHttpClientProperties.Pool(10, 0, null, null, null, null)),
+                false, new BackendHttpClientProperties.WarmUp(3, "/actuator/health"));
+        BackendConnectionWarmer warmer = new BackendConnectionWarmer(HttpClient.create(connectionProvider), properties);
+
+        // Act
+        warmer.warmUpConnections().block();
+
+        // Assert
+        assertEquals(3, mockWebServer.getRequestCount());
+        assertEquals("HEAD", mockWebServer.takeRequest().getMethod());
+    }
+
+    @Test
+    void warmUpConnections_shouldComplete_whenDestinationIsDown() {
+        // Arrange
+        BackendHttpClientProperties properties = new BackendHttpClientProperties(null,
+                Map.of("http://127.0.0.1:1", new BackendHttpClientProperties.Pool(10, 0, null, null, null, null)),
+                false, new BackendHttpClientProperties.WarmUp(2, null));
+        BackendConnectionWarmer warmer = new BackendConnectionWarmer(HttpClient.create(connectionProvider), properties);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> warmer.warmUpConnections().block());
+    }
+}
@@ -0,0 +1,54 @@
+package com.skydiveforecast.infrastructure.http;
+
+import org.junit.jupiter.api.Test;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackendHttpClientFactoryTest {
+
+    @Test
+    void connectionProvider_shouldGiveEachDestinationItsOwnLimit() {
+        // Arrange
+        BackendHttpClientProperties properties = new BackendHttpClientProperties(
+                new BackendHttpClientProperties.Pool(200, 0, null, null, null, null),
+                Map.of("http://analysis-service:8082",
+                        new BackendHttpClientProperties.Pool(50, 0, null, null, null, null)),
+                false, null);
+
+        // Act
+        ConnectionProvider provider = BackendHttpClientFactory.connectionProvider(properties);
+
+        // Assert
+        try {
+            assertEquals(200, provider.maxConnections());
+            Map<SocketAddress, Integer> perHost = provider.maxConnectionsPerHost();
+            assertEquals(50, perHost.get(InetSocketAddress.createUnresolved("analysis-service", 8082)));
+        } finally {
+            provider.disposeLater().block();
+        }
+    }
+
+    @Test
+    void remoteAddress_shouldUseSchemeDefaultPort_whenUrlHasNoPort() {
+        // Act
+        InetSocketAddress address = BackendHttpClientFactory.remoteAddress("https://location-service");
+
+        // Assert
+        assertEquals("location-service", address.getHostString());
+        assertEquals(443, address.getPort());
+        assertTrue(address.isUnresolved());
+    }
+
+    @Test
+    void properties_shouldRejectDestination_whenItIsNotABaseUrl() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new BackendHttpClientProperties(null,
+                Map.of("analysis-service", new BackendHttpClientProperties.Pool(10, 0, null, null, null, null)),
+                false, null));
+    }
+}
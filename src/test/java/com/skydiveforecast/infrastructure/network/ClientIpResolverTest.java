@@ -0,0 +1,205 @@
+package com.skydiveforecast.infrastructure.network;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(ClientIpProperties.defaults());
+
+    @Test
+    void resolve_shouldReturnPeer_whenPeerIsNotTrustedProxy() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("X-Forwarded-For", "1.2.3.4")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 443)));
+
+        // Act
+        String clientIp = resolver.resolve(exchange);
+
+        // Assert
+        assertEquals("203.0.113.7", clientIp);
+    }
+
+    @Test
+    void resolve_shouldReturnFirstUntrustedHopFromTheRight_whenClientSpoofsXForwardedFor() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("X-Forwarded-For", "1.2.3.4, 198.51.100.23, 10.0.0.12")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 443)));
+
+        // Act
+        String clientIp = resolver.resolve(exchange);
+
+        // Assert
+        assertEquals("198.51.100.23", clientIp);
+    }
+
+    @Test
+    void resolve_shouldWalkHeaderLinesFromTheLast() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("X-Forwarded-For", "1.2.3.4", "198.51.100.23, 10.0.0.12")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 443)));
+
+        // Act
+        String clientIp = resolver.resolve(exchange);
+
+        // Assert
+        assertEquals("198.51.100.23", clientIp);
+    }
+
+    @Test
+    void resolve_shouldPreferForwardedHeader_whenPresent() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("Forwarded", "for=192.0.2.60;proto=https, For=\"10.0.0.12:8080\"")
+                .header("X-Forwarded-For", "198.51.100.23")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 443)));
+
+        // Act
+        String clientIp = resolver.resolve(exchange);
+
+        // Assert
+        assertEquals("192.0.2.60", clientIp);
+    }
+
+    @Test
+    void resolve_shouldIgnoreForwardedHeader_whenDisabled() {
+        // Arrange
+        ClientIpResolver xffOnly = new ClientIpResolver(new ClientIpProperties(null, 0, false));
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("Forwarded", "for=192.0.2.60")
+                .header("X-Forwarded-For", "198.51.100.23")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 443)));
+
+        // Act
+        String clientIp = xffOnly.resolve(exchange);
+
+        // Assert
+        assertEquals("198.51.100.23", clientIp);
+    }
+
+    @Test
+    void resolve_shouldStopAtLastTrustedHop_whenHopIsObfuscated() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("Forwarded", "for=1.2.3.4, for=_hidden, for=10.0.0.12")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 443)));
+
+        // Act
+        String clientIp = resolver.resolve(exchange);
+
+        // Assert
+        assertEquals("10.0.0.12", clientIp);
+    }
+
+    @Test
+    void resolve_shouldNormalizeIpv6ClientToConfiguredPrefix() {
+        // Arrange
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/test")
+                .header("Forwarded", "for=\"[2001:db8:cafe:1:a:b:c:d]:4711\"")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 443)));
+        MockServerWebExchange rotated = exchange(MockServerHttpRequest.get("/api/test")
+                .header("X-Forwarded-For", "2001:DB8:CAFE:1::ffff")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 443)));
+
+        // Act
+        String firstIp = resolver.resolve(first);
+        String rotatedIp = resolver.resolve(rotated);
+
+        // Assert
+        assertEquals("2001:db8:cafe:1::/64", firstIp);
+        assertEquals(firstIp, rotatedIp);
+    }
+
+    @Test
+    void resolve_shouldKeepFullIpv6Address_whenPrefixIs128() {
+        // Arrange
+        ClientIpResolver fullAddress = new ClientIpResolver(new ClientIpProperties(null, 128, true));
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("X-Forwarded-For", "2001:db8:cafe:1::ffff"));
+
+        // Act
+        String clientIp = fullAddress.resolve(exchange);
+
+        // Assert
+        assertEquals("2001:db8:cafe:1::ffff", clientIp);
+    }
+
+    @Test
+    void resolve_shouldTreatIpv4MappedAddressAsIpv4() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("X-Forwarded-For", "::ffff:203.0.113.7"));
+
+        // Act
+        String clientIp = resolver.resolve(exchange);
+
+        // Assert
+        assertEquals("203.0.113.7", clientIp);
+    }
+
+    @Test
+    void resolve_shouldHonourConfiguredTrustedProxies() {
+        // Arrange
+        ClientIpResolver cdn = new ClientIpResolver(
+                new ClientIpProperties(List.of("203.0.113.0/24", "2001:db8:ffff::/48"), 0, true));
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("X-Forwarded-For", "192.168.1.100, 198.51.100.23, 2001:db8:ffff::10")
+                .remoteAddress(new InetSocketAddress("203.0.113.9", 443)));
+
+        // Act
+        String clientIp = cdn.resolve(exchange);
+
+        // Assert
+        assertEquals("198.51.100.23", clientIp);
+    }
+
+    @Test
+    void resolve_shouldCacheResultOnExchange() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 443)));
+
+        // Act
+        String clientIp = resolver.resolve(exchange);
+
+        // Assert
+        assertEquals(clientIp, exchange.getAttribute(ClientIpResolver.CLIENT_IP_ATTRIBUTE));
+        exchange.getAttributes().put(ClientIpResolver.CLIENT_IP_ATTRIBUTE, "cached");
+        assertEquals("cached", resolver.resolve(exchange));
+    }
+
+    @Test
+    void resolve_shouldReturnUnknown_whenNoAddressAvailable() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/test")
+                .header("X-Forwarded-For", "unknown"));
+
+        // Act
+        String clientIp = resolver.resolve(exchange);
+
+        // Assert
+        assertEquals(ClientIpResolver.UNKNOWN, clientIp);
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidTrustedProxy() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new ClientIpResolver(new ClientIpProperties(List.of("proxy.internal"), 0, true)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ClientIpResolver(new ClientIpProperties(List.of("10.0.0.0/33"), 0, true)));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+}
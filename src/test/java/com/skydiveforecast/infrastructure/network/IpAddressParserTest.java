@@ -0,0 +1,64 @@
+package com.skydiveforecast.infrastructure.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpAddressParserTest {
+
+    @Test
+    void parse_shouldReturnCanonicalAddress_whenLiteralIsValid() {
+        // Arrange
+        Map<String, String> literals = Map.of(
+                "  10.0.0.1  ", "10.0.0.1",
+                "203.0.113.7:8080", "203.0.113.7",
+                "\"192.0.2.60\"", "192.0.2.60",
+                "[2001:db8::1]:4711", "2001:db8::1",
+                "2001:DB8:0:0:1:0:0:1", "2001:db8::1:0:0:1",
+                "fe80::1%eth0", "fe80::1",
+                "::", "::",
+                "::ffff:203.0.113.7", "203.0.113.7",
+                "2001:db8::192.0.2.1", "2001:db8::c000:201");
+
+        literals.forEach((input, expected) -> {
+            byte[] address = new byte[16];
+
+            // Act
+            int length = IpAddressParser.parse(input, 0, input.length(), address);
+
+            // Assert
+            assertNotEquals(IpAddressParser.INVALID, length, input);
+            assertEquals(expected, IpAddressParser.format(address, length), input);
+        });
+    }
+
+    @Test
+    void parse_shouldReturnInvalid_whenLiteralIsMalformed() {
+        // Arrange
+        String[] literals = {"", "unknown", "_hidden", "1.2.3", "256.1.1.1", "1.2.3.4.5", "1:::2", ":1", "1:",
+                "1:2:3:4:5:6:7:8:9", "12345::", "[::1"};
+
+        for (String input : literals) {
+            // Act
+            int length = IpAddressParser.parse(input, 0, input.length(), new byte[16]);
+
+            // Assert
+            assertEquals(IpAddressParser.INVALID, length, input);
+        }
+    }
+
+    @Test
+    void parse_shouldOnlyReadGivenRegion() {
+        // Arrange
+        String header = "10.0.0.1, 203.0.113.7";
+        byte[] address = new byte[16];
+
+        // Act
+        int length = IpAddressParser.parse(header, header.indexOf(',') + 1, header.length(), address);
+
+        // Assert
+        assertEquals("203.0.113.7", IpAddressParser.format(address, length));
+    }
+}
@@ -0,0 +1,153 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingRedisRateLimiterTest {
+
+    private static final String ROUTE_ID = "analyses";
+    private static final String CLIENT = "203.0.113.7";
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecordingBatchExecutor batchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange
+        meterRegistry = new SimpleMeterRegistry();
+        batchExecutor = new RecordingBatchExecutor();
+    }
+
+    @Test
+    void isAllowed_shouldSendConcurrentChecksInOneBatch() {
+        // Arrange
+        BatchingRedisRateLimiter rateLimiter = rateLimiter(Duration.ofMillis(20), 128);
+
+        // Act
+        List<RateLimiter.Response> responses = checks(rateLimiter, CLIENT, 10);
+
+        // Assert
+        assertEquals(10, responses.size());
+        assertEquals(List.of(10), batchExecutor.batchSizes());
+        assertEquals(1, meterRegistry.get("gateway.ratelimit.redis.batch.size").summary().count());
+        assertEquals(10, meterRegistry.get("gateway.ratelimit.redis.batch.queue").timer().count());
+    }
+
+    @Test
+    void isAllowed_shouldFanResultsOutInOrder_whenBatchRepeatsAKey() {
+        // Arrange
+        BatchingRedisRateLimiter rateLimiter = rateLimiter(Duration.ofMillis(20), 128);
+
+        // Act
+        List<RateLimiter.Response> responses = checks(rateLimiter, CLIENT, 5);
+
+        // Assert
+        long allowed = responses.stream().filter(RateLimiter.Response::isAllowed).count();
+        assertEquals(3, allowed);
+        assertTrue(responses.stream().anyMatch(response ->
+                "0".equals(response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER))));
+    }
+
+    @Test
+    void isAllowed_shouldSplitBatches_whenMaxBatchSizeIsReached() {
+        // Arrange
+        BatchingRedisRateLimiter rateLimiter = rateLimiter(Duration.ofMillis(50), 4);
+
+        // Act
+        List<RateLimiter.Response> responses = Flux.range(0, 10)
+                .flatMap(i -> rateLimiter.isAllowed(ROUTE_ID, "client-" + i))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(10, responses.size());
+        assertEquals(10, batchExecutor.batchSizes().stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchExecutor.batchSizes().stream().allMatch(size -> size <= 4));
+    }
+
+    @Test
+    void isAllowed_shouldAllowRequests_whenBatchFails() {
+        // Arrange
+        BatchingRedisRateLimiter rateLimiter = rateLimiter(Duration.ofMillis(20), 128);
+        batchExecutor.failing = true;
+
+        // Act
+        List<RateLimiter.Response> responses = checks(rateLimiter, CLIENT, 5);
+
+        // Assert
+        assertTrue(responses.stream().allMatch(RateLimiter.Response::isAllowed));
+        assertEquals("-1", responses.get(0).getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.redis.batch.failures").counter().count());
+    }
+
+    @Test
+    void isAllowed_shouldThrow_whenRouteHasNoConfiguration() {
+        // Arrange
+        BatchingRedisRateLimiter rateLimiter = rateLimiter(Duration.ofMillis(20), 128);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.isAllowed("unknown-route", CLIENT));
+    }
+
+    private BatchingRedisRateLimiter rateLimiter(Duration window, int maxBatchSize) {
+        BatchingRedisRateLimiter rateLimiter = new BatchingRedisRateLimiter(null, null, null, batchExecutor,
+                new RateLimiterProperties.Batching(true, window, maxBatchSize), meterRegistry);
+        rateLimiter.getConfig().put(ROUTE_ID, new RedisRateLimiter.Config()
+                .setReplenishRate(1)
+                .setBurstCapacity(3)
+                .setRequestedTokens(1));
+        return rateLimiter;
+    }
+
+    private static List<RateLimiter.Response> checks(BatchingRedisRateLimiter rateLimiter, String id, int count) {
+        return Flux.range(0, count)
+                .flatMapSequential(i -> rateLimiter.isAllowed(ROUTE_ID, id))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+    }
+
+    // Applies the token bucket arithmetic of request_rate_limiter_batch.lua without refill, in batch order
+    private static final class RecordingBatchExecutor implements RateLimitBatchExecutor {
+
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private final Map<String, Long> tokens = new HashMap<>();
+        private volatile boolean failing;
+
+        @Override
+        public synchronized Mono<List<Long>> execute(List<Check> checks) {
+            batchSizes.add(checks.size());
+            if (failing) {
+                return Mono.error(new IllegalStateException("Redis unavailable"));
+            }
+            List<Long> results = new ArrayList<>(checks.size() * 2);
+            for (Check check : checks) {
+                String bucket = check.routeId() + "." + check.id();
+                long available = tokens.getOrDefault(bucket, (long) check.burstCapacity());
+                boolean allowed = available >= check.requestedTokens();
+                long left = allowed ? available - check.requestedTokens() : available;
+                tokens.put(bucket, left);
+                results.add(allowed ? 1L : 0L);
+                results.add(left);
+            }
+            return Mono.just(results);
+        }
+
+        List<Integer> batchSizes() {
+            return List.copyOf(batchSizes);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import com.skydiveforecast.infrastructure.network.ClientIpProperties;
+import com.skydiveforecast.infrastructure.network.ClientIpResolver;
+import com.skydiveforecast.infrastructure.security.AuthenticatedPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHitterFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000_000L);
+    private final HeavyHitterMonitor monitor = new HeavyHitterMonitor(
+            new HeavyHitterProperties(true, Duration.ofSeconds(10), 5, 8, 0, 1024, 4, true, 1, Duration.ofMinutes(1)),
+            new SimpleMeterRegistry(), clock::get);
+    private final HeavyHitterFilter filter = new HeavyHitterFilter(monitor,
+            new ClientIpResolver(ClientIpProperties.defaults()));
+
+    @Test
+    void filter_shouldRecordClientAndUser_whenRequestIsAuthenticated() {
+        // Arrange
+        MockServerWebExchange exchange = exchange("203.0.113.7");
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal("jumper@example.com", 42L, List.of("USER"),
+                List.of(), Instant.now().plusSeconds(300));
+
+        // Act
+        filter.filter(exchange, authenticated -> {
+            authenticated.getAttributes().put(AuthenticatedPrincipal.EXCHANGE_ATTRIBUTE, principal);
+            return Mono.empty();
+        }).block();
+
+        // Assert
+        assertEquals("203.0.113.7", monitor.topClients(1).get(0).key());
+        assertEquals("user:42", monitor.topUsers(1).get(0).key());
+    }
+
+    @Test
+    void filter_shouldRejectWithTooManyRequests_whenClientIsBlocked() {
+        // Arrange
+        for (int i = 0; i < 100; i++) {
+            filter.filter(exchange("203.0.113.7"), exchange -> Mono.empty()).block();
+        }
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        monitor.evaluate();
+        MockServerWebExchange exchange = exchange("203.0.113.7");
+        AtomicBoolean forwarded = new AtomicBoolean();
+
+        // Act
+        filter.filter(exchange, chained -> {
+            forwarded.set(true);
+            return Mono.empty();
+        }).block();
+
+        // Assert
+        assertFalse(forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("Too many requests"));
+    }
+
+    private static MockServerWebExchange exchange(String client) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/analyses")
+                .remoteAddress(new InetSocketAddress(client, 52114)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHitterMonitorTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000_000L);
+    private final HeavyHitterMonitor monitor = new HeavyHitterMonitor(
+            new HeavyHitterProperties(true, Duration.ofSeconds(10), 5, 8, 0, 1024, 4, true, 20, Duration.ofMinutes(1)),
+            new SimpleMeterRegistry(), clock::get);
+
+    @Test
+    void evaluate_shouldBlockClient_whenRateReachesThreshold() {
+        // Arrange
+        sendOverTenSeconds("203.0.113.7", "198.51.100.23");
+
+        // Act
+        monitor.evaluate();
+
+        // Assert
+        assertTrue(monitor.isBlocked("203.0.113.7"));
+        assertFalse(monitor.isBlocked("198.51.100.23"));
+        assertEquals(1, monitor.blockedClients().size());
+    }
+
+    @Test
+    void isBlocked_shouldReleaseClient_afterBlockDuration() {
+        // Arrange
+        sendOverTenSeconds("203.0.113.7", "198.51.100.23");
+        monitor.evaluate();
+
+        // Act
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // Assert
+        assertFalse(monitor.isBlocked("203.0.113.7"));
+        assertTrue(monitor.blockedClients().isEmpty());
+    }
+
+    @Test
+    void topUsers_shouldTrackUsersSeparatelyFromClients() {
+        // Arrange
+        monitor.recordClient("203.0.113.7");
+        monitor.recordUser("user:42");
+        monitor.recordUser("user:42");
+
+        // Act
+        HeavyHitter user = monitor.topUsers(1).get(0);
+
+        // Assert
+        assertEquals("user:42", user.key());
+        assertEquals(2, user.requests());
+        assertEquals("203.0.113.7", monitor.topClients(1).get(0).key());
+    }
+
+    // 50 req/s from the heavy client and 5 req/s from the light one
+    private void sendOverTenSeconds(String heavyClient, String lightClient) {
+        for (int i = 0; i < 500; i++) {
+            monitor.recordClient(heavyClient);
+            if (i % 10 == 0) {
+                monitor.recordClient(lightClient);
+            }
+            clock.addAndGet(Duration.ofMillis(20).toNanos());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeavyHitterPropertiesTest {
+
+    @Test
+    void defaults_shouldSizeSketchForDefaultError_whenNothingIsConfigured() {
+        // Arrange & Act
+        HeavyHitterProperties properties = HeavyHitterProperties.defaults();
+
+        // Assert
+        assertEquals(0.002, properties.sketchError());
+        assertEquals(2048, properties.sketchWidth());
+    }
+
+    @Test
+    void constructor_shouldWidenSketch_whenConfiguredWidthMissesTargetError() {
+        // Arrange & Act
+        HeavyHitterProperties properties = new HeavyHitterProperties(true, null, 0, 0, 0.0005, 64, 0, false, 0,
+                null);
+
+        // Assert
+        assertEquals(8192, properties.sketchWidth());
+    }
+}
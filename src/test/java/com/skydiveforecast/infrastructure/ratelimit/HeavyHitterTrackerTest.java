@@ -0,0 +1,81 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHitterTrackerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000_000L);
+
+    @Test
+    void topOffenders_shouldRankHeaviestKeysFirst_amongManyLightKeys() {
+        // Arrange
+        HeavyHitterTracker tracker = tracker(8);
+        for (int i = 0; i < 20_000; i++) {
+            tracker.record("198.51.100." + (i % 5_000));
+            if (i % 4 == 0) {
+                tracker.record("203.0.113.7");
+            }
+            if (i % 10 == 0) {
+                tracker.record("203.0.113.8");
+            }
+        }
+
+        // Act
+        List<HeavyHitter> top = tracker.topOffenders(2);
+
+        // Assert
+        assertEquals(List.of("203.0.113.7", "203.0.113.8"), top.stream().map(HeavyHitter::key).toList());
+        // Count-Min estimates never undercount
+        assertTrue(top.get(0).requests() >= 5_000, "requests " + top.get(0).requests());
+        assertTrue(top.get(1).requests() >= 2_000, "requests " + top.get(1).requests());
+    }
+
+    @Test
+    void topOffenders_shouldReportRatePerSecond_overElapsedWindow() {
+        // Arrange
+        HeavyHitterTracker tracker = tracker(4);
+        for (int second = 0; second < 60; second++) {
+            for (int i = 0; i < 10; i++) {
+                tracker.record("203.0.113.7");
+            }
+            clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        }
+
+        // Act
+        HeavyHitter hitter = tracker.topOffenders(1).get(0);
+
+        // Assert
+        assertEquals(10.0, hitter.requestsPerSecond(), 1.0);
+    }
+
+    @Test
+    void topOffenders_shouldForgetKeys_onceWindowHasPassed() {
+        // Arrange
+        HeavyHitterTracker tracker = tracker(4);
+        for (int i = 0; i < 1_000; i++) {
+            tracker.record("203.0.113.7");
+        }
+
+        // Act
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        tracker.record("198.51.100.1");
+        List<HeavyHitter> top = tracker.topOffenders(4);
+
+        // Assert
+        assertEquals(1, top.size());
+        assertEquals("198.51.100.1", top.get(0).key());
+        assertEquals(1, top.get(0).requests());
+    }
+
+    private HeavyHitterTracker tracker(int topK) {
+        HeavyHitterProperties properties = new HeavyHitterProperties(true, Duration.ofMinutes(1), 6, topK, 0, 2048, 4,
+                false, 0, null);
+        return new HeavyHitterTracker(properties, clock::get);
+    }
+}
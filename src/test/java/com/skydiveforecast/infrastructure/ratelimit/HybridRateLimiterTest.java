@@ -0,0 +1,180 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HybridRateLimiterTest {
+
+    private static final String ROUTE_ID = "analyses";
+    private static final String CLIENT = "203.0.113.7";
+
+    private AtomicLong clock;
+    private InMemoryLeaseStore leaseStore;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange
+        clock = new AtomicLong(1_000_000_000_000L);
+        leaseStore = new InMemoryLeaseStore(clock::get);
+    }
+
+    @Test
+    void isAllowed_shouldDecideLocally_withoutCallingStore() {
+        // Arrange
+        HybridRateLimiter node = node(10, 20, 0.25);
+
+        // Act
+        boolean allowed = isAllowed(node).isAllowed();
+
+        // Assert
+        assertTrue(allowed);
+        assertEquals(0, leaseStore.calls());
+    }
+
+    @Test
+    void reconcile_shouldChargeInitialCreditToSharedBucket() {
+        // Arrange
+        HybridRateLimiter first = node(1, 10, 0.5);
+        HybridRateLimiter second = node(1, 10, 0.5);
+        isAllowed(first);
+        isAllowed(second);
+
+        // Act
+        first.reconcile().block();
+        second.reconcile().block();
+        HybridRateLimiter third = node(1, 10, 0.5);
+        isAllowed(third);
+        third.reconcile().block();
+
+        // Assert
+        // Two credits of 5 drained the shared bucket of 10, so the third node's credit is not backed
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (isAllowed(third).isAllowed()) {
+                allowed++;
+            }
+        }
+        assertEquals(0, allowed);
+    }
+
+    @Test
+    void isAllowed_shouldKeepServingLocalLease_whenStoreIsUnavailable() {
+        // Arrange
+        HybridRateLimiter node = node(10, 20, 0.5);
+        leaseStore.setFailing(true);
+
+        // Act
+        isAllowed(node);
+        node.reconcile().block();
+        RateLimiter.Response response = isAllowed(node);
+
+        // Assert
+        assertTrue(response.isAllowed());
+    }
+
+    @Test
+    void reconcile_shouldLeaseAgainstTierLimits_whenKeyCarriesTier() {
+        // Arrange
+        RateLimitTiers tiers = new RateLimitTiers(Map.of(
+                "pro", new RateLimiterProperties.Tier(List.of("PRO"), 100, 200, 1)));
+        RateLimiterProperties properties = new RateLimiterProperties(
+                new RateLimiterProperties.Local(1, 10, 1, null, null),
+                new RateLimiterProperties.Hybrid(Duration.ofMillis(50), 0.1, Duration.ofMinutes(10)));
+        HybridRateLimiter node = new HybridRateLimiter(properties, tiers, leaseStore, null, clock::get);
+
+        // Act
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (node.isAllowed(ROUTE_ID, "pro@user:42").block().isAllowed()) {
+                allowed++;
+            }
+            node.reconcile().block();
+        }
+
+        // Assert
+        // The route default (burst 10) would have stopped the client after about 10 requests
+        assertEquals(100, allowed);
+    }
+
+    @Test
+    void reconcile_shouldEvictIdleLeases() {
+        // Arrange
+        HybridRateLimiter node = node(10, 20, 0.5);
+        isAllowed(node);
+        node.reconcile().block();
+
+        // Act
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+        node.reconcile().block();
+
+        // Assert
+        assertEquals(0, node.leaseCount());
+    }
+
+    @Test
+    void isAllowed_shouldKeepClusterNearGlobalLimit_whenSeveralNodesShareTheQuota() {
+        // Arrange: 3 nodes, 10 req/s with a burst of 30, each node offered 50 req/s by the same client for 10 s
+        int nodeCount = 3;
+        int replenishRate = 10;
+        int burstCapacity = 30;
+        List<HybridRateLimiter> nodes = new ArrayList<>();
+        List<LocalRateLimiter> unsharedNodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(node(replenishRate, burstCapacity, 0.1));
+            unsharedNodes.add(new LocalRateLimiter(
+                    new RateLimiterProperties.Local(replenishRate, burstCapacity, 1, null, null),
+                    RateLimitTiers.none(), null, clock::get));
+        }
+        long tick = TimeUnit.MILLISECONDS.toNanos(20);
+        long reconcileEvery = TimeUnit.MILLISECONDS.toNanos(50);
+        long nextReconcile = clock.get() + reconcileEvery;
+        int allowed = 0;
+        int allowedWithoutSharing = 0;
+
+        // Act
+        for (long elapsed = 0; elapsed < TimeUnit.SECONDS.toNanos(10); elapsed += tick) {
+            for (int i = 0; i < nodeCount; i++) {
+                if (isAllowed(nodes.get(i)).isAllowed()) {
+                    allowed++;
+                }
+                if (unsharedNodes.get(i).isAllowed(ROUTE_ID, CLIENT).block().isAllowed()) {
+                    allowedWithoutSharing++;
+                }
+            }
+            clock.addAndGet(tick);
+            if (clock.get() >= nextReconcile) {
+                nodes.forEach(node -> node.reconcile().block());
+                nextReconcile += reconcileEvery;
+            }
+        }
+
+        // Assert
+        int globalLimit = burstCapacity + replenishRate * 10;
+        int leaseSize = 3;
+        assertTrue(allowed >= globalLimit - nodeCount * leaseSize, "allowed " + allowed);
+        assertTrue(allowed <= globalLimit + nodeCount * leaseSize, "allowed " + allowed);
+        // Independent local limiters would have let every node take the whole quota
+        assertTrue(allowedWithoutSharing > 2 * allowed, "unshared " + allowedWithoutSharing);
+    }
+
+    private HybridRateLimiter node(int replenishRate, int burstCapacity, double leaseFraction) {
+        RateLimiterProperties properties = new RateLimiterProperties(
+                new RateLimiterProperties.Local(replenishRate, burstCapacity, 1, null, null),
+                new RateLimiterProperties.Hybrid(Duration.ofMillis(50), leaseFraction, Duration.ofMinutes(10)));
+        return new HybridRateLimiter(properties, RateLimitTiers.none(), leaseStore, null, clock::get);
+    }
+
+    private RateLimiter.Response isAllowed(HybridRateLimiter node) {
+        return node.isAllowed(ROUTE_ID, CLIENT).block();
+    }
+}
@@ -0,0 +1,45 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// In-process stand-in for RedisLeaseStore implementing the same bucket arithmetic as rate_limit_lease.lua
+class InMemoryLeaseStore implements LeaseStore {
+
+    private final LongSupplier nanoClock;
+    private final Map<String, double[]> buckets = new HashMap<>();
+    private volatile boolean failing;
+    private long calls;
+
+    InMemoryLeaseStore(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Long> acquire(String key, int replenishRate, int burstCapacity, long requested) {
+        if (failing) {
+            return Mono.error(new IllegalStateException("Redis unavailable"));
+        }
+        synchronized (this) {
+            calls++;
+            double now = nanoClock.getAsLong() / 1e9;
+            double[] bucket = buckets.computeIfAbsent(key, k -> new double[]{burstCapacity, now});
+            double available = Math.min(burstCapacity, bucket[0] + Math.max(0, now - bucket[1]) * replenishRate);
+            long granted = Math.max(0, Math.min(requested, (long) Math.floor(available)));
+            bucket[0] = available - granted;
+            bucket[1] = now;
+            return Mono.just(granted);
+        }
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    synchronized long calls() {
+        return calls;
+    }
+}
@@ -0,0 +1,199 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimiterTest {
+
+    private static final String ROUTE_ID = "analyses";
+
+    private AtomicLong clock;
+    private LocalRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange
+        clock = new AtomicLong(1_000_000_000_000L);
+        rateLimiter = new LocalRateLimiter(
+                new RateLimiterProperties.Local(10, 5, 1, Duration.ofMinutes(10), null), RateLimitTiers.none(), null,
+                clock::get);
+    }
+
+    @Test
+    void isAllowed_shouldAllowBurst_thenDeny_whenBucketIsDrained() {
+        // Act
+        int allowed = 0;
+        for (int i = 0; i < 6; i++) {
+            if (isAllowed("203.0.113.7").isAllowed()) {
+                allowed++;
+            }
+        }
+
+        // Assert
+        assertEquals(5, allowed);
+    }
+
+    @Test
+    void isAllowed_shouldReplenishTokens_whenTimePasses() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            isAllowed("203.0.113.7");
+        }
+
+        // Act
+        RateLimiter.Response beforeRefill = isAllowed("203.0.113.7");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        RateLimiter.Response afterRefill = isAllowed("203.0.113.7");
+
+        // Assert
+        assertFalse(beforeRefill.isAllowed());
+        assertTrue(afterRefill.isAllowed());
+    }
+
+    @Test
+    void isAllowed_shouldTrackKeysIndependently() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            isAllowed("203.0.113.7");
+        }
+
+        // Act
+        RateLimiter.Response response = isAllowed("198.51.100.23");
+
+        // Assert
+        assertTrue(response.isAllowed());
+    }
+
+    @Test
+    void isAllowed_shouldPublishRedisCompatibleHeaders() {
+        // Act
+        RateLimiter.Response first = isAllowed("203.0.113.7");
+        RateLimiter.Response second = isAllowed("203.0.113.7");
+
+        // Assert
+        assertEquals("4", first.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals("3", second.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals("10", first.getHeaders().get(RedisRateLimiter.REPLENISH_RATE_HEADER));
+        assertEquals("5", first.getHeaders().get(RedisRateLimiter.BURST_CAPACITY_HEADER));
+        assertEquals("1", first.getHeaders().get(RedisRateLimiter.REQUESTED_TOKENS_HEADER));
+    }
+
+    @Test
+    void isAllowed_shouldUseRouteConfig_whenRouteDefinesLimits() {
+        // Arrange
+        rateLimiter.getConfig().put("reports", new LocalRateLimiter.Config()
+                .setReplenishRate(1)
+                .setBurstCapacity(10)
+                .setRequestedTokens(5));
+
+        // Act
+        boolean first = rateLimiter.isAllowed("reports", "user-1").block().isAllowed();
+        boolean second = rateLimiter.isAllowed("reports", "user-1").block().isAllowed();
+        RateLimiter.Response third = rateLimiter.isAllowed("reports", "user-1").block();
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third.isAllowed());
+        assertEquals("0", third.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+    }
+
+    @Test
+    void isAllowed_shouldDenyEverything_whenBurstIsSmallerThanRequestedTokens() {
+        // Arrange
+        rateLimiter.getConfig().put("closed", new LocalRateLimiter.Config()
+                .setReplenishRate(1)
+                .setBurstCapacity(1)
+                .setRequestedTokens(2));
+
+        // Act & Assert
+        assertFalse(rateLimiter.isAllowed("closed", "user-1").block().isAllowed());
+    }
+
+    @Test
+    void isAllowed_shouldUseTierLimits_whenKeyCarriesTier() {
+        // Arrange
+        RateLimitTiers tiers = new RateLimitTiers(Map.of(
+                "pro", new RateLimiterProperties.Tier(List.of("PRO"), 100, 50, 1)));
+        LocalRateLimiter tiered = new LocalRateLimiter(
+                new RateLimiterProperties.Local(10, 5, 1, Duration.ofMinutes(10), null), tiers, null, clock::get);
+
+        // Act
+        int allowed = 0;
+        for (int i = 0; i < 60; i++) {
+            if (tiered.isAllowed(ROUTE_ID, "pro@user:42").block().isAllowed()) {
+                allowed++;
+            }
+        }
+        RateLimiter.Response otherTier = tiered.isAllowed(ROUTE_ID, "pro@user:43").block();
+        RateLimiter.Response untiered = tiered.isAllowed(ROUTE_ID, "user:42").block();
+
+        // Assert
+        assertEquals(50, allowed);
+        assertEquals("100", otherTier.getHeaders().get(RedisRateLimiter.REPLENISH_RATE_HEADER));
+        assertEquals("10", untiered.getHeaders().get(RedisRateLimiter.REPLENISH_RATE_HEADER));
+    }
+
+    @Test
+    void evictIdle_shouldRemoveBuckets_whenIdleLongerThanTimeout() {
+        // Arrange
+        isAllowed("203.0.113.7");
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        isAllowed("198.51.100.23");
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        // Act
+        rateLimiter.evictIdle();
+
+        // Assert
+        assertEquals(1, rateLimiter.bucketCount());
+    }
+
+    @Test
+    void isAllowed_shouldNeverExceedBurst_whenCalledConcurrently() throws InterruptedException {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        if (isAllowed("203.0.113.7").isAllowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        // Act
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(5, allowed.get());
+    }
+
+    private RateLimiter.Response isAllowed(String id) {
+        return rateLimiter.isAllowed(ROUTE_ID, id).block();
+    }
+}
@@ -0,0 +1,59 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Stand-in for a Redis-backed RedisRateLimiter that can be slowed down, paused or made to fail. Failures are
+// reported the way RedisRateLimiter reports them: allowed, with -1 remaining tokens. A throwing limiter fails before
+// returning a Mono at all.
+class PausableRedisRateLimiter extends RedisRateLimiter {
+
+    private volatile Duration delay = Duration.ZERO;
+    private volatile boolean paused;
+    private volatile boolean failing;
+    private volatile boolean throwing;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    PausableRedisRateLimiter() {
+        super(null, null, null);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        calls.incrementAndGet();
+        Config config = getConfig().get(routeId);
+        if (throwing) {
+            throw new IllegalStateException("Redis connection factory is closed");
+        }
+        if (paused) {
+            return Mono.never();
+        }
+        Response response = failing
+                ? new Response(true, getHeaders(config, -1L))
+                : new Response(true, getHeaders(config, (long) config.getBurstCapacity() - 1));
+        return delay.isZero() ? Mono.just(response) : Mono.delay(delay).thenReturn(response);
+    }
+
+    void setDelay(Duration delay) {
+        this.delay = delay;
+    }
+
+    void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    void setThrowing(boolean throwing) {
+        this.throwing = throwing;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+}
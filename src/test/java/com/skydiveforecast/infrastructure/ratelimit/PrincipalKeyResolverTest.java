@@ -0,0 +1,95 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import com.skydiveforecast.infrastructure.network.ClientIpProperties;
+import com.skydiveforecast.infrastructure.network.ClientIpResolver;
+import com.skydiveforecast.infrastructure.security.AuthenticatedPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalKeyResolverTest {
+
+    private final PrincipalKeyResolver resolver = new PrincipalKeyResolver(
+            new RateLimitTiers(Map.of("pro", new RateLimiterProperties.Tier(List.of("PRO"), 100, 0, 0))),
+            new ClientIpResolver(ClientIpProperties.defaults()));
+
+    @Test
+    void resolve_shouldKeyOnUserAndTier_whenPrincipalIsAuthenticated() {
+        // Arrange
+        MockServerWebExchange exchange = exchangeWith(principal(42L, List.of("USER", "PRO")));
+
+        // Act
+        String key = resolver.resolve(exchange).block();
+
+        // Assert
+        assertEquals("pro@user:42", key);
+    }
+
+    @Test
+    void resolve_shouldKeyOnUserWithoutTier_whenNoRoleMatches() {
+        // Arrange
+        MockServerWebExchange exchange = exchangeWith(principal(42L, List.of("USER")));
+
+        // Act
+        String key = resolver.resolve(exchange).block();
+
+        // Assert
+        assertEquals("user:42", key);
+    }
+
+    @Test
+    void resolve_shouldFallBackToSubject_whenUserIdIsMissing() {
+        // Arrange
+        MockServerWebExchange exchange = exchangeWith(principal(null, List.of()));
+
+        // Act
+        String key = resolver.resolve(exchange).block();
+
+        // Assert
+        assertEquals("subject:jumper@example.com", key);
+    }
+
+    @Test
+    void resolve_shouldFallBackToClientIp_whenRequestIsAnonymous() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/dropzones")
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 443)));
+
+        // Act
+        String key = resolver.resolve(exchange).block();
+
+        // Assert
+        assertEquals("203.0.113.7", key);
+    }
+
+    @Test
+    void resolve_shouldReuseKey_forSamePrincipal() {
+        // Arrange
+        AuthenticatedPrincipal principal = principal(42L, List.of("PRO"));
+
+        // Act
+        String first = resolver.resolve(exchangeWith(principal)).block();
+        String second = resolver.resolve(exchangeWith(principal)).block();
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    private static MockServerWebExchange exchangeWith(AuthenticatedPrincipal principal) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/analyses"));
+        exchange.getAttributes().put(AuthenticatedPrincipal.EXCHANGE_ATTRIBUTE, principal);
+        return exchange;
+    }
+
+    private static AuthenticatedPrincipal principal(Long userId, List<String> roles) {
+        return new AuthenticatedPrincipal("jumper@example.com", userId, roles, List.of(),
+                Instant.now().plusSeconds(3600));
+    }
+}
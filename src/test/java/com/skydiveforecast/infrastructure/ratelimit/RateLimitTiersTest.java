@@ -0,0 +1,75 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitTiersTest {
+
+    private final RateLimitTiers tiers = new RateLimitTiers(tierMap());
+
+    @Test
+    void indexFor_shouldPickFirstDeclaredTier_whenSeveralRolesMatch() {
+        // Act
+        int index = tiers.indexFor(List.of("USER", "PRO", "ADMIN"));
+
+        // Assert
+        assertEquals("admin", tiers.name(index));
+    }
+
+    @Test
+    void indexFor_shouldReturnMinusOne_whenNoRoleMatches() {
+        // Act & Assert
+        assertEquals(-1, tiers.indexFor(List.of("GUEST")));
+        assertEquals(-1, tiers.indexFor(List.of()));
+    }
+
+    @Test
+    void indexOf_shouldRecoverTier_fromKey() {
+        // Arrange
+        String key = tiers.key(tiers.indexFor(List.of("PRO")), "user:42");
+
+        // Act
+        int index = tiers.indexOf(key);
+
+        // Assert
+        assertEquals("pro@user:42", key);
+        assertEquals("pro", tiers.name(index));
+    }
+
+    @Test
+    void indexOf_shouldReturnMinusOne_whenKeyHasNoKnownTier() {
+        // Act & Assert
+        assertEquals(-1, tiers.indexOf("203.0.113.7"));
+        assertEquals(-1, tiers.indexOf("2001:db8::/64"));
+        assertEquals(-1, tiers.indexOf("enterprise@user:42"));
+        assertEquals(-1, tiers.indexOf("@user:42"));
+    }
+
+    @Test
+    void key_shouldReturnIdUnchanged_whenNoTier() {
+        // Act & Assert
+        assertEquals("user:42", tiers.key(-1, "user:42"));
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidTiers() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitTiers(
+                Map.of("pro@eu", new RateLimiterProperties.Tier(List.of("PRO"), 10, 0, 0))));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitTiers(
+                Map.of("pro", new RateLimiterProperties.Tier(List.of("PRO"), 0, 0, 0))));
+    }
+
+    private static Map<String, RateLimiterProperties.Tier> tierMap() {
+        Map<String, RateLimiterProperties.Tier> tiers = new LinkedHashMap<>();
+        tiers.put("admin", new RateLimiterProperties.Tier(List.of("ADMIN"), 1000, 0, 0));
+        tiers.put("pro", new RateLimiterProperties.Tier(List.of("PRO"), 100, 0, 0));
+        tiers.put("free", new RateLimiterProperties.Tier(List.of("USER"), 10, 0, 0));
+        return tiers;
+    }
+}
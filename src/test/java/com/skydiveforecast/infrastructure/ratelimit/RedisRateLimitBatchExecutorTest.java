@@ -0,0 +1,48 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RedisRateLimitBatchExecutorTest {
+
+    private static final String ROUTE_ID = "analyses";
+    private static final String ID = "user:42";
+
+    @Test
+    void bucketKeys_shouldMatchRedisRateLimiterKeys_whenBuiltForRouteAndKey() {
+        // Arrange
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        doReturn(Flux.just(List.of(1L, 4L))).when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+        @SuppressWarnings("unchecked")
+        RedisScript<List<Long>> script = mock(RedisScript.class);
+        RedisRateLimiter redisRateLimiter = new RedisRateLimiter(redisTemplate, script, null);
+        redisRateLimiter.getConfig().put(ROUTE_ID, new RedisRateLimiter.Config()
+                .setReplenishRate(1)
+                .setBurstCapacity(5)
+                .setRequestedTokens(1));
+        redisRateLimiter.isAllowed(ROUTE_ID, ID).block(Duration.ofSeconds(5));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(), anyList());
+
+        // Act
+        List<String> batchKeys = RedisRateLimitBatchExecutor.bucketKeys(ROUTE_ID, ID);
+
+        // Assert
+        assertEquals(keys.getValue(), batchKeys);
+        assertEquals(List.of("request_rate_limiter.{analyses.user:42}.tokens",
+                "request_rate_limiter.{analyses.user:42}.timestamp"), batchKeys);
+    }
+}
@@ -0,0 +1,214 @@
+package com.skydiveforecast.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientRateLimiterTest {
+
+    private static final String ROUTE_ID = "analyses";
+    private static final String CLIENT = "203.0.113.7";
+
+    private AtomicLong clock;
+    private SimpleMeterRegistry meterRegistry;
+    private PausableRedisRateLimiter redis;
+    private ResilientRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange
+        clock = new AtomicLong(1_000_000_000_000L);
+        meterRegistry = new SimpleMeterRegistry();
+        redis = new PausableRedisRateLimiter();
+        redis.getConfig().put(ROUTE_ID, new RedisRateLimiter.Config()
+                .setReplenishRate(1)
+                .setBurstCapacity(5)
+                .setRequestedTokens(1));
+        RateLimiterProperties properties = new RateLimiterProperties(null, null, null, null,
+                new RateLimiterProperties.Fallback(true, Duration.ofMillis(100), Duration.ofMillis(40), 0.5, 4,
+                        Duration.ofSeconds(10), Duration.ofSeconds(1), 2));
+        rateLimiter = new ResilientRateLimiter(properties, redis, null, meterRegistry, clock::get);
+    }
+
+    @Test
+    void isAllowed_shouldUseRedis_whenHealthy() {
+        // Act
+        RateLimiter.Response response = isAllowed();
+
+        // Assert
+        assertEquals("4", response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals(ResilientRateLimiter.Mode.REDIS, rateLimiter.mode());
+        assertEquals(1, meterRegistry.get("gateway.ratelimit.redis.calls").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void isAllowed_shouldSwitchToLocalLimits_whenRedisFails() {
+        // Arrange
+        redis.setFailing(true);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            isAllowed();
+        }
+
+        // Assert
+        assertEquals(ResilientRateLimiter.Mode.LOCAL, rateLimiter.mode());
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.mode.switches").tag("to", "local").counter().count());
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.degraded").gauge().value());
+    }
+
+    @Test
+    void isAllowed_shouldAnswerFromLocalLimiter_whenRedisIsPaused() {
+        // Arrange
+        redis.setPaused(true);
+
+        // Act
+        RateLimiter.Response response = isAllowed();
+
+        // Assert
+        assertTrue(response.isAllowed());
+        assertEquals("4", response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals(1, meterRegistry.get("gateway.ratelimit.redis.calls").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void isAllowed_shouldCountSlowCallsAsUnhealthy() {
+        // Arrange
+        redis.setDelay(Duration.ofMillis(60));
+
+        // Act
+        RateLimiter.Response first = isAllowed();
+        for (int i = 0; i < 3; i++) {
+            isAllowed();
+        }
+
+        // Assert
+        assertEquals("4", first.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals(4, meterRegistry.get("gateway.ratelimit.redis.calls").tag("outcome", "slow").timer().count());
+        assertEquals(ResilientRateLimiter.Mode.LOCAL, rateLimiter.mode());
+    }
+
+    @Test
+    void isAllowed_shouldEnforceRouteLimitsLocally_whileDegraded() {
+        // Arrange
+        tripToLocal();
+        int callsBefore = redis.calls();
+
+        // Act
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (isAllowed().isAllowed()) {
+                allowed++;
+            }
+        }
+
+        // Assert
+        assertEquals(callsBefore, redis.calls());
+        // The burst of 5 is shared with the requests answered locally while tripping
+        assertTrue(allowed <= 5, "allowed " + allowed);
+    }
+
+    @Test
+    void isAllowed_shouldSwitchBackToRedis_afterHealthyProbes() {
+        // Arrange
+        tripToLocal();
+        redis.setFailing(false);
+
+        // Act
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        isAllowed();
+        isAllowed();
+
+        // Assert
+        assertEquals(ResilientRateLimiter.Mode.REDIS, rateLimiter.mode());
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.mode.switches").tag("to", "redis").counter().count());
+        assertEquals(0.0, meterRegistry.get("gateway.ratelimit.degraded").gauge().value());
+    }
+
+    @Test
+    void isAllowed_shouldWaitForNextProbeInterval_whenProbeFails() {
+        // Arrange
+        tripToLocal();
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        isAllowed();
+        int callsAfterProbe = redis.calls();
+        redis.setFailing(false);
+
+        // Act
+        isAllowed();
+        int callsBeforeInterval = redis.calls();
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        isAllowed();
+
+        // Assert
+        assertEquals(callsAfterProbe, callsBeforeInterval);
+        assertEquals(callsBeforeInterval + 1, redis.calls());
+        assertEquals(ResilientRateLimiter.Mode.LOCAL, rateLimiter.mode());
+    }
+
+    @Test
+    void isAllowed_shouldProbeAgain_whenProbeThrowsBeforeSubscribing() {
+        // Arrange
+        tripToLocal();
+        redis.setFailing(false);
+        redis.setThrowing(true);
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // Act
+        RateLimiter.Response fallback = isAllowed();
+        int callsAfterProbe = redis.calls();
+        redis.setThrowing(false);
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        isAllowed();
+
+        // Assert
+        assertTrue(fallback.isAllowed());
+        assertEquals(callsAfterProbe + 1, redis.calls());
+    }
+
+    @Test
+    void startEviction_shouldDropIdleFallbackBuckets() {
+        // Arrange
+        RateLimiterProperties properties = new RateLimiterProperties(
+                new RateLimiterProperties.Local(0, 0, 0, Duration.ofSeconds(1), Duration.ofMillis(10)), null, null,
+                null, new RateLimiterProperties.Fallback(true, Duration.ofMillis(100), Duration.ofMillis(40), 0.5, 4,
+                        Duration.ofSeconds(10), Duration.ofSeconds(1), 2));
+        rateLimiter = new ResilientRateLimiter(properties, redis, null, meterRegistry, clock::get);
+        tripToLocal();
+        assertTrue(rateLimiter.fallbackBucketCount() > 0);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Act
+        rateLimiter.startEviction();
+        try {
+            Flux.interval(Duration.ofMillis(10))
+                    .filter(tick -> rateLimiter.fallbackBucketCount() == 0)
+                    .blockFirst(Duration.ofSeconds(5));
+        } finally {
+            rateLimiter.stopEviction();
+        }
+
+        // Assert
+        assertEquals(0, rateLimiter.fallbackBucketCount());
+    }
+
+    private void tripToLocal() {
+        redis.setFailing(true);
+        for (int i = 0; i < 4; i++) {
+            isAllowed();
+        }
+        assertEquals(ResilientRateLimiter.Mode.LOCAL, rateLimiter.mode());
+    }
+
+    private RateLimiter.Response isAllowed() {
+        return rateLimiter.isAllowed(ROUTE_ID, CLIENT).block(Duration.ofSeconds(5));
+    }
+}
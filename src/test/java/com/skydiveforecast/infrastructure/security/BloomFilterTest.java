@@ -0,0 +1,51 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldReturnTrue_forEveryAddedValue() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10000, 0.001);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("jti-" + i);
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("jti-" + i));
+        }
+    }
+
+    @Test
+    void mightContain_shouldStayNearConfiguredFalsePositiveRate_whenFilledToCapacity() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_shouldReturnFalse_whenFilterIsEmpty() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(100, 0.001);
+
+        // Act & Assert
+        assertFalse(filter.mightContain("jti-1"));
+    }
+}
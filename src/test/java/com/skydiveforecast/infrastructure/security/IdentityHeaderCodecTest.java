@@ -0,0 +1,107 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityHeaderCodecTest {
+
+    private static final String SECRET = "downstream-identity-secret";
+    private static final Instant EXPIRES_AT = Instant.parse("2030-01-01T00:00:00Z");
+
+    private final IdentityHeaderCodec codec = new IdentityHeaderCodec(SECRET);
+
+    @Test
+    void decode_shouldReturnPrincipal_whenHeaderWasEncodedWithSameSecret() {
+        // Arrange
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal("test@example.com", 123L,
+                List.of("ADMIN", "USER"), List.of("USER_VIEW", "DROPZONE_VIEW"), EXPIRES_AT);
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = codec.decode(codec.encode(principal), EXPIRES_AT.minusSeconds(60));
+
+        // Assert
+        assertEquals(Optional.of(principal), result);
+    }
+
+    @Test
+    void decode_shouldPreserveMissingFields_whenPrincipalHasNoSubjectOrUserId() {
+        // Arrange
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal(null, null, null, null, null);
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = codec.decode(codec.encode(principal), Instant.now());
+
+        // Assert
+        assertEquals(Optional.of(principal), result);
+    }
+
+    @Test
+    void encode_shouldRejectPrincipal_whenClaimsExceedPayloadLimits() {
+        // Arrange
+        AuthenticatedPrincipal longSubject = new AuthenticatedPrincipal("a".repeat(70_000), 123L, List.of(),
+                List.of(), EXPIRES_AT);
+        AuthenticatedPrincipal manyRoles = new AuthenticatedPrincipal("test@example.com", 123L,
+                Collections.nCopies(65_536, "USER"), List.of(), EXPIRES_AT);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(longSubject));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(manyRoles));
+    }
+
+    @Test
+    void decode_shouldReturnEmpty_whenHeaderWasSignedWithDifferentSecret() {
+        // Arrange
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal("test@example.com", 123L,
+                List.of("USER"), List.of(), EXPIRES_AT);
+        String header = new IdentityHeaderCodec("another-secret").encode(principal);
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = codec.decode(header, Instant.now());
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void decode_shouldReturnEmpty_whenPayloadIsTampered() {
+        // Arrange
+        String header = codec.encode(new AuthenticatedPrincipal("test@example.com", 123L,
+                List.of("USER"), List.of(), EXPIRES_AT));
+        String forgedPayload = codec.encode(new AuthenticatedPrincipal("test@example.com", 123L,
+                List.of("ADMIN"), List.of(), EXPIRES_AT)).split("\\.")[0];
+        String tampered = forgedPayload + header.substring(header.indexOf('.'));
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = codec.decode(tampered, Instant.now());
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void decode_shouldReturnEmpty_whenIdentityHasExpired() {
+        // Arrange
+        String header = codec.encode(new AuthenticatedPrincipal("test@example.com", 123L,
+                List.of("USER"), List.of(), EXPIRES_AT));
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = codec.decode(header, EXPIRES_AT.plusSeconds(1));
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void decode_shouldReturnEmpty_whenHeaderIsGarbage() {
+        // Act & Assert
+        assertTrue(codec.decode("not-a-header", Instant.now()).isEmpty());
+        assertTrue(codec.decode("%%%.###", Instant.now()).isEmpty());
+        assertTrue(codec.decode(null, Instant.now()).isEmpty());
+    }
+}
@@ -0,0 +1,38 @@
+package com.skydiveforecast.infrastructure.security;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process stand-in for RedisRevocationStore: a map plays the sorted set and a multicast sink the channel
+class InMemoryRevocationStore implements RevocationStore {
+
+    private final Map<String, RevokedToken> tokens = new ConcurrentHashMap<>();
+    private final Sinks.Many<RevokedToken> channel = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public Flux<RevokedToken> loadAll() {
+        return Flux.fromIterable(tokens.values());
+    }
+
+    @Override
+    public Flux<RevokedToken> revocations() {
+        return channel.asFlux();
+    }
+
+    @Override
+    public Mono<Void> revoke(RevokedToken token) {
+        return Mono.fromRunnable(() -> {
+            tokens.put(token.tokenId(), token);
+            channel.tryEmitNext(token);
+        });
+    }
+
+    // Writes to the store without publishing, as if the message had been lost
+    void storeSilently(RevokedToken token) {
+        tokens.put(token.tokenId(), token);
+    }
+}
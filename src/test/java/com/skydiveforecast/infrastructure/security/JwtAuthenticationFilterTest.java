@@ -2,24 +2,32 @@ package com.skydiveforecast.infrastructure.security;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -37,14 +45,16 @@ class JwtAuthenticationFilterTest {
 
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
     private Key signingKey;
 
     @BeforeEach
     void setUp() {
         // Arrange
         JwtProperties jwtProperties = new JwtProperties(TEST_SECRET, 3600000L);
-        jwtService = new JwtService(jwtProperties);
-        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtService);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(jwtProperties, new JwtKeyRing(jwtProperties), meterRegistry);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtService, jwtProperties);
         signingKey = Keys.hmacShaKeyFor(TEST_SECRET.getBytes());
     }
 
@@ -245,6 +255,25 @@ class JwtAuthenticationFilterTest {
         verify(filterChain, times(1)).filter(any());
     }
 
+    @Test
+    void filter_shouldExposeVerifiedPrincipalAsExchangeAttribute_whenTokenIsValid() {
+        // Arrange
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/api/v1/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + createValidToken())
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        when(filterChain.filter(any())).thenReturn(Mono.empty());
+
+        // Act
+        jwtAuthenticationFilter.filter(exchange, filterChain).block();
+
+        // Assert
+        AuthenticatedPrincipal principal = exchange.getAttribute(AuthenticatedPrincipal.EXCHANGE_ATTRIBUTE);
+        assertEquals(TEST_USER_ID, principal.userId());
+        assertEquals(TEST_ROLES, principal.roles());
+    }
+
     @Test
     void filter_shouldPassThrough_whenPathIsApiDocsWithWildcard() {
         // Arrange
@@ -281,8 +310,285 @@ class JwtAuthenticationFilterTest {
         verify(filterChain, times(1)).filter(any());
     }
 
+    @Test
+    void filter_shouldPassThrough_whenPathMatchesConfiguredPublicPath() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, 3600000L, null, null,
+                List.of("/api/v1/locations/public/**"), null, null, null);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, properties);
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/api/v1/locations/public/dropzones")
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        when(filterChain.filter(any())).thenReturn(Mono.empty());
+
+        // Act
+        Mono<Void> result = filter.filter(exchange, filterChain);
+
+        // Assert
+        StepVerifier.create(result)
+                .verifyComplete();
+        verify(filterChain, times(1)).filter(any());
+    }
+
+    @Test
+    void filter_shouldRequireToken_whenDefaultPublicPathIsNotConfigured() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, 3600000L, null, null,
+                List.of("/api/v1/locations/public/**"), null, null, null);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, properties);
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/swagger-ui.html")
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        // Act
+        Mono<Void> result = filter.filter(exchange, filterChain);
+
+        // Assert
+        StepVerifier.create(result)
+                .verifyComplete();
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        verify(filterChain, never()).filter(any());
+    }
+
+    @Test
+    void filter_shouldWriteReasonSpecificBody_whenTokenIsExpired() {
+        // Arrange
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/api/v1/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + createExpiredToken())
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        // Act
+        Mono<Void> result = jwtAuthenticationFilter.filter(exchange, filterChain);
+
+        // Assert
+        StepVerifier.create(result)
+                .verifyComplete();
+        StepVerifier.create(exchange.getResponse().getBodyAsString())
+                .expectNext("{\"error\":\"Unauthorized\",\"message\":\"Invalid or expired JWT token\"}")
+                .verifyComplete();
+    }
+
+    @Test
+    void filter_shouldReturnTooManyRequests_whenClientRepeatedlySendsForgedTokens() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, 3600000L, null, null, null,
+                new JwtProperties.Rejection(0, null, true, 2, Duration.ofMinutes(1)), null, null);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, properties);
+        String forgedToken = Jwts.builder()
+                .subject(TEST_USERNAME)
+                .expiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(Keys.hmacShaKeyFor("wrongSecretKeyThatIsDifferent1234".getBytes()))
+                .compact();
+
+        // Act
+        HttpStatusCode lastStatus = null;
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                    .get("/api/v1/users/me")
+                    .header("X-Forwarded-For", "203.0.113.7")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + forgedToken)
+                    .build());
+            filter.filter(exchange, filterChain).block();
+            lastStatus = exchange.getResponse().getStatusCode();
+        }
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, lastStatus);
+        verify(filterChain, never()).filter(any());
+    }
+
+    @Test
+    void filter_shouldAddSignedCompactIdentityHeader_whenCompactModeIsEnabled() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, 3600000L, null, null, null, null,
+                new JwtProperties.IdentityHeader(true, null, "downstream-identity-secret", true), null);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, properties);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + createValidToken()));
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        when(filterChain.filter(forwarded.capture())).thenReturn(Mono.empty());
+
+        // Act
+        filter.filter(exchange, filterChain).block();
+
+        // Assert
+        HttpHeaders headers = forwarded.getValue().getRequest().getHeaders();
+        AuthenticatedPrincipal identity = new IdentityHeaderCodec("downstream-identity-secret")
+                .decode(headers.getFirst("X-User-Identity"), Instant.now())
+                .orElseThrow();
+        assertEquals(TEST_USERNAME, identity.subject());
+        assertEquals(TEST_USER_ID, identity.userId());
+        assertEquals(TEST_PERMISSIONS, identity.permissions());
+        assertEquals(TEST_ROLES, identity.roles());
+        assertEquals("USER_VIEW,DROPZONE_VIEW", headers.getFirst("X-User-Permissions"));
+    }
+
+    @Test
+    void filter_shouldOmitLegacyHeaders_whenLegacyHeadersAreDisabled() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, 3600000L, null, null, null, null,
+                new JwtProperties.IdentityHeader(true, "X-Identity", "downstream-identity-secret", false), null);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, properties);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + createValidToken()));
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        when(filterChain.filter(forwarded.capture())).thenReturn(Mono.empty());
+
+        // Act
+        filter.filter(exchange, filterChain).block();
+
+        // Assert
+        HttpHeaders headers = forwarded.getValue().getRequest().getHeaders();
+        assertTrue(headers.containsKey("X-Identity"));
+        assertFalse(headers.containsKey("X-User-Email"));
+        assertFalse(headers.containsKey("X-User-Permissions"));
+    }
+
+    @Test
+    void filter_shouldStripClientIdentityHeaders_whenModeThatWritesThemIsOff() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, 3600000L, null, null, null, null,
+                new JwtProperties.IdentityHeader(true, null, "downstream-identity-secret", false), null);
+        JwtAuthenticationFilter compactOnly = new JwtAuthenticationFilter(jwtService, properties);
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        when(filterChain.filter(forwarded.capture())).thenReturn(Mono.empty());
+
+        // Act
+        jwtAuthenticationFilter.filter(MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + createValidToken())
+                .header("X-User-Identity", "forged.identity")), filterChain).block();
+        compactOnly.filter(MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + createValidToken())
+                .header("X-User-Id", "1")
+                .header("x-user-roles", "ADMIN")), filterChain).block();
+
+        // Assert
+        HttpHeaders legacy = forwarded.getAllValues().get(0).getRequest().getHeaders();
+        HttpHeaders compact = forwarded.getAllValues().get(1).getRequest().getHeaders();
+        assertFalse(legacy.containsKey("X-User-Identity"));
+        assertEquals(List.of(String.valueOf(TEST_USER_ID)), legacy.get("X-User-Id"));
+        assertFalse(compact.containsKey("X-User-Id"));
+        assertFalse(compact.containsKey("X-User-Roles"));
+        assertTrue(compact.containsKey("X-User-Identity"));
+    }
+
+    @Test
+    void filter_shouldStripClientIdentityHeaders_whenPathIsPublic() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, 3600000L, null, null, null, null,
+                new JwtProperties.IdentityHeader(true, "X-Identity", "downstream-identity-secret", true), null);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, properties);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .post("/api/v1/users/auth/token")
+                .header("X-User-Id", "1")
+                .header("x-user-roles", "ADMIN")
+                .header("X-Identity", "forged.identity")
+                .header(HttpHeaders.CONTENT_TYPE, "application/json"));
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        when(filterChain.filter(forwarded.capture())).thenReturn(Mono.empty());
+
+        // Act
+        filter.filter(exchange, filterChain).block();
+
+        // Assert
+        HttpHeaders headers = forwarded.getValue().getRequest().getHeaders();
+        assertFalse(headers.containsKey("X-User-Id"));
+        assertFalse(headers.containsKey("X-User-Roles"));
+        assertFalse(headers.containsKey("X-Identity"));
+        assertEquals("application/json", headers.getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    void filter_shouldReturnUnauthorized_whenClaimsDoNotFitIdentityHeader() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, 3600000L, null, null, null, null,
+                new JwtProperties.IdentityHeader(true, null, "downstream-identity-secret", true), null);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, properties);
+        String token = Jwts.builder()
+                .subject("a".repeat(70_000))
+                .claim("userId", TEST_USER_ID)
+                .expiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(signingKey)
+                .compact();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        // Act
+        filter.filter(exchange, filterChain).block();
+
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        verify(filterChain, never()).filter(any());
+    }
+
+    @Test
+    void filter_shouldCountRejectionByReason_whenRequestIsRejected() {
+        // Arrange
+        MockServerWebExchange missingHeader = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/users/me"));
+        MockServerWebExchange expiredToken = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + createExpiredToken()));
+
+        // Act
+        jwtAuthenticationFilter.filter(missingHeader, filterChain).block();
+        jwtAuthenticationFilter.filter(expiredToken, filterChain).block();
+
+        // Assert
+        assertEquals(1.0, rejections("missing_token"));
+        assertEquals(1.0, rejections("expired"));
+        assertEquals(0.0, rejections("invalid_signature"));
+    }
+
+    @Test
+    void filter_shouldCountPublicPathBypass_whenPathIsPublic() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+        when(filterChain.filter(any())).thenReturn(Mono.empty());
+
+        // Act
+        jwtAuthenticationFilter.filter(exchange, filterChain).block();
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("gateway.auth.public.bypass").counter().count());
+        assertEquals(0.0, meterRegistry.get("gateway.auth.authenticated").counter().count());
+    }
+
+    @Test
+    void filter_shouldRecordVerificationTimeAndTokenAge_whenTokenIsValid() {
+        // Arrange
+        String validToken = createValidToken();
+        when(filterChain.filter(any())).thenReturn(Mono.empty());
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            jwtAuthenticationFilter.filter(MockServerWebExchange.from(MockServerHttpRequest
+                    .get("/api/v1/users/me")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + validToken)), filterChain).block();
+        }
+
+        // Assert
+        assertEquals(2.0, meterRegistry.get("gateway.auth.authenticated").counter().count());
+        assertEquals(2L, meterRegistry.get("gateway.auth.token.age").summary().count());
+        // The second request is served from the principal cache and skips signature verification
+        assertEquals(1L, meterRegistry.get("gateway.auth.verification").tag("result", "success").timer().count());
+    }
+
     // Helper methods
 
+    private double rejections(String reason) {
+        return meterRegistry.get("gateway.auth.rejections").tag("reason", reason).counter().count();
+    }
+
     private String createValidToken() {
         return Jwts.builder()
                 .subject(TEST_USERNAME)
@@ -0,0 +1,222 @@
+package com.skydiveforecast.infrastructure.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    private static final String TEST_SECRET = "hK8nX2mP9qR5vT3wL7bE4jY6cA1dF8sZ";
+    private static final String ROTATED_SECRET = "Zq4Wm8Rt2Yp6Ks0Vx3Nb7Lc1Hf5Jd9Ga";
+    private static final Duration GRACE_PERIOD = Duration.ofMinutes(10);
+
+    @TempDir
+    Path tempDir;
+
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void resolve_shouldReturnDefaultKey_whenTokenHasNoKid() {
+        // Arrange
+        JwtKeyRing keyRing = new JwtKeyRing(new JwtProperties(TEST_SECRET, 3600000L), clock);
+
+        // Act & Assert
+        assertNotNull(keyRing.resolve(null, "HS256"));
+    }
+
+    @Test
+    void resolve_shouldReturnNull_whenAlgorithmDoesNotMatchKey() throws Exception {
+        // Arrange
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        JwtKeyRing keyRing = new JwtKeyRing(properties(TEST_SECRET, null, rsaKey("rsa-1", keyPair, null)), clock);
+
+        // Act & Assert
+        assertNotNull(keyRing.resolve("rsa-1", "RS256"));
+        assertNull(keyRing.resolve("rsa-1", "HS256"));
+    }
+
+    @Test
+    void resolve_shouldKeepRemovedKey_untilGracePeriodEnds() throws Exception {
+        // Arrange
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        JwtKeyRing keyRing = new JwtKeyRing(properties(TEST_SECRET, null, rsaKey("rsa-1", keyPair, null)), clock);
+
+        // Act
+        keyRing.reload(properties(TEST_SECRET, null));
+
+        // Assert
+        assertNotNull(keyRing.resolve("rsa-1", "RS256"));
+        clock.advance(GRACE_PERIOD.plusSeconds(1));
+        assertNull(keyRing.resolve("rsa-1", "RS256"));
+    }
+
+    @Test
+    void generation_shouldChange_whenRetiredKeyGracePeriodEnds() throws Exception {
+        // Arrange
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        JwtKeyRing keyRing = new JwtKeyRing(properties(TEST_SECRET, null, rsaKey("rsa-1", keyPair, null)), clock);
+        keyRing.reload(properties(TEST_SECRET, null));
+        long retired = keyRing.generation();
+
+        // Act
+        clock.advance(GRACE_PERIOD);
+        long inGrace = keyRing.generation();
+        clock.advance(Duration.ofSeconds(1));
+        long expired = keyRing.generation();
+
+        // Assert
+        assertEquals(retired, inGrace);
+        assertEquals(retired + 1, expired);
+        assertEquals(expired, keyRing.generation());
+    }
+
+    @Test
+    void retiredDefaultParsers_shouldAcceptPreviousSecret_afterSecretRotation() {
+        // Arrange
+        JwtKeyRing keyRing = new JwtKeyRing(properties(TEST_SECRET, null), clock);
+        String oldToken = Jwts.builder()
+                .subject("test@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 3600000L))
+                .signWith(Keys.hmacShaKeyFor(TEST_SECRET.getBytes()))
+                .compact();
+
+        // Act
+        keyRing.reload(properties(ROTATED_SECRET, null));
+
+        // Assert
+        assertEquals(1, keyRing.retiredDefaultParsers().size());
+        assertEquals("test@example.com",
+                keyRing.retiredDefaultParsers().get(0).parseSignedClaims(oldToken).getPayload().getSubject());
+        clock.advance(GRACE_PERIOD.plusSeconds(1));
+        assertTrue(keyRing.retiredDefaultParsers().isEmpty());
+    }
+
+    @Test
+    void reload_shouldPickUpKeysFromJwksFile() throws Exception {
+        // Arrange
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        Path jwksFile = tempDir.resolve("jwks.json");
+        Files.writeString(jwksFile, "{\"keys\":[]}");
+        JwtKeyRing keyRing = new JwtKeyRing(properties(TEST_SECRET, jwksFile.toString()), clock);
+        assertNull(keyRing.resolve("jwks-1", "RS256"));
+
+        // Act
+        Files.writeString(jwksFile, jwks("jwks-1", (RSAPublicKey) keyPair.getPublic()));
+        keyRing.reload(properties(TEST_SECRET, jwksFile.toString()));
+
+        // Assert
+        assertNotNull(keyRing.resolve("jwks-1", "RS256"));
+    }
+
+    @Test
+    void constructor_shouldSkipUnsupportedJwksEntries_andLoadTheRest() throws Exception {
+        // Arrange
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        Path jwksFile = tempDir.resolve("jwks.json");
+        Files.writeString(jwksFile, jwks("jwks-1", (RSAPublicKey) keyPair.getPublic())
+                .replace("{\"keys\":[", "{\"keys\":[{\"kty\":\"PQC\",\"kid\":\"future-1\"},"));
+
+        // Act
+        JwtKeyRing keyRing = new JwtKeyRing(properties(TEST_SECRET, jwksFile.toString()), clock);
+
+        // Assert
+        assertNotNull(keyRing.resolve("jwks-1", "RS256"));
+        assertNull(keyRing.resolve("future-1", "RS256"));
+    }
+
+    @Test
+    void reload_shouldKeepPreviousKeys_whenJwksFileIsInvalid() throws Exception {
+        // Arrange
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        Path jwksFile = tempDir.resolve("jwks.json");
+        Files.writeString(jwksFile, jwks("jwks-1", (RSAPublicKey) keyPair.getPublic()));
+        JwtKeyRing keyRing = new JwtKeyRing(properties(TEST_SECRET, jwksFile.toString()), clock);
+
+        // Act
+        Files.writeString(jwksFile, "not json");
+        keyRing.reload(properties(TEST_SECRET, jwksFile.toString()));
+
+        // Assert
+        assertNotNull(keyRing.resolve("jwks-1", "RS256"));
+    }
+
+    // Helper methods
+
+    private static JwtProperties properties(String secret, String jwksFile, JwtProperties.VerificationKey... keys) {
+        return new JwtProperties(secret, 3600000L, null,
+                new JwtProperties.KeyRing(List.of(keys), jwksFile, GRACE_PERIOD, null), null, null, null, null);
+    }
+
+    private static JwtProperties.VerificationKey rsaKey(String kid, KeyPair keyPair, Instant retiredAt) {
+        return new JwtProperties.VerificationKey(kid, "RS256", null,
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()), retiredAt);
+    }
+
+    private static String jwks(String kid, RSAPublicKey publicKey) {
+        return "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"" + kid + "\",\"alg\":\"RS256\",\"n\":\""
+                + base64Url(publicKey.getModulus()) + "\",\"e\":\"" + base64Url(publicKey.getPublicExponent())
+                + "\"}]}";
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtPreParserTest {
+
+    private static final long NOW_MILLIS = 1_700_000_000_000L;
+    private static final long FUTURE_SECONDS = 1_800_000_000L;
+    private static final long PAST_SECONDS = 1_600_000_000L;
+
+    @Test
+    void hasJwsStructure_shouldReturnTrue_whenTokenHasThreeNonEmptySegments() {
+        // Arrange & Act & Assert
+        assertTrue(JwtPreParser.hasJwsStructure("a.b.c"));
+    }
+
+    @Test
+    void hasJwsStructure_shouldReturnFalse_whenSegmentsAreMissingOrExtra() {
+        // Arrange & Act & Assert
+        assertFalse(JwtPreParser.hasJwsStructure("a.b"));
+        assertFalse(JwtPreParser.hasJwsStructure(".b.c"));
+        assertFalse(JwtPreParser.hasJwsStructure("a..c"));
+        assertFalse(JwtPreParser.hasJwsStructure("a.b."));
+        assertFalse(JwtPreParser.hasJwsStructure("a.b.c.d"));
+    }
+
+    @Test
+    void check_shouldReturnValid_whenTokenIsWithinTimeWindow() {
+        // Arrange
+        String token = token("{\"sub\":\"test@example.com\",\"exp\":" + FUTURE_SECONDS + "}");
+
+        // Act & Assert
+        assertEquals(JwtPreParser.Outcome.VALID, JwtPreParser.check(token, NOW_MILLIS));
+    }
+
+    @Test
+    void check_shouldReturnExpired_whenExpIsInThePast() {
+        // Arrange
+        String token = token("{\"sub\":\"test@example.com\",\"exp\":" + PAST_SECONDS + "}");
+
+        // Act & Assert
+        assertEquals(JwtPreParser.Outcome.EXPIRED, JwtPreParser.check(token, NOW_MILLIS));
+    }
+
+    @Test
+    void check_shouldReturnNotYetValid_whenNbfIsInTheFuture() {
+        // Arrange
+        String token = token("{\"nbf\":" + FUTURE_SECONDS + ",\"exp\":" + (FUTURE_SECONDS + 60) + "}");
+
+        // Act & Assert
+        assertEquals(JwtPreParser.Outcome.NOT_YET_VALID, JwtPreParser.check(token, NOW_MILLIS));
+    }
+
+    @Test
+    void check_shouldIgnoreNestedClaims_whenLookingForExp() {
+        // Arrange
+        String token = token("{\"roles\":[\"ADMIN\",{\"exp\":1}],\"note\":\"\\\"exp\\\":1\",\"exp\":"
+                + FUTURE_SECONDS + "}");
+
+        // Act & Assert
+        assertEquals(JwtPreParser.Outcome.VALID, JwtPreParser.check(token, NOW_MILLIS));
+    }
+
+    @Test
+    void check_shouldReturnMalformed_whenExpIsMissing() {
+        // Arrange
+        String token = token("{\"sub\":\"test@example.com\"}");
+
+        // Act & Assert
+        assertEquals(JwtPreParser.Outcome.MALFORMED, JwtPreParser.check(token, NOW_MILLIS));
+    }
+
+    @Test
+    void check_shouldReturnMalformed_whenPayloadIsNotBase64Url() {
+        // Arrange & Act & Assert
+        assertEquals(JwtPreParser.Outcome.MALFORMED, JwtPreParser.check("eyJhbGciOiJIUzI1NiJ9.!!!.sig", NOW_MILLIS));
+    }
+
+    @Test
+    void check_shouldReturnMalformed_whenPayloadIsNotJson() {
+        // Arrange
+        String token = token("not json");
+
+        // Act & Assert
+        assertEquals(JwtPreParser.Outcome.MALFORMED, JwtPreParser.check(token, NOW_MILLIS));
+    }
+
+    @Test
+    void check_shouldDeferToFullParser_whenExpHasUnusualNumberFormat() {
+        // Arrange
+        String token = token("{\"exp\":1.8e9}");
+
+        // Act & Assert
+        assertEquals(JwtPreParser.Outcome.VALID, JwtPreParser.check(token, NOW_MILLIS));
+    }
+
+    // Helper methods
+
+    private static String token(String payloadJson) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(payloadJson.getBytes(StandardCharsets.UTF_8))
+                + ".c2lnbmF0dXJl";
+    }
+}
@@ -2,8 +2,12 @@ package com.skydiveforecast.infrastructure.security;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class JwtPropertiesTest {
 
@@ -105,6 +109,44 @@ class JwtPropertiesTest {
         assertEquals(7200000L, properties.expiration());
     }
 
+    @Test
+    void constructor_shouldUseCacheDefaults_whenCacheIsNotConfigured() {
+        // Arrange & Act
+        JwtProperties properties = new JwtProperties(VALID_SECRET, VALID_EXPIRATION);
+
+        // Assert
+        assertTrue(properties.cache().enabled());
+        assertEquals(10000L, properties.cache().maximumSize());
+        assertEquals(Duration.ofMinutes(15), properties.cache().maximumTtl());
+    }
+
+    @Test
+    void cache_shouldPreserveCustomLimits_whenLimitsArePositive() {
+        // Arrange & Act
+        JwtProperties.Cache cache = new JwtProperties.Cache(false, 500L, Duration.ofMinutes(5));
+
+        // Assert
+        assertFalse(cache.enabled());
+        assertEquals(500L, cache.maximumSize());
+        assertEquals(Duration.ofMinutes(5), cache.maximumTtl());
+    }
+
+    @Test
+    void identityHeader_shouldThrowException_whenCompactModeHasNoSecret() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new JwtProperties.IdentityHeader(true, null, null, true));
+    }
+
+    @Test
+    void constructor_shouldThrowException_whenIdentityHeaderReusesJwtSecret() {
+        // Arrange
+        JwtProperties.IdentityHeader identityHeader = new JwtProperties.IdentityHeader(true, null, VALID_SECRET, true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new JwtProperties(VALID_SECRET, VALID_EXPIRATION, null,
+                null, null, null, identityHeader, null));
+    }
+
     @Test
     void equals_shouldReturnTrue_whenPropertiesAreEqual() {
         // Arrange
@@ -3,10 +3,17 @@ package com.skydiveforecast.infrastructure.security;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -23,13 +30,15 @@ class JwtServiceTest {
     private static final List<String> TEST_ROLES = List.of("ADMIN", "USER");
 
     private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
     private Key signingKey;
 
     @BeforeEach
     void setUp() {
         // Arrange
         JwtProperties jwtProperties = new JwtProperties(TEST_SECRET, TEST_EXPIRATION);
-        jwtService = new JwtService(jwtProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(jwtProperties, new JwtKeyRing(jwtProperties), meterRegistry);
         signingKey = Keys.hmacShaKeyFor(TEST_SECRET.getBytes());
     }
 
@@ -213,6 +222,236 @@ class JwtServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void authenticate_shouldReturnPrincipal_whenTokenIsValid() {
+        // Arrange
+        String validToken = createValidToken();
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = jwtService.authenticate(validToken);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(TEST_USERNAME, result.get().subject());
+        assertEquals(TEST_USER_ID, result.get().userId());
+        assertEquals(TEST_ROLES, result.get().roles());
+        assertEquals(TEST_PERMISSIONS, result.get().permissions());
+        assertNotNull(result.get().expiresAt());
+    }
+
+    @Test
+    void authenticate_shouldReturnEmpty_whenTokenIsExpired() {
+        // Arrange
+        String expiredToken = createExpiredToken();
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = jwtService.authenticate(expiredToken);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void authenticate_shouldReturnEmptyLists_whenRolesAndPermissionsAreMissing() {
+        // Arrange
+        String token = Jwts.builder()
+                .subject(TEST_USERNAME)
+                .expiration(new Date(System.currentTimeMillis() + TEST_EXPIRATION))
+                .signWith(signingKey)
+                .compact();
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = jwtService.authenticate(token);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertTrue(result.get().roles().isEmpty());
+        assertTrue(result.get().permissions().isEmpty());
+    }
+
+    @Test
+    void authenticate_shouldServeRepeatedTokenFromCache_whenCacheIsEnabled() {
+        // Arrange
+        String validToken = createValidToken();
+
+        // Act
+        Optional<AuthenticatedPrincipal> first = jwtService.authenticate(validToken);
+        Optional<AuthenticatedPrincipal> second = jwtService.authenticate(validToken);
+
+        // Assert
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.principals").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.principals").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void authenticate_shouldVerifyEveryTime_whenCacheIsDisabled() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, TEST_EXPIRATION,
+                new JwtProperties.Cache(false, 0, null), null, null, null, null, null);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtService service = new JwtService(properties, new JwtKeyRing(properties), registry);
+        String validToken = createValidToken();
+
+        // Act
+        Optional<AuthenticatedPrincipal> first = service.authenticate(validToken);
+        Optional<AuthenticatedPrincipal> second = service.authenticate(validToken);
+
+        // Assert
+        assertTrue(first.isPresent());
+        assertNotSame(first.get(), second.get());
+        assertTrue(registry.find("cache.gets").tag("cache", "jwt.principals").meters().isEmpty());
+    }
+
+    @Test
+    void authenticate_shouldNotCacheRejectedTokens() {
+        // Arrange
+        String expiredToken = createExpiredToken();
+
+        // Act
+        jwtService.authenticate(expiredToken);
+        Optional<AuthenticatedPrincipal> result = jwtService.authenticate(expiredToken);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(0.0, meterRegistry.get("cache.gets").tag("cache", "jwt.principals").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void verify_shouldReturnRevoked_whenTokenIdIsRevokedAfterBeingCached() {
+        // Arrange
+        JwtProperties properties = new JwtProperties(TEST_SECRET, TEST_EXPIRATION);
+        TokenRevocationList revocationList = new TokenRevocationList(
+                new JwtProperties.Revocation(true, null, null, null, 0, 0), new InMemoryRevocationStore(),
+                Clock.systemUTC());
+        JwtService service = new JwtService(properties, new JwtKeyRing(properties), revocationList,
+                new SimpleMeterRegistry());
+        String token = Jwts.builder()
+                .id("3f2a9c71")
+                .subject(TEST_USERNAME)
+                .claim("userId", TEST_USER_ID)
+                .expiration(new Date(System.currentTimeMillis() + TEST_EXPIRATION))
+                .signWith(signingKey)
+                .compact();
+        AuthenticationResult beforeRevocation = service.verify(token);
+
+        // Act
+        revocationList.add(new RevokedToken("3f2a9c71", Instant.now().plusSeconds(3600)));
+        AuthenticationResult afterRevocation = service.verify(token);
+
+        // Assert
+        assertTrue(beforeRevocation.authenticated());
+        assertEquals("3f2a9c71", beforeRevocation.principal().tokenId());
+        assertEquals(AuthenticationFailure.REVOKED, afterRevocation.failure());
+        assertFalse(service.isTokenValid(token));
+    }
+
+    @Test
+    void authenticate_shouldVerifyRsaToken_whenKidIsInKeyRing() throws Exception {
+        // Arrange
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        JwtProperties properties = new JwtProperties(TEST_SECRET, TEST_EXPIRATION, null,
+                new JwtProperties.KeyRing(List.of(new JwtProperties.VerificationKey("rsa-1", "RS256", null,
+                        Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()), null)),
+                        null, null, null), null, null, null, null);
+        JwtService service = new JwtService(properties, new JwtKeyRing(properties), new SimpleMeterRegistry());
+        String token = Jwts.builder()
+                .header().keyId("rsa-1").and()
+                .subject(TEST_USERNAME)
+                .expiration(new Date(System.currentTimeMillis() + TEST_EXPIRATION))
+                .signWith(keyPair.getPrivate())
+                .compact();
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = service.authenticate(token);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(TEST_USERNAME, result.get().subject());
+    }
+
+    @Test
+    void verify_shouldVerifyCachedTokenAgain_whenSigningKeyIsRetired() throws Exception {
+        // Arrange
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        JwtProperties properties = new JwtProperties(TEST_SECRET, TEST_EXPIRATION, null,
+                new JwtProperties.KeyRing(List.of(new JwtProperties.VerificationKey("rsa-1", "RS256", null,
+                        publicKey, null)), null, null, null), null, null, null, null);
+        JwtKeyRing keyRing = new JwtKeyRing(properties);
+        JwtService service = new JwtService(properties, keyRing, new SimpleMeterRegistry());
+        String token = Jwts.builder()
+                .header().keyId("rsa-1").and()
+                .subject(TEST_USERNAME)
+                .expiration(new Date(System.currentTimeMillis() + TEST_EXPIRATION))
+                .signWith(keyPair.getPrivate())
+                .compact();
+        AuthenticationResult beforeRetirement = service.verify(token);
+
+        // Act
+        keyRing.reload(new JwtProperties(TEST_SECRET, TEST_EXPIRATION, null,
+                new JwtProperties.KeyRing(List.of(new JwtProperties.VerificationKey("rsa-1", "RS256", null,
+                        publicKey, Instant.now().minus(Duration.ofDays(1)))), null, null, null),
+                null, null, null, null));
+        AuthenticationResult afterRetirement = service.verify(token);
+
+        // Assert
+        assertTrue(beforeRetirement.authenticated());
+        assertFalse(afterRetirement.authenticated());
+    }
+
+    @Test
+    void authenticate_shouldReturnEmpty_whenKidIsUnknown() {
+        // Arrange
+        String token = Jwts.builder()
+                .header().keyId("unknown").and()
+                .subject(TEST_USERNAME)
+                .expiration(new Date(System.currentTimeMillis() + TEST_EXPIRATION))
+                .signWith(signingKey)
+                .compact();
+
+        // Act
+        Optional<AuthenticatedPrincipal> result = jwtService.authenticate(token);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void verify_shouldReportFailureReason_whenTokenIsRejected() {
+        // Arrange
+        String expiredToken = createExpiredToken();
+        String forgedToken = createForgedToken();
+
+        // Act
+        AuthenticationResult expired = jwtService.verify(expiredToken);
+        AuthenticationResult forged = jwtService.verify(forgedToken);
+
+        // Assert
+        assertEquals(AuthenticationFailure.EXPIRED, expired.failure());
+        assertEquals(AuthenticationFailure.INVALID_SIGNATURE, forged.failure());
+        assertFalse(forged.authenticated());
+    }
+
+    @Test
+    void verify_shouldRejectRepeatedForgedToken_fromNegativeCache() {
+        // Arrange
+        String forgedToken = createForgedToken();
+
+        // Act
+        jwtService.verify(forgedToken);
+        AuthenticationResult result = jwtService.verify(forgedToken);
+
+        // Assert
+        assertEquals(AuthenticationFailure.INVALID_SIGNATURE, result.failure());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.rejections").tag("result", "hit")
+                .functionCounter().count());
+    }
+
     // Helper methods to create test tokens
 
     private String createValidToken() {
@@ -227,6 +466,15 @@ class JwtServiceTest {
                 .compact();
     }
 
+    private String createForgedToken() {
+        Key wrongKey = Keys.hmacShaKeyFor("wrongSecretKeyThatIsDifferent1234".getBytes());
+        return Jwts.builder()
+                .subject(TEST_USERNAME)
+                .expiration(new Date(System.currentTimeMillis() + TEST_EXPIRATION))
+                .signWith(wrongKey)
+                .compact();
+    }
+
     private String createExpiredToken() {
         return Jwts.builder()
                 .subject(TEST_USERNAME)
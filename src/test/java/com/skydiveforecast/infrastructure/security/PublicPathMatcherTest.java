@@ -0,0 +1,84 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublicPathMatcherTest {
+
+    private final PublicPathMatcher matcher = PublicPathMatcher.compile(JwtProperties.DEFAULT_PUBLIC_PATHS);
+
+    @Test
+    void matches_shouldReturnTrue_whenPathIsUnderDoubleWildcardPattern() {
+        // Arrange & Act & Assert
+        assertTrue(matcher.matches("/api/v1/users/auth/token"));
+        assertTrue(matcher.matches("/api/v1/users/auth"));
+        assertTrue(matcher.matches("/webjars/swagger-ui/index.css"));
+    }
+
+    @Test
+    void matches_shouldReturnFalse_whenPathOnlySharesPrefix() {
+        // Arrange & Act & Assert
+        assertFalse(matcher.matches("/api/v1/users/me"));
+        assertFalse(matcher.matches("/api/v1/users/authx/token"));
+        assertFalse(matcher.matches("/swagger-ui.htmlx"));
+    }
+
+    @Test
+    void matches_shouldSupportSingleSegmentWildcard() {
+        // Arrange
+        PublicPathMatcher wildcardMatcher = PublicPathMatcher.compile(List.of("/api/v1/locations/*/public"));
+
+        // Act & Assert
+        assertTrue(wildcardMatcher.matches("/api/v1/locations/42/public"));
+        assertFalse(wildcardMatcher.matches("/api/v1/locations/42/private"));
+        assertFalse(wildcardMatcher.matches("/api/v1/locations/public"));
+    }
+
+    @Test
+    void matches_shouldFallBackToAntMatching_whenPatternHasPartialWildcard() {
+        // Arrange
+        PublicPathMatcher partialMatcher = PublicPathMatcher.compile(List.of("/static/*.js", "/docs/**/index.html"));
+
+        // Act & Assert
+        assertTrue(partialMatcher.matches("/static/app.js"));
+        assertTrue(partialMatcher.matches("/docs/a/b/index.html"));
+        assertFalse(partialMatcher.matches("/static/app.css"));
+    }
+
+    @Test
+    void matches_shouldAgreeWithAntPathMatcher_forDefaultPatterns() {
+        // Arrange
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+        List<String> paths = List.of("/", "/actuator", "/actuator/health", "/actuator/health/", "/swagger-ui.html",
+                "/swagger-ui.html/", "/swagger-ui/index.html", "/v3/api-docs", "/v3/api-docs/users",
+                "/api/v1/analyses/1", "/api/v1/users/auth/login", "/webjars");
+
+        // Act & Assert
+        for (String path : paths) {
+            boolean expected = JwtProperties.DEFAULT_PUBLIC_PATHS.stream()
+                    .anyMatch(pattern -> antPathMatcher.match(pattern, path));
+            assertEquals(expected, matcher.matches(path), path);
+        }
+    }
+
+    @Test
+    void matches_shouldFindPattern_whenManyPatternsAreCompiled() {
+        // Arrange
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            patterns.add("/api/v1/service-" + i + "/public/**");
+        }
+        PublicPathMatcher largeMatcher = PublicPathMatcher.compile(patterns);
+
+        // Act & Assert
+        assertTrue(largeMatcher.matches("/api/v1/service-499/public/status"));
+        assertFalse(largeMatcher.matches("/api/v1/service-500/public/status"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisRevocationStoreTest {
+
+    @Test
+    void parse_shouldReadExpiryAndTokenId_whenMessageIsWellFormed() {
+        // Act
+        RevokedToken token = RedisRevocationStore.parse("1893456000:3f2a-91:b7");
+
+        // Assert
+        assertEquals(new RevokedToken("3f2a-91:b7", Instant.ofEpochSecond(1893456000L)), token);
+    }
+
+    @Test
+    void parse_shouldReturnFormattedToken_whenRoundTripped() {
+        // Arrange
+        RevokedToken token = new RevokedToken("c0ffee", Instant.ofEpochSecond(1893456000L));
+
+        // Act & Assert
+        assertEquals(token, RedisRevocationStore.parse(RedisRevocationStore.format(token)));
+    }
+
+    @Test
+    void parse_shouldReturnNull_whenMessageIsMalformed() {
+        // Act & Assert
+        assertNull(RedisRevocationStore.parse("c0ffee"));
+        assertNull(RedisRevocationStore.parse("soon:c0ffee"));
+        assertNull(RedisRevocationStore.parse("1893456000:"));
+        assertNull(RedisRevocationStore.parse(null));
+    }
+}
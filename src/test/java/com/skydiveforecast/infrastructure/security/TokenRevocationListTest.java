@@ -0,0 +1,92 @@
+package com.skydiveforecast.infrastructure.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    private InMemoryRevocationStore store;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange
+        store = new InMemoryRevocationStore();
+        revocationList = new TokenRevocationList(
+                new JwtProperties.Revocation(true, null, null, Duration.ofHours(1), 1000, 0.001),
+                store, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocationList.stop();
+    }
+
+    @Test
+    void isRevoked_shouldReturnTrue_whenRevocationIsPublished() {
+        // Arrange
+        revocationList.start();
+
+        // Act
+        store.revoke(new RevokedToken("jti-1", NOW.plusSeconds(600))).block();
+
+        // Assert
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+    }
+
+    @Test
+    void isRevoked_shouldReturnTrue_whenRevocationIsOnlyPickedUpByResync() {
+        // Arrange
+        store.storeSilently(new RevokedToken("jti-1", NOW.plusSeconds(600)));
+
+        // Act
+        revocationList.resync().block();
+
+        // Assert
+        assertTrue(revocationList.isRevoked("jti-1"));
+    }
+
+    @Test
+    void resync_shouldKeepPublishedRevocations_whenStoreSnapshotDoesNotContainThemYet() {
+        // Arrange
+        revocationList.add(new RevokedToken("jti-1", NOW.plusSeconds(600)));
+
+        // Act
+        revocationList.resync().block();
+
+        // Assert
+        assertTrue(revocationList.isRevoked("jti-1"));
+    }
+
+    @Test
+    void resync_shouldDropExpiredRevocations() {
+        // Arrange
+        store.storeSilently(new RevokedToken("jti-expired", NOW.minusSeconds(1)));
+        store.storeSilently(new RevokedToken("jti-active", NOW.plusSeconds(600)));
+
+        // Act
+        revocationList.resync().block();
+
+        // Assert
+        assertFalse(revocationList.isRevoked("jti-expired"));
+        assertTrue(revocationList.isRevoked("jti-active"));
+        assertEquals(1, revocationList.size());
+    }
+
+    @Test
+    void isRevoked_shouldReturnFalse_whenTokenHasNoId() {
+        // Act & Assert
+        assertFalse(revocationList.isRevoked(null));
+    }
+}